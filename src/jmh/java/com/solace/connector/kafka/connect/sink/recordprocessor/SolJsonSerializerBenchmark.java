@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.google.gson.Gson;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SolJsonSerializer} with converting the record value into a generic object tree that is
+ * serialized by Gson, which is what a connector without compiled writers would do. Run with
+ * {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SolJsonSerializerBenchmark {
+  private static final Schema LINE_SCHEMA = SchemaBuilder.struct().name("Line")
+      .field("sku", Schema.STRING_SCHEMA)
+      .field("quantity", Schema.INT32_SCHEMA)
+      .field("price", Schema.FLOAT64_SCHEMA)
+      .build();
+  private static final Schema ORDER_SCHEMA = SchemaBuilder.struct().name("Order")
+      .field("id", Schema.INT64_SCHEMA)
+      .field("customer", Schema.STRING_SCHEMA)
+      .field("region", Schema.OPTIONAL_STRING_SCHEMA)
+      .field("paid", Schema.BOOLEAN_SCHEMA)
+      .field("lines", SchemaBuilder.array(LINE_SCHEMA).build())
+      .field("attributes", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.STRING_SCHEMA).build())
+      .build();
+
+  private final SolJsonSerializer serializer = new SolJsonSerializer();
+  private final Gson gson = new Gson();
+  private Struct order;
+
+  @Setup
+  public void setUp() {
+    List<Struct> lines = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      lines.add(new Struct(LINE_SCHEMA).put("sku", "SKU-" + i).put("quantity", i + 1).put("price", 9.99 * i));
+    }
+    Map<String, String> attributes = new LinkedHashMap<>();
+    attributes.put("channel", "web");
+    attributes.put("note", "leave at the \"back\" door");
+    order = new Struct(ORDER_SCHEMA)
+        .put("id", 1234567890L)
+        .put("customer", "J\u00f6rg M\u00fcller")
+        .put("region", "emea")
+        .put("paid", true)
+        .put("lines", lines)
+        .put("attributes", attributes);
+  }
+
+  @Benchmark
+  public int compiledWriters() {
+    serializer.serialize(ORDER_SCHEMA, order);
+    return serializer.size();
+  }
+
+  @Benchmark
+  public byte[] gsonObjectTree() {
+    return gson.toJson(toTree(order)).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static Object toTree(Object value) {
+    if (value instanceof Struct) {
+      Struct struct = (Struct) value;
+      Map<String, Object> map = new LinkedHashMap<>();
+      for (Field field : struct.schema().fields()) {
+        map.put(field.name(), toTree(struct.get(field)));
+      }
+      return map;
+    }
+    if (value instanceof List) {
+      List<Object> list = new ArrayList<>();
+      for (Object element : (List<?>) value) {
+        list.add(toTree(element));
+      }
+      return list;
+    }
+    return value;
+  }
+}
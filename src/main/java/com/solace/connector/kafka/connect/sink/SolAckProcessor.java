@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.JCSMPException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves the bookkeeping of publisher acknowledgements off the JCSMP reactor thread. The reactor only
+ * claims a slot in a bounded lock-free ring and records the event; a single bookkeeping thread drains
+ * the ring in batches and updates the publisher windows and the retransmit buffer, in the order the
+ * events were recorded. The ring is preallocated, so publishing an event does not allocate; it only needs
+ * to hold the acknowledgements of the messages the publisher windows let be outstanding.
+ */
+final class SolAckProcessor implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(SolAckProcessor.class);
+  static final int MAX_CAPACITY = 1 << 16;
+  static final int BATCH_SIZE = 1024;
+
+  private final int capacity;
+  private final int mask;
+  // Sequence of each slot: equal to the position when free, position + 1 when holding an event
+  private final AtomicLongArray sequences;
+  private final SolPublisherWindow[] windows;
+  private final Object[] keys;
+  private final JCSMPException[] causes;
+  private final long[] timestamps;
+  private final AtomicLong tail = new AtomicLong();
+  private long head;
+
+  private final Object[] acknowledgedKeys;
+  private final SolRetransmitBuffer retransmitBuffer;
+  private final Thread thread;
+  private volatile boolean parked;
+  private volatile boolean running = true;
+
+  /**
+   * @param retransmitBuffer buffer tracking unacknowledged messages, or null
+   * @param events number of events the ring holds, rounded up to a power of two
+   * @param name name of the bookkeeping thread
+   */
+  SolAckProcessor(SolRetransmitBuffer retransmitBuffer, int events, String name) {
+    this.retransmitBuffer = retransmitBuffer;
+    this.capacity = events >= MAX_CAPACITY ? MAX_CAPACITY : Integer.highestOneBit(Math.max(events, 2) * 2 - 1);
+    this.mask = capacity - 1;
+    this.sequences = new AtomicLongArray(capacity);
+    this.windows = new SolPublisherWindow[capacity];
+    this.keys = new Object[capacity];
+    this.causes = new JCSMPException[capacity];
+    this.timestamps = new long[capacity];
+    this.acknowledgedKeys = new Object[Math.min(BATCH_SIZE, capacity)];
+    for (int i = 0; i < capacity; i++) {
+      sequences.lazySet(i, i);
+    }
+    this.thread = new Thread(this::run, name);
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Record an acknowledgement or rejection, called on the reactor thread. If the ring is full, waits for
+   * the bookkeeping thread to free a slot, processing the event out of turn would break the order the
+   * publisher windows rely on.
+   * @param window window of the flow the message was sent on, or null
+   * @param key correlation key of the message
+   * @param cause the reason for a rejection, null for an acknowledgement
+   */
+  void offer(SolPublisherWindow window, Object key, JCSMPException cause) {
+    long now = System.nanoTime();
+    long position;
+    while (true) {
+      position = tail.get();
+      long available = sequences.get((int) position & mask) - position;
+      if (available == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          break;
+        }
+      } else if (available < 0) {
+        if (!running) {
+          // Nothing drains the ring anymore
+          process(retransmitBuffer, window, key, cause, now);
+          return;
+        }
+        LockSupport.unpark(thread);
+        Thread.yield();
+      }
+    }
+    int slot = (int) position & mask;
+    windows[slot] = window;
+    keys[slot] = key;
+    causes[slot] = cause;
+    timestamps[slot] = now;
+    // A volatile write, so that the bookkeeping thread cannot miss it after announcing it parks
+    sequences.set(slot, position + 1);
+    if (parked) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private void run() {
+    while (running) {
+      if (drain() == 0) {
+        parked = true;
+        // Check again, an event may have been published before the flag was visible
+        if (sequences.get((int) head & mask) != head + 1 && running) {
+          LockSupport.park(this);
+        }
+        parked = false;
+      }
+    }
+    drain();
+  }
+
+  /**
+   * Process up to a batch of events. Acknowledgements are handed to the retransmit buffer in one call.
+   * @return the number of events processed
+   */
+  int drain() {
+    int acknowledged = 0;
+    int count = 0;
+    while (count < acknowledgedKeys.length) {
+      int slot = (int) head & mask;
+      if (sequences.get(slot) != head + 1) {
+        break;
+      }
+      SolPublisherWindow window = windows[slot];
+      Object key = keys[slot];
+      JCSMPException cause = causes[slot];
+      long timestamp = timestamps[slot];
+      windows[slot] = null;
+      keys[slot] = null;
+      causes[slot] = null;
+      sequences.lazySet(slot, head + capacity);
+      head++;
+      count++;
+
+      if (cause == null && retransmitBuffer != null && !(key instanceof SolInflightMemoryBudget.Hold)) {
+        if (window != null) {
+          window.acknowledged(timestamp);
+        }
+        acknowledgedKeys[acknowledged++] = key;
+      } else {
+        process(retransmitBuffer, window, key, cause, timestamp);
+      }
+    }
+    if (acknowledged > 0) {
+      retransmitBuffer.acknowledged(acknowledgedKeys, acknowledged);
+      Arrays.fill(acknowledgedKeys, 0, acknowledged, null);
+    }
+    return count;
+  }
+
+  /**
+   * Apply an acknowledgement or rejection to the publisher window and retransmit buffer, and release the
+   * in-flight memory of a message not tracked for retransmission.
+   */
+  static void process(SolRetransmitBuffer retransmitBuffer, SolPublisherWindow window, Object key,
+                      JCSMPException cause, long timestamp) {
+    if (window != null) {
+      window.acknowledged(timestamp);
+    }
+    if (cause == null) {
+      if (retransmitBuffer == null || !retransmitBuffer.acknowledged(key)) {
+        log.trace("Received ACK for message with correlation key: {}", key);
+      }
+    } else if (retransmitBuffer != null && retransmitBuffer.rejected(key, cause)) {
+      log.warn("================ Message rejected by PubSub+, scheduled for retransmission", cause);
+    } else {
+      log.error("================ Error occurred for message with correlation key: {}", key, cause);
+    }
+    if (key instanceof SolInflightMemoryBudget.Hold) {
+      ((SolInflightMemoryBudget.Hold) key).release();
+    }
+  }
+
+  /**
+   * Stop the bookkeeping thread after processing the events already recorded.
+   */
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(thread);
+    if (Thread.currentThread() != thread) {
+      try {
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.BytesXMLMessage;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.util.Collection;
+
+/**
+ * Record processor converting the records of a batch in one call, which allows sharing work such as schema
+ * lookups, encoder state and buffers across the records. The connector prefers {@link #processRecords} over
+ * {@link #processRecord} for processors implementing this interface. Only the conversion is done in one call,
+ * the resulting messages are still sent one at a time.
+ */
+public interface SolBatchRecordProcessorIF extends SolRecordProcessorIF {
+
+  /**
+   * Converts a batch of records consumed from Kafka into Solace {@link BytesXMLMessage}s. If this method
+   * throws, the connector converts the records of the batch one by one using {@link #processRecord}.
+   *
+   * @param skey      the Kafka record-key.
+   * @param records   the Kafka records of the batch.
+   * @param messages  receives the message of each record in iteration order of the records, a null entry
+   *                  discards its record. The array is reused across batches and may be longer than the batch.
+   */
+  void processRecords(String skey, Collection<SinkRecord> records, BytesXMLMessage[] messages);
+}
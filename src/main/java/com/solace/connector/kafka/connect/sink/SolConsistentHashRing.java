@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consistent hash ring mapping keys to nodes. Each node is placed on the ring at a number of virtual node
+ * positions, so keys are spread evenly and adding a node only moves the keys it takes over.
+ */
+final class SolConsistentHashRing {
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final long[] points;
+  private final int[] owners;
+
+  /**
+   * @param nodes names of the nodes, the index of a node in this list is returned by {@link #nodeFor}
+   * @param virtualNodes number of ring positions per node
+   */
+  SolConsistentHashRing(List<String> nodes, int virtualNodes) {
+    if (nodes.isEmpty() || virtualNodes < 1) {
+      throw new IllegalArgumentException("At least one node and one virtual node per node is required");
+    }
+    int size = nodes.size() * virtualNodes;
+    long[][] positions = new long[size][];
+    for (int node = 0; node < nodes.size(); node++) {
+      for (int i = 0; i < virtualNodes; i++) {
+        byte[] name = (nodes.get(node) + '#' + i).getBytes(StandardCharsets.UTF_8);
+        positions[node * virtualNodes + i] = new long[] {hash(name), node};
+      }
+    }
+    Arrays.sort(positions, (a, b) -> Long.compare(a[0], b[0]));
+    points = new long[size];
+    owners = new int[size];
+    for (int i = 0; i < size; i++) {
+      points[i] = positions[i][0];
+      owners[i] = (int) positions[i][1];
+    }
+  }
+
+  /**
+   * @return index of the node owning the first ring position at or after the hash of the key
+   */
+  int nodeFor(byte[] key) {
+    int i = Arrays.binarySearch(points, hash(key));
+    if (i < 0) {
+      i = -i - 1;
+    }
+    return owners[i == points.length ? 0 : i];
+  }
+
+  /**
+   * 64-bit FNV-1a followed by the MurmurHash3 finalizer, which spreads similar keys over the whole ring.
+   */
+  static long hash(byte[] data) {
+    long h = FNV_OFFSET_BASIS;
+    for (byte b : data) {
+      h ^= b & 0xff;
+      h *= FNV_PRIME;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
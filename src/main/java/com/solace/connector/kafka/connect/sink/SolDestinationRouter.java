@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.Destination;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Routes the records of each Kafka topic to its own PubSub+ queues and topics. Each name listed in
+ * {@value SolaceSinkConstants#SOL_DESTINATION_ROUTES} maps the Kafka topics matching
+ * {@code sol.destination_route.<name>.topics} to the queues of {@code sol.destination_route.<name>.queues}
+ * and the topics of {@code sol.destination_route.<name>.solace_topics}. Topics matching no route are sent to
+ * {@value SolaceSinkConstants#SOl_QUEUE} and {@value SolaceSinkConstants#SOL_TOPICS}.
+ *
+ * <p>Topics are mapped to arrays of destinations by a {@link SolTopicTable}, so that sending a record only
+ * takes a single lookup of its topic. Queues come first in the arrays.
+ */
+final class SolDestinationRouter {
+  private final SolTopicTable<Destination[]> table;
+
+  private SolDestinationRouter(SolTopicTable<Destination[]> table) {
+    this.table = table;
+  }
+
+  /**
+   * Create the destinations of the configured routes.
+   * @param defaultDestinations destinations of topics matching no route, queues first
+   * @return the router, or null if no routes are configured
+   * @throws ConfigException if a route is misconfigured
+   */
+  static SolDestinationRouter create(SolaceSinkConnectorConfig sconfig, Destination[] defaultDestinations) {
+    List<String> names = sconfig.getList(SolaceSinkConstants.SOL_DESTINATION_ROUTES);
+    if (names.isEmpty()) {
+      return null;
+    }
+    SolTopicTable<Destination[]> table = new SolTopicTable<>("destination route", defaultDestinations);
+    for (String name : names) {
+      name = name.trim();
+      String prefix = SolaceSinkConstants.SOL_DESTINATION_ROUTE_PREFIX + name + ".";
+      Map<String, Object> props = sconfig.originalsWithPrefix(prefix);
+      Pattern pattern = SolTopicTable.topics(prefix, props);
+      List<Destination> destinations = new ArrayList<>();
+      for (String queue : names(props.get("queues"))) {
+        destinations.add(JCSMPFactory.onlyInstance().createQueue(queue));
+      }
+      for (String topic : names(props.get("solace_topics"))) {
+        destinations.add(JCSMPFactory.onlyInstance().createTopic(topic));
+      }
+      if (destinations.isEmpty()) {
+        throw new ConfigException(prefix + "queues", null, "Destination route " + name
+            + " has neither queues nor solace_topics");
+      }
+      table.add(name, pattern, destinations.toArray(new Destination[0]));
+    }
+    return new SolDestinationRouter(table);
+  }
+
+  private static List<String> names(Object value) {
+    List<String> names = new ArrayList<>();
+    if (value != null) {
+      for (String name : value.toString().split(",")) {
+        if (!name.trim().isEmpty()) {
+          names.add(name.trim());
+        }
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Resolve the destinations of newly assigned partitions.
+   */
+  void open(Collection<TopicPartition> partitions) {
+    table.open(partitions);
+  }
+
+  /**
+   * Forget the destinations of topics of which no partition is assigned anymore.
+   */
+  void close(Collection<TopicPartition> partitions) {
+    table.close(partitions);
+  }
+
+  /**
+   * @return the destinations of a Kafka topic, resolved on first use if its partitions were not opened
+   */
+  Destination[] destinationsFor(String topic) {
+    return table.get(topic);
+  }
+}
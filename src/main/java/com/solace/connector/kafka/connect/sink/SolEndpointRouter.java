@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.Destination;
+import com.solacesystems.jcsmp.JCSMPException;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads messages over the brokers named in {@code sol.endpoints}. The broker configured by {@code sol.host}
+ * is the endpoint named {@value #DEFAULT_ENDPOINT}, each additional endpoint has its own session and producers.
+ * Messages are assigned to an endpoint by a consistent hash of their destination or of the record key.
+ */
+final class SolEndpointRouter {
+  private static final Logger log = LoggerFactory.getLogger(SolEndpointRouter.class);
+  static final String DEFAULT_ENDPOINT = "default";
+  static final String ROUTING_KEY = "key";
+
+  private final SolConsistentHashRing ring;
+  private final boolean routeByKey;
+  private final List<String> names = new ArrayList<>();
+  private final List<SolSessionHandler> sessionHandlers = new ArrayList<>();
+  private final List<SolProducerHandler> producerHandlers = new ArrayList<>();
+
+  /**
+   * Connect to the additional endpoints.
+   * @param txAutoFlushCallback called when a transaction on an endpoint reached the autoflush size
+   * @param retransmitBuffer tracks messages sent to queues without transactions, may be null
+   */
+  SolEndpointRouter(SolaceSinkConnectorConfig sconfig, Runnable txAutoFlushCallback,
+                    SolRetransmitBuffer retransmitBuffer) throws JCSMPException {
+    routeByKey = ROUTING_KEY.equals(sconfig.getString(SolaceSinkConstants.SOL_ENDPOINTS_ROUTING));
+    names.add(DEFAULT_ENDPOINT);
+    try {
+      for (String name : sconfig.getList(SolaceSinkConstants.SOL_ENDPOINTS)) {
+        name = name.trim();
+        if (names.contains(name)) {
+          throw new ConfigException(SolaceSinkConstants.SOL_ENDPOINTS, name, "Endpoint names must be unique");
+        }
+        names.add(name);
+        SolaceSinkConnectorConfig endpointConfig = endpointConfig(sconfig, name);
+        SolSessionHandler sessionHandler = new SolSessionHandler(endpointConfig);
+        sessionHandlers.add(sessionHandler);
+        sessionHandler.configureSession();
+        sessionHandler.connectSession();
+        producerHandlers.add(new SolProducerHandler(endpointConfig, sessionHandler, txAutoFlushCallback,
+            retransmitBuffer));
+        log.info("================ JCSMPSession connected to endpoint {} on {}", name, sessionHandler.getHost());
+      }
+    } catch (JCSMPException | RuntimeException e) {
+      close();
+      throw e;
+    }
+    ring = new SolConsistentHashRing(names, sconfig.getInt(SolaceSinkConstants.SOL_ENDPOINTS_VIRTUAL_NODES));
+  }
+
+  /**
+   * Build the configuration of an endpoint: each {@code sol.endpoint.<name>.<property>} overrides
+   * {@code sol.<property>} of the connector configuration.
+   */
+  static SolaceSinkConnectorConfig endpointConfig(SolaceSinkConnectorConfig sconfig, String name) {
+    String prefix = SolaceSinkConstants.SOL_ENDPOINT_PREFIX + name + ".";
+    Map<String, String> props = new HashMap<>(sconfig.originalsStrings());
+    boolean hasHost = false;
+    for (Map.Entry<String, Object> entry : sconfig.originalsWithPrefix(prefix).entrySet()) {
+      props.put("sol." + entry.getKey(), String.valueOf(entry.getValue()));
+      hasHost |= entry.getKey().equals("host");
+    }
+    if (!hasHost) {
+      throw new ConfigException(prefix + "host", null, "Endpoint " + name + " has no host");
+    }
+    // Standby sessions and the spill buffer only apply to the default endpoint
+    props.remove(SolaceSinkConstants.SOL_STANDBY_HOST);
+    props.remove(SolaceSinkConstants.SOL_SPILL_DIRECTORY);
+    return new SolaceSinkConnectorConfig(props);
+  }
+
+  /**
+   * @return the producer of the endpoint the message is routed to, or null for the default endpoint
+   */
+  SolProducerHandler producerFor(SinkRecord record, Destination dest) {
+    int endpoint = ring.nodeFor(routingKey(record, dest));
+    return endpoint == 0 ? null : producerHandlers.get(endpoint - 1);
+  }
+
+  private byte[] routingKey(SinkRecord record, Destination dest) {
+    Object key = routeByKey && record != null ? record.key() : null;
+    if (key instanceof byte[]) {
+      return (byte[]) key;
+    }
+    if (key instanceof ByteBuffer) {
+      ByteBuffer buffer = ((ByteBuffer) key).duplicate();
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      return bytes;
+    }
+    // Records without a key are routed by destination
+    String name = key != null ? key.toString() : dest != null ? dest.getName() : "";
+    return name.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Commit the open transactions of the additional endpoints.
+   */
+  void commit() throws JCSMPException {
+    for (int i = 0; i < producerHandlers.size(); i++) {
+      if (producerHandlers.get(i).getTxMsgCount().getAndSet(0) > 0) {
+        sessionHandlers.get(i).getTxSession().commit();
+        log.debug("Committed Solace records on endpoint {} for transaction with status: {}", names.get(i + 1),
+            sessionHandlers.get(i).getTxSession().getStatus().name());
+      }
+    }
+  }
+
+  void close() {
+    for (SolProducerHandler producerHandler : producerHandlers) {
+      producerHandler.close();
+    }
+    for (SolSessionHandler sessionHandler : sessionHandlers) {
+      sessionHandler.printStats();
+      sessionHandler.shutdown();
+    }
+  }
+}
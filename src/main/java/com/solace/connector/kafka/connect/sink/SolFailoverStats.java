@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+/**
+ * Statistics of switches between the primary and the standby session.
+ */
+public final class SolFailoverStats implements SolFailoverStatsMBean {
+  private volatile String activeHost;
+  private volatile boolean standbyReady;
+  private volatile long switchCount;
+  private volatile long lastSwitchMicros = -1;
+
+  SolFailoverStats(String activeHost) {
+    this.activeHost = activeHost;
+  }
+
+  synchronized void switched(String newActiveHost, long switchMicros) {
+    activeHost = newActiveHost;
+    standbyReady = false;
+    switchCount++;
+    lastSwitchMicros = switchMicros;
+  }
+
+  void setStandbyReady(boolean standbyReady) {
+    this.standbyReady = standbyReady;
+  }
+
+  @Override
+  public String getActiveHost() {
+    return activeHost;
+  }
+
+  @Override
+  public boolean isStandbyReady() {
+    return standbyReady;
+  }
+
+  @Override
+  public long getSwitchCount() {
+    return switchCount;
+  }
+
+  @Override
+  public long getLastSwitchMicros() {
+    return lastSwitchMicros;
+  }
+}
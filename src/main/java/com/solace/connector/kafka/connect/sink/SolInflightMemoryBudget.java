@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte budget for messages held in-flight by all sink tasks of a JVM. Tasks account for the messages
+ * they hold and pause their partitions once the budget is exhausted. Partitions are resumed once usage
+ * drops below {@value #RESUME_PERCENT}% of the budget.
+ */
+public class SolInflightMemoryBudget implements SolInflightMemoryBudgetMBean {
+  private static final Logger log = LoggerFactory.getLogger(SolInflightMemoryBudget.class);
+  private static final int RESUME_PERCENT = 80;
+
+  private static SolInflightMemoryBudget shared;
+
+  /**
+   * Hold on the bytes of a message, shared by the sender, the transaction the message was sent in and each
+   * send awaiting an acknowledgement. The bytes are released once the last of them lets go of the message.
+   */
+  static final class Hold {
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final Runnable release;
+
+    /**
+     * @param release releases the bytes, called once on the thread dropping the last reference
+     */
+    Hold(Runnable release) {
+      this.release = release;
+    }
+
+    void retain() {
+      references.incrementAndGet();
+    }
+
+    void release() {
+      if (references.decrementAndGet() == 0) {
+        release.run();
+      }
+    }
+  }
+
+  private volatile long maxBytes;
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final AtomicInteger pausedPartitions = new AtomicInteger();
+
+  SolInflightMemoryBudget(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Get the budget shared by all tasks of this JVM.
+   * @param maxBytes configured budget size, the most recently configured size applies to all tasks
+   * @return the shared budget
+   */
+  static synchronized SolInflightMemoryBudget shared(long maxBytes) {
+    if (shared == null) {
+      shared = new SolInflightMemoryBudget(maxBytes);
+      SolMetrics.register("InflightMemoryBudget", null, shared);
+    } else if (shared.maxBytes != maxBytes) {
+      log.warn("================ Resizing in-flight memory budget shared by all tasks from {} to {} bytes",
+          shared.maxBytes, maxBytes);
+      shared.maxBytes = maxBytes;
+    }
+    return shared;
+  }
+
+  void acquire(long bytes) {
+    usedBytes.addAndGet(bytes);
+  }
+
+  void release(long bytes) {
+    usedBytes.addAndGet(-bytes);
+  }
+
+  boolean isExhausted() {
+    return usedBytes.get() >= maxBytes;
+  }
+
+  /**
+   * @return whether acquiring the bytes would exhaust the budget
+   */
+  boolean isExhaustedBy(long bytes) {
+    return usedBytes.get() + bytes >= maxBytes;
+  }
+
+  boolean hasHeadroom() {
+    return usedBytes.get() * 100 < maxBytes * RESUME_PERCENT;
+  }
+
+  void pausedPartitionsChanged(int delta) {
+    pausedPartitions.addAndGet(delta);
+  }
+
+  @Override
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  @Override
+  public long getUsedBytes() {
+    return usedBytes.get();
+  }
+
+  @Override
+  public int getPausedPartitions() {
+    return pausedPartitions.get();
+  }
+}
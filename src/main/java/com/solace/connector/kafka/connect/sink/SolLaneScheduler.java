@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Assigns records to priority lanes by Kafka topic and orders the records of a batch by weighted round-robin
+ * across the lanes, so that records of latency-sensitive topics are not queued behind a bulk backlog fetched in
+ * the same batch. Only the records of one batch are reordered, records of later batches still wait until the
+ * batch is sent. Records of one topic stay in order as they always belong to the same lane.
+ */
+final class SolLaneScheduler {
+
+  static final class Lane {
+    final String name;
+    final Pattern topics;
+    final int weight;
+    final int priority;
+    private final List<SinkRecord> pending = new ArrayList<>();
+    private int next;
+
+    Lane(String name, Pattern topics, int weight, int priority) {
+      this.name = name;
+      this.topics = topics;
+      this.weight = weight;
+      this.priority = priority;
+    }
+
+    /**
+     * @return name of the dedicated producer flows of this lane, null for the default lane
+     */
+    String flowName() {
+      return topics != null ? name : null;
+    }
+  }
+
+  private final List<Lane> lanes = new ArrayList<>();
+  private final Lane defaultLane;
+  private final Map<String, Lane> lanesByTopic = new HashMap<>();
+  private final List<SinkRecord> scheduled = new ArrayList<>();
+
+  SolLaneScheduler(List<Lane> lanes, int defaultWeight) {
+    this.lanes.addAll(lanes);
+    this.defaultLane = new Lane("default", null, defaultWeight, -1);
+    this.lanes.add(defaultLane);
+  }
+
+  /**
+   * @return the lane scheduler configured for the connector, or null if no lanes are configured
+   */
+  static SolLaneScheduler create(SolaceSinkConnectorConfig sconfig) {
+    List<String> names = sconfig.getList(SolaceSinkConstants.SOL_LANES);
+    if (names.isEmpty()) {
+      return null;
+    }
+    List<Lane> lanes = new ArrayList<>();
+    for (String name : names) {
+      name = name.trim();
+      String prefix = SolaceSinkConstants.SOL_LANE_PREFIX + name + ".";
+      Map<String, Object> props = sconfig.originalsWithPrefix(prefix);
+      Object topics = props.get("topics");
+      if (topics == null) {
+        throw new ConfigException(prefix + "topics", null, "Lane " + name + " has no topics");
+      }
+      Pattern pattern;
+      try {
+        pattern = Pattern.compile(topics.toString().trim());
+      } catch (PatternSyntaxException e) {
+        throw new ConfigException(prefix + "topics", topics, e.getMessage());
+      }
+      lanes.add(new Lane(name, pattern, parseInt(props, prefix, "weight", 1, 1, Integer.MAX_VALUE),
+          parseInt(props, prefix, "priority", -1, 0, 255)));
+    }
+    return new SolLaneScheduler(lanes, sconfig.getInt(SolaceSinkConstants.SOL_LANES_DEFAULT_WEIGHT));
+  }
+
+  private static int parseInt(Map<String, Object> props, String prefix, String key, int defaultValue, int min,
+                              int max) {
+    Object value = props.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      int parsed = Integer.parseInt(value.toString().trim());
+      if (parsed >= min && parsed <= max) {
+        return parsed;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+    throw new ConfigException(prefix + key, value, "Must be a number between " + min + " and " + max);
+  }
+
+  /**
+   * @return the lane of a Kafka topic, the first configured lane whose pattern matches it
+   */
+  Lane laneFor(String topic) {
+    Lane lane = lanesByTopic.get(topic);
+    if (lane == null) {
+      lane = defaultLane;
+      for (Lane candidate : lanes) {
+        if (candidate.topics != null && candidate.topics.matcher(topic).matches()) {
+          lane = candidate;
+          break;
+        }
+      }
+      lanesByTopic.put(topic, lane);
+    }
+    return lane;
+  }
+
+  /**
+   * Order the records by weighted round-robin across lanes: in each round, every lane in configuration order
+   * contributes up to its weight of records.
+   * @return the records in the order to send them, valid until the next call
+   */
+  Collection<SinkRecord> schedule(Collection<SinkRecord> records) {
+    Lane first = null;
+    boolean mixed = false;
+    for (SinkRecord record : records) {
+      Lane lane = laneFor(record.topic());
+      lane.pending.add(record);
+      if (first == null) {
+        first = lane;
+      } else if (lane != first) {
+        mixed = true;
+      }
+    }
+    if (!mixed) {
+      if (first != null) {
+        first.pending.clear();
+      }
+      return records;
+    }
+
+    scheduled.clear();
+    int remaining = records.size();
+    while (remaining > 0) {
+      for (Lane lane : lanes) {
+        int end = Math.min(lane.next + lane.weight, lane.pending.size());
+        for (int i = lane.next; i < end; i++) {
+          scheduled.add(lane.pending.get(i));
+        }
+        remaining -= end - lane.next;
+        lane.next = end;
+      }
+    }
+    for (Lane lane : lanes) {
+      lane.pending.clear();
+      lane.next = 0;
+    }
+    return scheduled;
+  }
+}
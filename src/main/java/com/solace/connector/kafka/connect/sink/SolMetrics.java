@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registers connector metrics as JMX MBeans under the {@value #DOMAIN} domain.
+ */
+final class SolMetrics {
+  private static final Logger log = LoggerFactory.getLogger(SolMetrics.class);
+
+  static final String DOMAIN = "com.solace.connector.kafka.connect.sink";
+
+  private SolMetrics() { }
+
+  /**
+   * Register an MBean, replacing any MBean previously registered with the same name.
+   * @param type value of the type key of the object name
+   * @param name value of the name key of the object name, may be null
+   * @param mbean the MBean to register
+   * @return the object name the MBean was registered with, or null if registration failed
+   */
+  static ObjectName register(String type, String name, Object mbean) {
+    try {
+      ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type
+          + (name != null ? ",name=" + ObjectName.quote(name) : ""));
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+      server.registerMBean(mbean, objectName);
+      return objectName;
+    } catch (JMException e) {
+      log.warn("================ Failed to register metrics MBean of type {}", type, e);
+      return null;
+    }
+  }
+
+  /**
+   * Unregister an MBean registered through {@link #register(String, String, Object)}.
+   * @param objectName the object name returned on registration, may be null
+   */
+  static void unregister(ObjectName objectName) {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+    } catch (JMException e) {
+      log.warn("================ Failed to unregister metrics MBean {}", objectName, e);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pauses and resumes Kafka partitions on behalf of the connector. A partition may be paused for several
+ * reasons at once and is only resumed once all of them have been cleared.
+ */
+class SolPartitionBackpressure {
+  private static final Logger log = LoggerFactory.getLogger(SolPartitionBackpressure.class);
+
+  enum Reason {
+    SESSION_CONNECTING,
+    MEMORY_BUDGET,
+    SESSION_RECONNECTING,
+    PUBLISH_RATE,
+    DESTINATION_RATE_LIMIT,
+    GLOBAL_RATE_LIMIT
+  }
+
+  private final SinkTaskContext context;
+  private final Map<TopicPartition, Set<Reason>> pausedPartitions = new HashMap<>();
+
+  SolPartitionBackpressure(SinkTaskContext context) {
+    this.context = context;
+  }
+
+  /**
+   * Pause partitions for the given reason.
+   * @param partitions partitions to pause
+   * @param reason reason for pausing
+   */
+  synchronized void pause(Collection<TopicPartition> partitions, Reason reason) {
+    List<TopicPartition> toPause = new ArrayList<>();
+    for (TopicPartition tp : partitions) {
+      Set<Reason> reasons = pausedPartitions.computeIfAbsent(tp, k -> EnumSet.noneOf(Reason.class));
+      if (reasons.isEmpty()) {
+        toPause.add(tp);
+      }
+      reasons.add(reason);
+    }
+    if (!toPause.isEmpty()) {
+      log.debug("================ Pausing partitions {} for reason {}", toPause, reason);
+      context.pause(toPause.toArray(new TopicPartition[0]));
+    }
+  }
+
+  /**
+   * Clear the given reason from partitions, resuming those that have no reason left to stay paused.
+   * @param partitions partitions to resume
+   * @param reason reason that no longer applies
+   */
+  synchronized void resume(Collection<TopicPartition> partitions, Reason reason) {
+    List<TopicPartition> toResume = new ArrayList<>();
+    for (TopicPartition tp : partitions) {
+      Set<Reason> reasons = pausedPartitions.get(tp);
+      if (reasons != null && reasons.remove(reason) && reasons.isEmpty()) {
+        pausedPartitions.remove(tp);
+        toResume.add(tp);
+      }
+    }
+    if (!toResume.isEmpty()) {
+      log.debug("================ Resuming partitions {} after reason {} cleared", toResume, reason);
+      context.resume(toResume.toArray(new TopicPartition[0]));
+    }
+  }
+
+  /**
+   * Clear the given reason from all paused partitions.
+   * @param reason reason that no longer applies
+   */
+  synchronized void resumeAll(Reason reason) {
+    resume(new ArrayList<>(pausedPartitions.keySet()), reason);
+  }
+
+  synchronized boolean isPaused(TopicPartition tp) {
+    return pausedPartitions.containsKey(tp);
+  }
+
+  /**
+   * Drop any pause state for partitions that are no longer assigned to this task.
+   * @param partitions revoked partitions
+   */
+  synchronized void forget(Collection<TopicPartition> partitions) {
+    pausedPartitions.keySet().removeAll(partitions);
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigDef.Type;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Dispatches records to the record processor configured for their Kafka topic, so that one connector can
+ * convert topics of different formats. Each name listed in {@value SolaceSinkConstants#SOL_TOPIC_PROCESSORS}
+ * maps the Kafka topics matching {@code sol.topic_processor.<name>.topics} to an instance of
+ * {@code sol.topic_processor.<name>.class}. The processor is configured with the connector configuration,
+ * in which each {@code sol.topic_processor.<name>.<property>} overrides {@code sol.<property>}. Topics
+ * matching no mapping use the processor of {@value SolaceSinkConstants#SOL_RECORD_PROCESSOR}. Whether records
+ * are sent to the dynamic destination set by their processor is also resolved per mapping, from the
+ * overridden {@value SolaceSinkConstants#SOL_DYNAMIC_DESTINATION}.
+ *
+ * <p>Topics are mapped by a {@link SolTopicTable}, records are dispatched by a single lookup of their topic.
+ */
+final class SolProcessorDispatcher {
+  private static final String DYNAMIC_DESTINATION =
+      SolaceSinkConstants.SOL_DYNAMIC_DESTINATION.substring("sol.".length());
+
+  private static final class Mapping {
+    final SolRecordProcessorIF processor;
+    final boolean dynamicDestination;
+
+    Mapping(SolRecordProcessorIF processor, boolean dynamicDestination) {
+      this.processor = processor;
+      this.dynamicDestination = dynamicDestination;
+    }
+  }
+
+  private final SolTopicTable<Mapping> table;
+
+  private SolProcessorDispatcher(SolTopicTable<Mapping> table) {
+    this.table = table;
+  }
+
+  /**
+   * Create the processors of the configured topic mappings.
+   * @param defaultProcessor processor of topics matching no mapping
+   * @return the dispatcher, or null if no topic mappings are configured
+   * @throws ConfigException if a mapping is misconfigured
+   */
+  static SolProcessorDispatcher create(SolaceSinkConnectorConfig sconfig, SolRecordProcessorIF defaultProcessor) {
+    List<String> names = sconfig.getList(SolaceSinkConstants.SOL_TOPIC_PROCESSORS);
+    if (names.isEmpty()) {
+      return null;
+    }
+    boolean defaultDynamicDestination = sconfig.getBoolean(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION);
+    SolTopicTable<Mapping> table = new SolTopicTable<>("record processor",
+        new Mapping(defaultProcessor, defaultDynamicDestination));
+    for (String name : names) {
+      name = name.trim();
+      String prefix = SolaceSinkConstants.SOL_TOPIC_PROCESSOR_PREFIX + name + ".";
+      Map<String, Object> props = sconfig.originalsWithPrefix(prefix);
+      Pattern pattern = SolTopicTable.topics(prefix, props);
+      Object className = props.get("class");
+      if (className == null) {
+        throw new ConfigException(prefix + "class", null, "Topic processor " + name + " has no class");
+      }
+      SolRecordProcessorIF processor;
+      try {
+        processor = Utils.newInstance(className.toString().trim(), SolRecordProcessorIF.class);
+      } catch (ClassNotFoundException | RuntimeException e) {
+        throw new ConfigException(prefix + "class", className, "Cannot create record processor: " + e);
+      }
+      processor.configure(processorConfig(sconfig, prefix, props));
+      boolean dynamicDestination = defaultDynamicDestination;
+      Object dynamic = props.get(DYNAMIC_DESTINATION);
+      if (dynamic != null) {
+        dynamicDestination = (Boolean) ConfigDef.parseType(prefix + DYNAMIC_DESTINATION, dynamic, Type.BOOLEAN);
+      }
+      table.add(name, pattern, new Mapping(processor, dynamicDestination));
+    }
+    return new SolProcessorDispatcher(table);
+  }
+
+  private static Map<String, String> processorConfig(SolaceSinkConnectorConfig sconfig, String prefix,
+                                                     Map<String, Object> props) {
+    Map<String, String> config = new HashMap<>(sconfig.originalsStrings());
+    for (Map.Entry<String, Object> entry : props.entrySet()) {
+      if (!entry.getKey().equals("topics") && !entry.getKey().equals("class")) {
+        config.put("sol." + entry.getKey(), String.valueOf(entry.getValue()));
+      }
+    }
+    return config;
+  }
+
+  /**
+   * Resolve the processors of newly assigned partitions.
+   */
+  void open(Collection<TopicPartition> partitions) {
+    table.open(partitions);
+  }
+
+  /**
+   * Forget the processors of topics of which no partition is assigned anymore.
+   */
+  void close(Collection<TopicPartition> partitions) {
+    table.close(partitions);
+  }
+
+  /**
+   * @return the processor of a Kafka topic, resolved on first use if its partitions were not opened
+   */
+  SolRecordProcessorIF processorFor(String topic) {
+    return table.get(topic).processor;
+  }
+
+  /**
+   * @return whether the records of a Kafka topic are sent to the dynamic destination set by their processor
+   */
+  boolean isDynamicDestination(String topic) {
+    return table.get(topic).dynamicDestination;
+  }
+}
@@ -28,11 +28,26 @@ import org.slf4j.LoggerFactory;
 
 public class SolProducerEventCallbackHandler implements JCSMPProducerEventHandler {
   private static final Logger log = LoggerFactory.getLogger(SolProducerEventCallbackHandler.class);
+  private final SolPublishRateController rateController;
+
+  public SolProducerEventCallbackHandler() {
+    this(null);
+  }
+
+  /**
+   * @param rateController controller to report producer events to, or null
+   */
+  SolProducerEventCallbackHandler(SolPublishRateController rateController) {
+    this.rateController = rateController;
+  }
 
   @Override
   public void handleEvent(ProducerEventArgs event) {
     log.info("Received a message producer event: {} with the following"
         + " info: {}", event.getEvent(), event.getInfo());
+    if (rateController != null) {
+      rateController.onProducerEvent(event.getEvent());
+    }
 
   }
 
@@ -3,6 +3,7 @@ package com.solace.connector.kafka.connect.sink;
 import com.solacesystems.jcsmp.DeliveryMode;
 import com.solacesystems.jcsmp.Destination;
 import com.solacesystems.jcsmp.JCSMPException;
+import com.solacesystems.jcsmp.JCSMPProperties;
 import com.solacesystems.jcsmp.ProducerFlowProperties;
 import com.solacesystems.jcsmp.Queue;
 import com.solacesystems.jcsmp.XMLMessage;
@@ -10,6 +11,12 @@ import com.solacesystems.jcsmp.XMLMessageProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -21,19 +28,95 @@ public class SolProducerHandler implements AutoCloseable {
 	final XMLMessageProducer producer;
 	private final AtomicInteger txMsgCount = new AtomicInteger();
 	private final Runnable txAutoFlushCallback;
+	private final SolRetransmitBuffer retransmitBuffer;
 	private final ReadWriteLock lock = new ReentrantReadWriteLock();
 	volatile XMLMessageProducer transactedProducer;
 	volatile XMLMessageProducer topicProducer;
 	volatile XMLMessageProducer queueProducer;
+	final Map<Queue, QueueFlow> queueFlows = new ConcurrentHashMap<>();
+	final Map<String, QueueFlow> laneFlows = new ConcurrentHashMap<>();
+	private final int maxQueueFlows;
+	private final long queueFlowIdleMillis;
+	private volatile long nextIdleCheckMillis;
+	private final boolean adaptiveWindow;
+	private final int minWindowSize;
+	private final int maxWindowSize;
+	private volatile QueueFlow sharedQueueFlow;
+	private final List<QueueFlow> retiredQueueFlows = new ArrayList<>();
+	private final SolAckProcessor ackProcessor;
+
+	/**
+	 * Producer flow for guaranteed messages to queues outside of a transaction. Its window counts the
+	 * messages awaiting acknowledgement. With an adaptive window, the producer is replaced by one with a
+	 * different window size as the ACK round-trip time changes.
+	 */
+	static final class QueueFlow {
+		final String name;
+		volatile XMLMessageProducer producer;
+		volatile SolPublisherWindow window;
+		volatile ObjectName metricName;
+		volatile long lastUsedMillis;
+
+		QueueFlow(final String name, final XMLMessageProducer producer, final SolPublisherWindow window,
+				  final long lastUsedMillis) {
+			this.name = name;
+			this.producer = producer;
+			this.window = window;
+			this.lastUsedMillis = lastUsedMillis;
+		}
+
+		void send(final XMLMessage message, final Destination destination) throws JCSMPException {
+			SolPublisherWindow window = this.window;
+			window.sent();
+			try {
+				producer.send(message, destination);
+			} catch (JCSMPException | RuntimeException e) {
+				window.unsent();
+				throw e;
+			}
+		}
+
+		void close() {
+			if (!producer.isClosed()) {
+				producer.close();
+			}
+			SolMetrics.unregister(metricName);
+		}
+	}
 
 	private static final Logger log = LoggerFactory.getLogger(SolProducerHandler.class);
 
 	public SolProducerHandler(final SolaceSinkConnectorConfig config,
 							  final SolSessionHandler sessionHandler,
 							  final Runnable txAutoFlushCallback) throws JCSMPException {
+		this(config, sessionHandler, txAutoFlushCallback, null);
+	}
+
+	/**
+	 * @param retransmitBuffer buffer tracking the messages sent to queues outside of a transaction, or null
+	 */
+	SolProducerHandler(final SolaceSinkConnectorConfig config,
+					   final SolSessionHandler sessionHandler,
+					   final Runnable txAutoFlushCallback,
+					   final SolRetransmitBuffer retransmitBuffer) throws JCSMPException {
 		this.config = config;
 		this.sessionHandler = sessionHandler;
 		this.txAutoFlushCallback = txAutoFlushCallback;
+		this.retransmitBuffer = retransmitBuffer;
+		// Dedicated flows are only used outside of transactions, a transacted session has a single flow
+		this.maxQueueFlows = config.getBoolean(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE)
+				? 0 : config.getInt(SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS);
+		this.queueFlowIdleMillis = config.getLong(SolaceSinkConstants.SOL_QUEUE_PRODUCER_FLOW_IDLE_TIMEOUT_MS);
+		this.adaptiveWindow = config.getBoolean(SolaceSinkConstants.SOL_PUBLISHER_WINDOW_ADAPTIVE);
+		this.minWindowSize = config.getInt(SolaceSinkConstants.SOL_PUBLISHER_WINDOW_MIN);
+		this.maxWindowSize = Math.max(config.getInt(SolaceSinkConstants.SOL_PUBLISHER_WINDOW_MAX), minWindowSize);
+		// Only track acknowledgements off the reactor thread if there is bookkeeping to do. The windows of the
+		// shared flow, the dedicated flows and the lane flows (including the default lane) bound the
+		// acknowledgements that can be pending at once.
+		int windowSize = adaptiveWindow ? maxWindowSize : config.getInt(SolaceSinkConstants.SOL_PUBLISHER_WINDOW_SIZE);
+		int flows = 2 + maxQueueFlows + config.getList(SolaceSinkConstants.SOL_LANES).size();
+		this.ackProcessor = retransmitBuffer != null || adaptiveWindow
+				? new SolAckProcessor(retransmitBuffer, flows * windowSize, "solace-sink-acks") : null;
 		this.producer = sessionHandler.getSession().getMessageProducer(new SolStreamingMessageCallbackHandler());
 
 		if (config.getString(SolaceSinkConstants.SOl_QUEUE) != null) {
@@ -48,10 +131,20 @@ public class SolProducerHandler implements AutoCloseable {
 	}
 
 	public void send(final XMLMessage message, final Destination destination) throws JCSMPException {
+		send(message, destination, null);
+	}
+
+	/**
+	 * @param lane priority lane of the message, lanes have dedicated flows to queues outside of a transaction;
+	 *             null to use the flows of the queue
+	 */
+	void send(final XMLMessage message, final Destination destination, final String lane) throws JCSMPException {
+		QueueFlow queueFlow = null;
 		if (destination instanceof Queue) {
 			if (queueProducer == null) {
 				initQueueProducer();
 			}
+			queueFlow = lane != null && sharedQueueFlow != null ? getLaneFlow(lane) : getQueueFlow((Queue) destination);
 		} else {
 			if (topicProducer == null) {
 				initTopicProducer();
@@ -63,7 +156,11 @@ public class SolProducerHandler implements AutoCloseable {
 		try {
 			if (destination instanceof Queue) {
 				message.setDeliveryMode(DeliveryMode.PERSISTENT);
-				queueProducer.send(message, destination);
+				if (queueFlow != null) {
+					queueFlow.send(message, destination);
+				} else {
+					queueProducer.send(message, destination);
+				}
 				if (config.getBoolean(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE)) {
 					autoFlush();
 				}
@@ -80,6 +177,202 @@ public class SolProducerHandler implements AutoCloseable {
 		} finally {
 			readLock.unlock();
 		}
+
+		if (adaptiveWindow && queueFlow != null) {
+			resizeWindow(queueFlow);
+		}
+	}
+
+	/**
+	 * Get the flow to publish to a queue: its dedicated flow, or the shared queue flow if dedicated flows are
+	 * disabled or all of them are in use.
+	 * @param queue the queue
+	 * @return the producer flow, or null if queues are published to using the transacted session
+	 */
+	private QueueFlow getQueueFlow(final Queue queue) throws JCSMPException {
+		if (maxQueueFlows <= 0) {
+			return sharedQueueFlow;
+		}
+		long now = System.currentTimeMillis();
+		if (now >= nextIdleCheckMillis) {
+			evictIdleQueueFlows(now);
+		}
+		QueueFlow flow = queueFlows.get(queue);
+		if (flow != null) {
+			flow.lastUsedMillis = now;
+			return flow;
+		}
+
+		Lock writeLock = this.lock.writeLock();
+		writeLock.lock();
+		try {
+			flow = queueFlows.get(queue);
+			if (flow == null) {
+				if (queueFlows.size() >= maxQueueFlows) {
+					log.debug("================ All {} dedicated producer flows in use, sending to queue {} on shared flow",
+							maxQueueFlows, queue.getName());
+					return sharedQueueFlow;
+				}
+				flow = createQueueFlow("queue/" + queue.getName());
+				queueFlows.put(queue, flow);
+				log.info("================ Created producer flow for queue {}, {} dedicated flows in use",
+						queue.getName(), queueFlows.size());
+			}
+			flow.lastUsedMillis = now;
+			return flow;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Get the dedicated flow of a priority lane, so that messages of a lane do not wait for the publisher
+	 * window of another lane.
+	 */
+	private QueueFlow getLaneFlow(final String lane) throws JCSMPException {
+		QueueFlow flow = laneFlows.get(lane);
+		if (flow != null) {
+			return flow;
+		}
+		Lock writeLock = this.lock.writeLock();
+		writeLock.lock();
+		try {
+			flow = laneFlows.get(lane);
+			if (flow == null) {
+				flow = createQueueFlow("lane/" + lane);
+				laneFlows.put(lane, flow);
+				log.info("================ Created producer flow for lane {}", lane);
+			}
+			return flow;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Close the dedicated queue flows that have not been used within the idle timeout. Flows with messages
+	 * awaiting acknowledgement are kept open, closing them would lose the acknowledgements.
+	 */
+	private void evictIdleQueueFlows(final long now) {
+		Lock writeLock = this.lock.writeLock();
+		writeLock.lock();
+		try {
+			nextIdleCheckMillis = now + Math.max(queueFlowIdleMillis / 2, 1);
+			for (Iterator<Map.Entry<Queue, QueueFlow>> it = queueFlows.entrySet().iterator(); it.hasNext(); ) {
+				Map.Entry<Queue, QueueFlow> entry = it.next();
+				if (now - entry.getValue().lastUsedMillis >= queueFlowIdleMillis) {
+					int outstanding = entry.getValue().window.getOutstanding();
+					if (outstanding > 0) {
+						log.debug("================ Keeping idle producer flow for queue {} open, {} messages unacknowledged",
+								entry.getKey().getName(), outstanding);
+						continue;
+					}
+					it.remove();
+					entry.getValue().close();
+					log.info("================ Closed idle producer flow for queue {}", entry.getKey().getName());
+				}
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private QueueFlow createQueueFlow(final String name) throws JCSMPException {
+		int windowSize = config.getInt(SolaceSinkConstants.SOL_PUBLISHER_WINDOW_SIZE);
+		if (adaptiveWindow) {
+			windowSize = Math.min(Math.max(windowSize, minWindowSize), maxWindowSize);
+		}
+		// The window also counts unacknowledged messages, so an idle flow is only closed once they are acknowledged
+		SolPublisherWindow window = new SolPublisherWindow(windowSize, minWindowSize, maxWindowSize, null);
+		QueueFlow flow = new QueueFlow(name, createQueueProducer(windowSize, window), window,
+				System.currentTimeMillis());
+		if (adaptiveWindow) {
+			flow.metricName = SolMetrics.register("PublisherWindow", getMetricName(name), window);
+		}
+		return flow;
+	}
+
+	private XMLMessageProducer createQueueProducer(final int windowSize, final SolPublisherWindow window)
+			throws JCSMPException {
+		ProducerFlowProperties flowProps = createProducerFlowProperties();
+		flowProps.setWindowSize(windowSize);
+		return sessionHandler.getSession().createProducer(flowProps,
+				new SolStreamingMessageCallbackHandler(retransmitBuffer, window, ackProcessor),
+				new SolProducerEventCallbackHandler(sessionHandler.getPublishRateController()));
+	}
+
+	private String getMetricName(final String flowName) {
+		Object clientName = sessionHandler.getSession().getProperty(JCSMPProperties.CLIENT_NAME);
+		return clientName != null ? clientName + "/" + flowName : flowName;
+	}
+
+	/**
+	 * Rebind a flow with a new window size if its ACK round-trip time calls for it. The replaced producer is
+	 * closed once all messages sent on it have been acknowledged.
+	 */
+	private void resizeWindow(final QueueFlow flow) throws JCSMPException {
+		int windowSize = flow.window.proposeWindowSize(System.nanoTime());
+		if (windowSize <= 0 && retiredQueueFlows.isEmpty()) {
+			return;
+		}
+
+		Lock writeLock = this.lock.writeLock();
+		writeLock.lock();
+		try {
+			for (Iterator<QueueFlow> it = retiredQueueFlows.iterator(); it.hasNext(); ) {
+				QueueFlow retired = it.next();
+				if (retired.window.getOutstanding() == 0) {
+					it.remove();
+					retired.close();
+				}
+			}
+			if (windowSize <= 0 || flow.producer.isClosed()) {
+				return;
+			}
+
+			SolPublisherWindow previous = flow.window;
+			SolPublisherWindow window = new SolPublisherWindow(windowSize, minWindowSize, maxWindowSize, previous);
+			XMLMessageProducer producer = createQueueProducer(windowSize, window);
+			retiredQueueFlows.add(new QueueFlow(flow.name, flow.producer, previous, flow.lastUsedMillis));
+			flow.producer = producer;
+			flow.window = window;
+			if (flow == sharedQueueFlow) {
+				queueProducer = producer;
+			}
+			flow.metricName = SolMetrics.register("PublisherWindow", getMetricName(flow.name), window);
+			log.info("================ Rebound producer flow {} with window size {} (was {}), smoothed ACK RTT {} us",
+					flow.name, windowSize, previous.getWindowSize(), window.getSmoothedRttMicros());
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Reset the ACK round-trip measurements of all flows, e.g. after a reconnect when the flows republished
+	 * their unacknowledged messages.
+	 */
+	void resetFlowState() {
+		for (QueueFlow flow : laneFlows.values()) {
+			flow.window.reset();
+		}
+		for (QueueFlow flow : queueFlows.values()) {
+			flow.window.reset();
+		}
+		QueueFlow shared = sharedQueueFlow;
+		if (shared != null) {
+			shared.window.reset();
+		}
+	}
+
+	/**
+	 * Whether messages sent to the destination become part of the transaction.
+	 * @param destination the destination
+	 * @return true if the destination is published to using the transacted session
+	 */
+	boolean isTransacted(final Destination destination) {
+		return destination instanceof Queue
+				? config.getBoolean(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE)
+				: config.getBoolean(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_TOPICS);
 	}
 
 	public AtomicInteger getTxMsgCount() {
@@ -120,8 +413,8 @@ public class SolProducerHandler implements AutoCloseable {
 					queueProducer = createTransactedProducer();
 				} else {
 					// Not using transacted session for queue
-					queueProducer = sessionHandler.getSession().createProducer(createProducerFlowProperties(),
-							new SolStreamingMessageCallbackHandler(), new SolProducerEventCallbackHandler());
+					sharedQueueFlow = createQueueFlow("queue");
+					queueProducer = sharedQueueFlow.producer;
 				}
 			}
 		} finally {
@@ -137,7 +430,7 @@ public class SolProducerHandler implements AutoCloseable {
 				if (transactedProducer == null) {
 					sessionHandler.createTxSession();
 					transactedProducer = sessionHandler.getTxSession().createProducer(createProducerFlowProperties(),
-							new SolStreamingMessageCallbackHandler(), new SolProducerEventCallbackHandler());
+							new SolStreamingMessageCallbackHandler(), new SolProducerEventCallbackHandler(sessionHandler.getPublishRateController()));
 					log.info("================ txSession status: {}",
 							sessionHandler.getTxSession().getStatus().toString());
 				}
@@ -160,6 +453,22 @@ public class SolProducerHandler implements AutoCloseable {
 		Lock writeLock = lock.writeLock();
 		writeLock.lock();
 		try {
+			for (QueueFlow flow : queueFlows.values()) {
+				flow.close();
+			}
+			queueFlows.clear();
+			for (QueueFlow flow : laneFlows.values()) {
+				flow.close();
+			}
+			laneFlows.clear();
+			for (QueueFlow flow : retiredQueueFlows) {
+				flow.close();
+			}
+			retiredQueueFlows.clear();
+
+			if (sharedQueueFlow != null) {
+				sharedQueueFlow.close();
+			}
 			if (queueProducer != null && !queueProducer.isClosed()) {
 				queueProducer.close();
 			}
@@ -175,6 +484,10 @@ public class SolProducerHandler implements AutoCloseable {
 			if (producer != null && !producer.isClosed()) {
 				producer.close();
 			}
+
+			if (ackProcessor != null) {
+				ackProcessor.close();
+			}
 		} finally {
 			writeLock.unlock();
 		}
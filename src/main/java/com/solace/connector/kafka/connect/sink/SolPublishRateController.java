@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.ProducerEvent;
+import com.solacesystems.jcsmp.SessionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controls the publish rate of a task from session and producer events. While the session reconnects,
+ * no new messages are sent. Once reconnected, the rate starts at an initial rate and doubles every
+ * second until the ramp period has passed. Events arrive on the JCSMP reactor thread; the actions they
+ * call for are taken on the task thread.
+ */
+public final class SolPublishRateController implements SolPublishRateControllerMBean {
+  private static final Logger log = LoggerFactory.getLogger(SolPublishRateController.class);
+
+  enum State {
+    CONNECTED,
+    RECONNECTING,
+    RECOVERING,
+    DOWN
+  }
+
+  private final long initialRate;
+  private final long rampNanos;
+  private State state = State.CONNECTED;
+  private long recoveryStartNanos;
+  private long nextSendNanos;
+  private boolean flowResetPending;
+  private boolean replayPending;
+  private long reconnectCount;
+  private long throttledCount;
+  private String lastEvent = "";
+
+  /**
+   * @param initialRate messages per second allowed right after a reconnect
+   * @param rampMillis time after a reconnect during which the rate is limited, 0 to not limit the rate
+   */
+  SolPublishRateController(long initialRate, long rampMillis) {
+    this.initialRate = Math.max(initialRate, 1);
+    this.rampNanos = TimeUnit.MILLISECONDS.toNanos(rampMillis);
+  }
+
+  synchronized void onSessionEvent(SessionEvent event) {
+    lastEvent = event.name();
+    switch (event) {
+      case RECONNECTING:
+        state = State.RECONNECTING;
+        reconnectCount++;
+        break;
+      case RECONNECTED:
+        startRecovery();
+        flowResetPending = true;
+        break;
+      case VIRTUAL_ROUTER_NAME_CHANGED:
+        // DR fail-over: messages not acknowledged by the previous router may not have been replicated
+        startRecovery();
+        flowResetPending = true;
+        replayPending = true;
+        break;
+      case DOWN_ERROR:
+        state = State.DOWN;
+        break;
+      default:
+        return;
+    }
+    log.info("================ Publish rate controller is {} after session event {}", state, event);
+  }
+
+  synchronized void onProducerEvent(ProducerEvent event) {
+    lastEvent = event.name();
+    if (event == ProducerEvent.REPUBLISH_UNACKED_MESSAGES) {
+      // The flow was re-established, its unacknowledged messages are republished by the API
+      flowResetPending = true;
+      if (state == State.CONNECTED) {
+        startRecovery();
+      }
+    }
+  }
+
+  /**
+   * Reset the state after a new session has been connected.
+   */
+  synchronized void connected() {
+    state = State.CONNECTED;
+    nextSendNanos = 0;
+  }
+
+  private void startRecovery() {
+    if (rampNanos > 0) {
+      state = State.RECOVERING;
+      recoveryStartNanos = System.nanoTime();
+      nextSendNanos = recoveryStartNanos;
+    } else {
+      state = State.CONNECTED;
+    }
+  }
+
+  synchronized State state() {
+    if (state == State.RECOVERING && System.nanoTime() - recoveryStartNanos >= rampNanos) {
+      state = State.CONNECTED;
+      log.info("================ Publish rate controller is {} after ramping up", state);
+    }
+    return state;
+  }
+
+  /**
+   * Whether new messages may be sent. Messages must not be sent while the session reconnects.
+   */
+  boolean isPublishingAllowed() {
+    return state() != State.RECONNECTING;
+  }
+
+  private long rate(long nowNanos) {
+    long seconds = TimeUnit.NANOSECONDS.toSeconds(nowNanos - recoveryStartNanos);
+    return initialRate << Math.min(seconds, 30);
+  }
+
+  /**
+   * Account for sent messages.
+   * @param count number of messages sent
+   * @return milliseconds to wait before sending more messages, 0 if not throttled
+   */
+  synchronized long recordSent(int count) {
+    if (state() != State.RECOVERING || count == 0) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    nextSendNanos = Math.max(nextSendNanos, now) + count * TimeUnit.SECONDS.toNanos(1) / rate(now);
+    long delay = getThrottleDelayMillis();
+    if (delay > 0) {
+      throttledCount++;
+    }
+    return delay;
+  }
+
+  /**
+   * @return milliseconds to wait before sending more messages, 0 if not throttled
+   */
+  synchronized long getThrottleDelayMillis() {
+    if (state() != State.RECOVERING) {
+      return 0;
+    }
+    return Math.max(TimeUnit.NANOSECONDS.toMillis(nextSendNanos - System.nanoTime()), 0);
+  }
+
+  /**
+   * @return true once after an event that requires the state of producer flows to be reset
+   */
+  synchronized boolean takeFlowReset() {
+    boolean pending = flowResetPending;
+    flowResetPending = false;
+    return pending;
+  }
+
+  /**
+   * @return true once after an event that requires in-doubt messages to be sent again
+   */
+  synchronized boolean takeReplay() {
+    boolean pending = replayPending;
+    replayPending = false;
+    return pending;
+  }
+
+  @Override
+  public String getState() {
+    return state().name();
+  }
+
+  @Override
+  public synchronized long getCurrentRate() {
+    return state() == State.RECOVERING ? rate(System.nanoTime()) : -1;
+  }
+
+  @Override
+  public synchronized long getReconnectCount() {
+    return reconnectCount;
+  }
+
+  @Override
+  public synchronized long getThrottledCount() {
+    return throttledCount;
+  }
+
+  @Override
+  public synchronized String getLastEvent() {
+    return lastEvent;
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the publisher window of a producer flow from the observed ACK round-trip time. PubSub+
+ * acknowledges the guaranteed messages of a flow in the order they were sent, so the send times are
+ * kept in a ring and each acknowledgement completes the oldest one. The window targets twice the
+ * bandwidth-delay product, i.e. the ACK rate multiplied by the smoothed round-trip time.
+ */
+public final class SolPublisherWindow implements SolPublisherWindowMBean {
+  // Largest publisher window supported by PubSub+
+  static final int MAX_WINDOW_SIZE = 255;
+  private static final long EVALUATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final int MIN_SAMPLES = 16;
+  private static final int HEADROOM = 2;
+
+  private final long[] sendTimes = new long[MAX_WINDOW_SIZE + 1];
+  private final int minWindowSize;
+  private final int maxWindowSize;
+  private final int windowSize;
+  private int head;
+  private int outstanding;
+  private long smoothedRttNanos;
+  private long samples;
+  private long intervalStartNanos;
+  private volatile long ackRate;
+  private volatile long resizeCount;
+
+  /**
+   * @param windowSize window size of the flow
+   * @param minWindowSize lower bound of proposed window sizes
+   * @param maxWindowSize upper bound of proposed window sizes
+   * @param previous window of the flow this one replaces, to carry over its measurements, or null
+   */
+  SolPublisherWindow(int windowSize, int minWindowSize, int maxWindowSize, SolPublisherWindow previous) {
+    this.windowSize = windowSize;
+    this.minWindowSize = minWindowSize;
+    this.maxWindowSize = maxWindowSize;
+    this.intervalStartNanos = System.nanoTime();
+    if (previous != null) {
+      this.smoothedRttNanos = previous.getSmoothedRttNanos();
+      this.ackRate = previous.ackRate;
+      this.resizeCount = previous.resizeCount + 1;
+    }
+  }
+
+  /**
+   * Record a message about to be sent.
+   */
+  synchronized void sent() {
+    if (outstanding == sendTimes.length) {
+      // More messages than fit in any window, drop the oldest sample rather than fail
+      head = (head + 1) % sendTimes.length;
+      outstanding--;
+    }
+    sendTimes[(head + outstanding) % sendTimes.length] = System.nanoTime();
+    outstanding++;
+  }
+
+  /**
+   * Forget the last message recorded with {@link #sent()} because sending it failed.
+   */
+  synchronized void unsent() {
+    if (outstanding > 0) {
+      outstanding--;
+    }
+  }
+
+  /**
+   * Complete the oldest outstanding message, on acknowledgement or rejection by PubSub+.
+   * @param ackNanos {@link System#nanoTime()} the acknowledgement was received at
+   */
+  synchronized void acknowledged(long ackNanos) {
+    if (outstanding == 0) {
+      return;
+    }
+    long rtt = Math.max(ackNanos - sendTimes[head], 0);
+    head = (head + 1) % sendTimes.length;
+    outstanding--;
+    smoothedRttNanos = smoothedRttNanos == 0 ? rtt : smoothedRttNanos + (rtt - smoothedRttNanos) / 8;
+    samples++;
+  }
+
+  /**
+   * Discard the measurements, e.g. after a reconnect. Outstanding messages are considered sent now since
+   * they are republished.
+   */
+  synchronized void reset() {
+    long now = System.nanoTime();
+    for (int i = 0; i < outstanding; i++) {
+      sendTimes[(head + i) % sendTimes.length] = now;
+    }
+    smoothedRttNanos = 0;
+    samples = 0;
+    intervalStartNanos = now;
+  }
+
+  synchronized int getOutstanding() {
+    return outstanding;
+  }
+
+  synchronized long getSmoothedRttNanos() {
+    return smoothedRttNanos;
+  }
+
+  /**
+   * Propose a new window size once per evaluation interval.
+   * @param nowNanos current {@link System#nanoTime()}
+   * @return the proposed window size, or 0 if the current one should be kept
+   */
+  synchronized int proposeWindowSize(long nowNanos) {
+    long elapsed = nowNanos - intervalStartNanos;
+    if (elapsed < EVALUATION_INTERVAL_NANOS) {
+      return 0;
+    }
+    long intervalSamples = samples;
+    intervalStartNanos = nowNanos;
+    samples = 0;
+    if (intervalSamples < MIN_SAMPLES) {
+      return 0;
+    }
+    ackRate = intervalSamples * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    double bandwidthDelay = (double) intervalSamples * smoothedRttNanos / elapsed;
+    int target = (int) Math.min(Math.max(Math.ceil(bandwidthDelay * HEADROOM), minWindowSize), maxWindowSize);
+    // Rebinding a flow is expensive, only resize on a large change
+    if (target * 2 >= windowSize * 3 || target * 2 <= windowSize) {
+      return target;
+    }
+    return 0;
+  }
+
+  @Override
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  @Override
+  public long getSmoothedRttMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(getSmoothedRttNanos());
+  }
+
+  @Override
+  public long getAckRate() {
+    return ackRate;
+  }
+
+  @Override
+  public long getResizeCount() {
+    return resizeCount;
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the publish rate in messages and bytes per second, per destination and for all destinations of
+ * the task, with token buckets allowing bursts of one second. Buckets may go into debt, as records handed
+ * to the task are always sent. The partitions that sent to a destination in debt are paused until the
+ * bucket has refilled, so the limit slows down consumption instead of blocking the task.
+ */
+final class SolRateLimiter {
+  // Destinations whose buckets are full are forgotten once more than this number are tracked
+  private static final int MAX_IDLE_DESTINATIONS = 10000;
+
+  private final long destinationMsgsPerSec;
+  private final long destinationBytesPerSec;
+  private final TokenBucket globalMsgs;
+  private final TokenBucket globalBytes;
+  private final Map<String, TokenBucket[]> destinations = new HashMap<>();
+  private final Map<String, Set<TopicPartition>> sentSinceEngaged = new HashMap<>();
+  private final Map<TopicPartition, Long> destinationPausedUntil = new HashMap<>();
+  private long globalPausedUntil;
+  private boolean globalPaused;
+
+  /**
+   * @param destinationMsgsPerSec message limit per destination, 0 for no limit
+   * @param destinationBytesPerSec byte limit per destination, 0 for no limit
+   * @param globalMsgsPerSec message limit for all destinations, 0 for no limit
+   * @param globalBytesPerSec byte limit for all destinations, 0 for no limit
+   */
+  SolRateLimiter(long destinationMsgsPerSec, long destinationBytesPerSec, long globalMsgsPerSec,
+                 long globalBytesPerSec) {
+    this.destinationMsgsPerSec = destinationMsgsPerSec;
+    this.destinationBytesPerSec = destinationBytesPerSec;
+    long now = System.nanoTime();
+    this.globalMsgs = globalMsgsPerSec > 0 ? new TokenBucket(globalMsgsPerSec, now) : null;
+    this.globalBytes = globalBytesPerSec > 0 ? new TokenBucket(globalBytesPerSec, now) : null;
+  }
+
+  /**
+   * @return the rate limiter configured for the connector, or null if no limit is set
+   */
+  static SolRateLimiter create(SolaceSinkConnectorConfig sconfig) {
+    long destinationMsgs = sconfig.getLong(SolaceSinkConstants.SOL_RATE_LIMIT_DESTINATION_MSGS_PER_SEC);
+    long destinationBytes = sconfig.getLong(SolaceSinkConstants.SOL_RATE_LIMIT_DESTINATION_BYTES_PER_SEC);
+    long globalMsgs = sconfig.getLong(SolaceSinkConstants.SOL_RATE_LIMIT_GLOBAL_MSGS_PER_SEC);
+    long globalBytes = sconfig.getLong(SolaceSinkConstants.SOL_RATE_LIMIT_GLOBAL_BYTES_PER_SEC);
+    if (destinationMsgs == 0 && destinationBytes == 0 && globalMsgs == 0 && globalBytes == 0) {
+      return null;
+    }
+    return new SolRateLimiter(destinationMsgs, destinationBytes, globalMsgs, globalBytes);
+  }
+
+  /**
+   * Take the tokens of a sent message.
+   * @param tp partition of the record the message was created from
+   * @param destination name of the destination the message was sent to
+   * @param bytes size of the message
+   */
+  void sent(TopicPartition tp, String destination, long bytes, long nowNanos) {
+    if (globalMsgs != null) {
+      globalMsgs.take(1, nowNanos);
+    }
+    if (globalBytes != null) {
+      globalBytes.take(bytes, nowNanos);
+    }
+    if (destinationMsgsPerSec > 0 || destinationBytesPerSec > 0) {
+      TokenBucket[] buckets = destinations.computeIfAbsent(destination, k -> new TokenBucket[] {
+          destinationMsgsPerSec > 0 ? new TokenBucket(destinationMsgsPerSec, nowNanos) : null,
+          destinationBytesPerSec > 0 ? new TokenBucket(destinationBytesPerSec, nowNanos) : null});
+      if (buckets[0] != null) {
+        buckets[0].take(1, nowNanos);
+      }
+      if (buckets[1] != null) {
+        buckets[1].take(bytes, nowNanos);
+      }
+      sentSinceEngaged.computeIfAbsent(destination, k -> new HashSet<>()).add(tp);
+    }
+  }
+
+  /**
+   * Pause the partitions that sent to a destination over its limit, or all assigned partitions if the
+   * global limit was exceeded.
+   * @param assignment partitions assigned to the task
+   * @return milliseconds until the first paused partition may be resumed, 0 if none was paused
+   */
+  long engage(SolPartitionBackpressure backpressure, Collection<TopicPartition> assignment, long nowNanos) {
+    long delayNanos = Math.max(delayNanos(globalMsgs, nowNanos), delayNanos(globalBytes, nowNanos));
+    long earliest = Long.MAX_VALUE;
+    if (delayNanos > 0) {
+      backpressure.pause(assignment, SolPartitionBackpressure.Reason.GLOBAL_RATE_LIMIT);
+      globalPaused = true;
+      globalPausedUntil = nowNanos + delayNanos;
+      earliest = delayNanos;
+    }
+    for (Map.Entry<String, Set<TopicPartition>> entry : sentSinceEngaged.entrySet()) {
+      TokenBucket[] buckets = destinations.get(entry.getKey());
+      delayNanos = Math.max(delayNanos(buckets[0], nowNanos), delayNanos(buckets[1], nowNanos));
+      if (delayNanos > 0) {
+        backpressure.pause(entry.getValue(), SolPartitionBackpressure.Reason.DESTINATION_RATE_LIMIT);
+        for (TopicPartition tp : entry.getValue()) {
+          destinationPausedUntil.merge(tp, nowNanos + delayNanos, Math::max);
+        }
+        earliest = Math.min(earliest, delayNanos);
+      }
+    }
+    sentSinceEngaged.clear();
+    if (destinations.size() > MAX_IDLE_DESTINATIONS) {
+      forgetIdleDestinations(nowNanos);
+    }
+    return earliest == Long.MAX_VALUE ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(earliest));
+  }
+
+  /**
+   * Resume the partitions whose buckets have refilled.
+   */
+  void release(SolPartitionBackpressure backpressure, long nowNanos) {
+    if (globalPaused && nowNanos - globalPausedUntil >= 0) {
+      backpressure.resumeAll(SolPartitionBackpressure.Reason.GLOBAL_RATE_LIMIT);
+      globalPaused = false;
+    }
+    if (destinationPausedUntil.isEmpty()) {
+      return;
+    }
+    List<TopicPartition> toResume = new ArrayList<>();
+    Iterator<Map.Entry<TopicPartition, Long>> it = destinationPausedUntil.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<TopicPartition, Long> entry = it.next();
+      if (nowNanos - entry.getValue() >= 0) {
+        toResume.add(entry.getKey());
+        it.remove();
+      }
+    }
+    backpressure.resume(toResume, SolPartitionBackpressure.Reason.DESTINATION_RATE_LIMIT);
+  }
+
+  /**
+   * Drop the state of revoked partitions.
+   */
+  void forget(Collection<TopicPartition> partitions) {
+    destinationPausedUntil.keySet().removeAll(partitions);
+  }
+
+  private void forgetIdleDestinations(long nowNanos) {
+    destinations.values().removeIf(buckets -> (buckets[0] == null || buckets[0].isFull(nowNanos))
+        && (buckets[1] == null || buckets[1].isFull(nowNanos)));
+  }
+
+  private static long delayNanos(TokenBucket bucket, long nowNanos) {
+    return bucket != null ? bucket.delayNanos(nowNanos) : 0;
+  }
+
+  /**
+   * Token bucket holding up to one second worth of tokens, which may go into debt.
+   */
+  static final class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(long tokensPerSec, long nowNanos) {
+      this.tokensPerNano = tokensPerSec / 1e9;
+      this.capacity = tokensPerSec;
+      this.tokens = capacity;
+      this.lastRefillNanos = nowNanos;
+    }
+
+    private void refill(long nowNanos) {
+      long elapsed = nowNanos - lastRefillNanos;
+      if (elapsed > 0) {
+        tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+        lastRefillNanos = nowNanos;
+      }
+    }
+
+    void take(long amount, long nowNanos) {
+      refill(nowNanos);
+      tokens -= amount;
+    }
+
+    /**
+     * @return nanoseconds until the bucket is out of debt
+     */
+    long delayNanos(long nowNanos) {
+      refill(nowNanos);
+      return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+    boolean isFull(long nowNanos) {
+      refill(nowNanos);
+      return tokens >= capacity;
+    }
+  }
+}
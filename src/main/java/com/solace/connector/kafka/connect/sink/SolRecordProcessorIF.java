@@ -39,7 +39,7 @@ public interface SolRecordProcessorIF extends Configurable {
    *
    * @param skey    the Kafka record-key.
    * @param record  the Kafka record-value.
-   * @return        a new {@link BytesXMLMessage}.
+   * @return        a new {@link BytesXMLMessage}, or null to discard the record.
    */
   BytesXMLMessage processRecord(String skey, SinkRecord record);
 
@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.Destination;
+import com.solacesystems.jcsmp.JCSMPException;
+import com.solacesystems.jcsmp.XMLMessage;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Guaranteed messages sent outside of a transaction that have not been acknowledged by PubSub+ yet.
+ * The tracking entry of a message is its correlation key, so acknowledgements find their entry directly.
+ * Rejected messages are retransmitted with an exponential backoff until the retry limit is reached.
+ */
+final class SolRetransmitBuffer {
+  private static final long MAX_BACKOFF_MS = 30000;
+
+  // In the order the messages were sent, entries are compared by identity
+  private final Set<Entry> inFlight = new LinkedHashSet<>();
+  private final List<Entry> rejected = new LinkedList<>();
+  private final int maxRetries;
+  private final long backoffMs;
+
+  static final class Entry {
+    private final SinkRecord record;
+    private final XMLMessage message;
+    private final Destination destination;
+    private int retries;
+    private long dueMillis;
+    private JCSMPException cause;
+    private SolInflightMemoryBudget.Hold hold;
+
+    private Entry(SinkRecord record, XMLMessage message, Destination destination) {
+      this.record = record;
+      this.message = message;
+      this.destination = destination;
+    }
+
+    SinkRecord getRecord() {
+      return record;
+    }
+
+    XMLMessage getMessage() {
+      return message;
+    }
+
+    Destination getDestination() {
+      return destination;
+    }
+
+    JCSMPException getCause() {
+      return cause;
+    }
+
+    int getRetries() {
+      return retries;
+    }
+
+    /**
+     * Hold the bytes of the message until it is acknowledged or given up.
+     */
+    void setHold(SolInflightMemoryBudget.Hold hold) {
+      this.hold = hold;
+    }
+
+    /**
+     * Release the bytes of the message, e.g. because it was acknowledged or has exhausted its retries.
+     */
+    void release() {
+      SolInflightMemoryBudget.Hold hold = this.hold;
+      this.hold = null;
+      if (hold != null) {
+        hold.release();
+      }
+    }
+  }
+
+  SolRetransmitBuffer(int maxRetries, long backoffMs) {
+    this.maxRetries = maxRetries;
+    this.backoffMs = backoffMs;
+  }
+
+  /**
+   * Start tracking a message that is about to be sent.
+   * @return the entry, which is set as the correlation key of the message
+   */
+  synchronized Entry track(SinkRecord record, XMLMessage message, Destination destination) {
+    Entry entry = new Entry(record, message, destination);
+    message.setCorrelationKey(entry);
+    inFlight.add(entry);
+    return entry;
+  }
+
+  /**
+   * Stop tracking a message, e.g. because sending it failed synchronously.
+   */
+  synchronized void untrack(Entry entry) {
+    if (inFlight.remove(entry)) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Release a message acknowledged by PubSub+.
+   * @param correlationKey correlation key of the message
+   * @return false if the message is not tracked by this buffer
+   */
+  synchronized boolean acknowledged(Object correlationKey) {
+    if (!(correlationKey instanceof Entry)) {
+      return false;
+    }
+    if (!inFlight.remove(correlationKey)) {
+      return false;
+    }
+    ((Entry) correlationKey).release();
+    notifyAll();
+    return true;
+  }
+
+  /**
+   * Release a batch of messages acknowledged by PubSub+, waking up waiting threads once.
+   * @param correlationKeys correlation keys of the messages, keys not tracked by this buffer are ignored
+   * @param count number of keys
+   */
+  synchronized void acknowledged(Object[] correlationKeys, int count) {
+    for (int i = 0; i < count; i++) {
+      if (correlationKeys[i] instanceof Entry && inFlight.remove(correlationKeys[i])) {
+        ((Entry) correlationKeys[i]).release();
+      }
+    }
+    notifyAll();
+  }
+
+  /**
+   * Schedule the retransmission of a message rejected by PubSub+.
+   * @param correlationKey correlation key of the message
+   * @param cause the reason for the rejection
+   * @return false if the message is not tracked by this buffer
+   */
+  synchronized boolean rejected(Object correlationKey, JCSMPException cause) {
+    if (!(correlationKey instanceof Entry)) {
+      return false;
+    }
+    Entry entry = (Entry) correlationKey;
+    if (!inFlight.remove(entry)) {
+      return false;
+    }
+    entry.retries++;
+    retryLater(entry, cause);
+    return true;
+  }
+
+  /**
+   * Schedule the retransmission of a message without counting it as a retry, e.g. because the
+   * connection to PubSub+ is down.
+   */
+  synchronized void retryLater(Entry entry, JCSMPException cause) {
+    entry.cause = cause;
+    entry.dueMillis = System.currentTimeMillis() + backoff(Math.max(entry.retries, 1));
+    rejected.add(entry);
+    notifyAll();
+  }
+
+  private long backoff(int retries) {
+    return Math.min(backoffMs << Math.min(retries - 1, 20), MAX_BACKOFF_MS);
+  }
+
+  /**
+   * Remove rejected messages that are due for retransmission, or that have exhausted their retries.
+   * Messages that are retransmitted must be registered again with {@link #retransmitting(Entry)}.
+   * @param nowMillis current time
+   * @return the messages in the order they were rejected
+   */
+  synchronized List<Entry> pollDue(long nowMillis) {
+    List<Entry> due = new ArrayList<>();
+    for (Iterator<Entry> it = rejected.iterator(); it.hasNext(); ) {
+      Entry entry = it.next();
+      if (entry.dueMillis <= nowMillis || isExhausted(entry)) {
+        it.remove();
+        due.add(entry);
+      }
+    }
+    return due;
+  }
+
+  boolean isExhausted(Entry entry) {
+    return entry.retries > maxRetries;
+  }
+
+  /**
+   * Track a message again before it is retransmitted.
+   */
+  synchronized void retransmitting(Entry entry) {
+    inFlight.add(entry);
+  }
+
+  /**
+   * Schedule all messages that are waiting for an acknowledgement for retransmission, e.g. because the
+   * session they were sent on was replaced.
+   */
+  synchronized void retransmitInFlight() {
+    long now = System.currentTimeMillis();
+    for (Entry entry : inFlight) {
+      entry.dueMillis = now;
+      rejected.add(entry);
+    }
+    inFlight.clear();
+    notifyAll();
+  }
+
+  synchronized boolean isEmpty() {
+    return inFlight.isEmpty() && rejected.isEmpty();
+  }
+
+  synchronized int size() {
+    return inFlight.size() + rejected.size();
+  }
+
+  /**
+   * Wait until a message is acknowledged or rejected, the next retransmission is due, or the timeout expires.
+   * @param timeoutMillis maximum time to wait
+   */
+  synchronized void await(long timeoutMillis) throws InterruptedException {
+    long waitMillis = timeoutMillis;
+    long now = System.currentTimeMillis();
+    for (Entry entry : rejected) {
+      waitMillis = Math.min(waitMillis, entry.dueMillis - now);
+    }
+    if (waitMillis > 0) {
+      wait(waitMillis);
+    }
+  }
+
+  synchronized void clear() {
+    inFlight.clear();
+    rejected.clear();
+    notifyAll();
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.connect.data.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Converters compiled for a Connect {@link Schema}, shared by the record processors of all sink tasks of
+ * a JVM. Converters are cached by kind, schema instance and schema version, so that a processor inspects
+ * a schema once instead of dispatching on its type for every record. The least recently used converters
+ * are evicted once the cache holds more than its maximum number of entries.
+ *
+ * <p>Processors look up converters through a {@link Converters} view, which remembers the converter of
+ * the last schema seen so that consecutive records with the same schema do not contend on the cache.
+ */
+public final class SolSchemaConverterCache implements SolSchemaConverterCacheMBean {
+  private static final Logger log = LoggerFactory.getLogger(SolSchemaConverterCache.class);
+  static final int DEFAULT_MAX_ENTRIES = 1000;
+
+  private static SolSchemaConverterCache shared;
+
+  private volatile int maxEntries;
+  private final LinkedHashMap<Key, Object> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final AtomicLong evictions = new AtomicLong();
+
+  SolSchemaConverterCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Get the cache shared by all tasks of this JVM.
+   * @return the shared cache
+   */
+  public static synchronized SolSchemaConverterCache shared() {
+    if (shared == null) {
+      shared = new SolSchemaConverterCache(DEFAULT_MAX_ENTRIES);
+      SolMetrics.register("SchemaConverterCache", null, shared);
+    }
+    return shared;
+  }
+
+  /**
+   * Set the maximum number of cached converters, the most recently configured size applies to all tasks.
+   */
+  void setMaxEntries(int maxEntries) {
+    synchronized (entries) {
+      if (this.maxEntries != maxEntries) {
+        log.info("================ Resizing schema converter cache shared by all tasks from {} to {} entries",
+            this.maxEntries, maxEntries);
+        this.maxEntries = maxEntries;
+        evictExcess();
+      }
+    }
+  }
+
+  /**
+   * Get a view of the cache for one kind of converters.
+   * @param kind identifies the kind of converters, processors compiling the same converters may share a kind
+   * @param compiler compiles the converter of a schema, called with null for values without a schema
+   * @return a view to be used by a single thread
+   */
+  public <C> Converters<C> converters(String kind, Function<Schema, C> compiler) {
+    return new Converters<>(this, kind, compiler);
+  }
+
+  @SuppressWarnings("unchecked")
+  <C> C lookup(String kind, Schema schema, Function<Schema, C> compiler) {
+    Key key = new Key(kind, schema);
+    synchronized (entries) {
+      Object converter = entries.get(key);
+      if (converter != null) {
+        hits.increment();
+        return (C) converter;
+      }
+    }
+    misses.increment();
+    // Compile outside of the lock, a concurrent miss for the same schema at worst compiles it twice
+    C converter = compiler.apply(schema);
+    synchronized (entries) {
+      entries.put(key, converter);
+      evictExcess();
+    }
+    return converter;
+  }
+
+  private void evictExcess() {
+    Iterator<Key> it = entries.keySet().iterator();
+    while (entries.size() > maxEntries && it.hasNext()) {
+      it.next();
+      it.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  @Override
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  @Override
+  public int getSize() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @Override
+  public long getHits() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @Override
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /**
+   * Converters of one kind, as seen by a single record processor.
+   */
+  public static final class Converters<C> {
+    private final SolSchemaConverterCache cache;
+    private final String kind;
+    private final Function<Schema, C> compiler;
+    private Schema lastSchema;
+    private Integer lastVersion;
+    private C last;
+
+    Converters(SolSchemaConverterCache cache, String kind, Function<Schema, C> compiler) {
+      this.cache = cache;
+      this.kind = kind;
+      this.compiler = compiler;
+    }
+
+    /**
+     * @param schema the schema, or null for values without a schema
+     * @return the converter compiled for the schema
+     */
+    public C get(Schema schema) {
+      if (last != null && schema == lastSchema
+          && (schema == null || Objects.equals(schema.version(), lastVersion))) {
+        cache.hits.increment();
+        return last;
+      }
+      last = cache.lookup(kind, schema, compiler);
+      lastSchema = schema;
+      lastVersion = schema != null ? schema.version() : null;
+      return last;
+    }
+  }
+
+  private static final class Key {
+    private final String kind;
+    private final Schema schema;
+    private final Integer version;
+
+    Key(String kind, Schema schema) {
+      this.kind = kind;
+      this.schema = schema;
+      this.version = schema != null ? schema.version() : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      // Schemas are compared by identity, which is much cheaper than the deep equals of ConnectSchema
+      return schema == other.schema && kind.equals(other.kind) && Objects.equals(version, other.version);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * kind.hashCode() + System.identityHashCode(schema)) + Objects.hashCode(version);
+    }
+  }
+}
@@ -29,11 +29,26 @@ import org.slf4j.LoggerFactory;
 
 public class SolSessionEventCallbackHandler implements SessionEventHandler {
   private static final Logger log = LoggerFactory.getLogger(SolSessionEventCallbackHandler.class);
+  private final SolSessionHandler sessionHandler;
+
+  public SolSessionEventCallbackHandler() {
+    this(null);
+  }
+
+  /**
+   * @param sessionHandler handler of the session to report events to, or null
+   */
+  SolSessionEventCallbackHandler(SolSessionHandler sessionHandler) {
+    this.sessionHandler = sessionHandler;
+  }
 
   @Override
   public void handleEvent(SessionEventArgs event) {
 
     log.info("Received Session Event {} with info {}\n", event.getEvent(), event.getInfo());
+    if (sessionHandler != null) {
+      sessionHandler.onSessionEvent(event.getEvent());
+    }
 
     // Received event possibly due to DR fail-over complete
     if (event.getEvent() == SessionEvent.VIRTUAL_ROUTER_NAME_CHANGED) {
@@ -25,15 +25,15 @@ import com.solacesystems.jcsmp.JCSMPFactory;
 import com.solacesystems.jcsmp.JCSMPProperties;
 import com.solacesystems.jcsmp.JCSMPSession;
 import com.solacesystems.jcsmp.JCSMPSessionStats;
+import com.solacesystems.jcsmp.SessionEvent;
 import com.solacesystems.jcsmp.statistics.StatType;
 import com.solacesystems.jcsmp.transaction.TransactedSession;
 
+import javax.management.ObjectName;
 import java.util.Enumeration;
-import java.util.Optional;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
-import org.apache.kafka.common.config.types.Password;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,121 +48,45 @@ public class SolSessionHandler {
   private JCSMPSession session = null;
   private volatile TransactedSession txSession = null;
   private final Lock lock = new ReentrantLock();
+  private final SolPublishRateController rateController;
+  private ObjectName rateControllerMetricName;
+  private final String host;
+  private final String clientNameSuffix;
+  private volatile boolean reconnecting;
 
   public SolSessionHandler(SolaceSinkConnectorConfig lconfig) {
+    this(lconfig, lconfig.getString(SolaceSinkConstants.SOL_HOST), "");
+  }
+
+  /**
+   * Session handler connecting to other hosts than the configured ones, e.g. for a standby session.
+   * @param lconfig connector configuration
+   * @param host host list to connect to
+   * @param clientNameSuffix appended to a configured client name
+   */
+  SolSessionHandler(SolaceSinkConnectorConfig lconfig, String host, String clientNameSuffix) {
     this.lconfig = lconfig;
+    this.host = host;
+    this.clientNameSuffix = clientNameSuffix;
+    this.rateController = lconfig.getBoolean(SolaceSinkConstants.SOL_RECONNECT_THROTTLE_ENABLED)
+        ? new SolPublishRateController(lconfig.getLong(SolaceSinkConstants.SOL_RECONNECT_THROTTLE_INITIAL_RATE),
+            lconfig.getLong(SolaceSinkConstants.SOL_RECONNECT_THROTTLE_RAMP_MS))
+        : null;
   }
 
   /**
    * Configure Session.
    */
   public void configureSession() {
-    // Required Properties
-    properties.setProperty(JCSMPProperties.USERNAME,
-        lconfig.getString(SolaceSinkConstants.SOL_USERNAME));
-    properties.setProperty(JCSMPProperties.PASSWORD,
-            Optional.ofNullable(lconfig.getPassword(SolaceSinkConstants.SOL_PASSWORD))
-                    .map(Password::value).orElse(null));
-    properties.setProperty(JCSMPProperties.VPN_NAME,
-        lconfig.getString(SolaceSinkConstants.SOL_VPN_NAME));
-    properties.setProperty(JCSMPProperties.HOST,
-        lconfig.getString(SolaceSinkConstants.SOL_HOST));
-
-    // Channel Properties
-    chanProperties.setConnectTimeoutInMillis(lconfig
-        .getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_connectTimeoutInMillis));
-    chanProperties.setReadTimeoutInMillis(lconfig
-        .getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_readTimeoutInMillis));
-    chanProperties.setConnectRetries(lconfig
-        .getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_connectRetries));
-    chanProperties.setReconnectRetries(lconfig
-        .getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_reconnectRetries));
-
-    chanProperties.setConnectRetriesPerHost(
-        lconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_connectRetriesPerHost));
-    chanProperties.setReconnectRetryWaitInMillis(
-        lconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_reconnectRetryWaitInMillis));
-    chanProperties.setKeepAliveIntervalInMillis(
-        lconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_keepAliveIntervalInMillis));
-    chanProperties.setKeepAliveLimit(
-        lconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_keepAliveLimit));
-    chanProperties.setSendBuffer(
-        lconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_sendBuffer));
-    chanProperties.setReceiveBuffer(
-        lconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_receiveBuffer));
-    chanProperties.setTcpNoDelay(
-        lconfig.getBoolean(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_tcpNoDelay));
-    chanProperties.setCompressionLevel(
-        lconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_compressionLevel));
+    SolSessionPropertyBinding.apply(lconfig, properties, chanProperties);
+    properties.setProperty(JCSMPProperties.HOST, host);
+    String clientName = properties.getStringProperty(JCSMPProperties.CLIENT_NAME);
+    if (clientName != null && !clientNameSuffix.isEmpty()) {
+      // A second session of the task must not take over the name of the first one
+      properties.setProperty(JCSMPProperties.CLIENT_NAME, clientName + clientNameSuffix);
+    }
     // Add channel properties to Session Properties
     properties.setProperty(JCSMPProperties.CLIENT_CHANNEL_PROPERTIES, chanProperties);
-
-    properties.setProperty(JCSMPProperties.REAPPLY_SUBSCRIPTIONS,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_REAPPLY_SUBSCRIPTIONS));
-    properties.setBooleanProperty(JCSMPProperties.GENERATE_SEND_TIMESTAMPS,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_GENERATE_SEND_TIMESTAMPS));
-    properties.setBooleanProperty(JCSMPProperties.GENERATE_RCV_TIMESTAMPS,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_GENERATE_RCV_TIMESTAMPS));
-    properties.setIntegerProperty(JCSMPProperties.SUB_ACK_WINDOW_SIZE,
-        lconfig.getInt(SolaceSinkConstants.SOL_SUB_ACK_WINDOW_SIZE));
-    properties.setBooleanProperty(JCSMPProperties.GENERATE_SEQUENCE_NUMBERS,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_GENERATE_SEQUENCE_NUMBERS));
-    properties.setBooleanProperty(JCSMPProperties.CALCULATE_MESSAGE_EXPIRATION,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_CALCULATE_MESSAGE_EXPIRATION));
-    properties.setBooleanProperty(JCSMPProperties.PUB_MULTI_THREAD,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_PUB_MULTI_THREAD));
-    properties.setBooleanProperty(JCSMPProperties.MESSAGE_CALLBACK_ON_REACTOR,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_MESSAGE_CALLBACK_ON_REACTOR));
-    properties.setBooleanProperty(JCSMPProperties.IGNORE_DUPLICATE_SUBSCRIPTION_ERROR,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_IGNORE_DUPLICATE_SUBSCRIPTION_ERROR));
-    properties.setBooleanProperty(JCSMPProperties.IGNORE_SUBSCRIPTION_NOT_FOUND_ERROR,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_IGNORE_SUBSCRIPTION_NOT_FOUND_ERROR));
-    properties.setBooleanProperty(JCSMPProperties.NO_LOCAL,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_NO_LOCAL));
-    properties.setProperty(JCSMPProperties.AUTHENTICATION_SCHEME,
-        lconfig.getString(SolaceSinkConstants.SOl_AUTHENTICATION_SCHEME));
-    properties.setProperty(JCSMPProperties.KRB_SERVICE_NAME,
-        lconfig.getString(SolaceSinkConstants.SOL_KRB_SERVICE_NAME));
-    properties.setProperty(JCSMPProperties.SSL_CONNECTION_DOWNGRADE_TO,
-        lconfig.getString(SolaceSinkConstants.SOL_SSL_CONNECTION_DOWNGRADE_TO));
-    properties.setIntegerProperty(JCSMPProperties.SUBSCRIBER_LOCAL_PRIORITY,
-        lconfig.getInt(SolaceSinkConstants.SOL_SUBSCRIBER_LOCAL_PRIORITY));
-    properties.setIntegerProperty(JCSMPProperties.SUBSCRIBER_NETWORK_PRIORITY,
-        lconfig.getInt(SolaceSinkConstants.SOL_SUBSCRIBER_NETWORK_PRIORITY));
-
-
-    log.info("=============Attempting to use SSL for PubSub+ connection");
-    if (!(lconfig.getString(SolaceSinkConstants
-        .SOL_SSL_CIPHER_SUITES).equals(""))) {
-      properties.setProperty(JCSMPProperties.SSL_CIPHER_SUITES,
-          lconfig.getString(SolaceSinkConstants.SOL_SSL_CIPHER_SUITES));
-    }
-    properties.setProperty(JCSMPProperties.SSL_VALIDATE_CERTIFICATE,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_SSL_VALIDATE_CERTIFICATE));
-    properties.setProperty(JCSMPProperties.SSL_VALIDATE_CERTIFICATE_DATE,
-        lconfig.getBoolean(SolaceSinkConstants.SOL_SSL_VALIDATE_CERTIFICATE_DATE));
-    properties.setProperty(JCSMPProperties.SSL_TRUST_STORE,
-        lconfig.getString(SolaceSinkConstants.SOL_SSL_TRUST_STORE));
-    properties.setProperty(JCSMPProperties.SSL_TRUST_STORE_PASSWORD,
-        Optional.ofNullable(lconfig.getPassword(SolaceSinkConstants.SOL_SSL_TRUST_STORE_PASSWORD))
-                .map(Password::value).orElse(null));
-    properties.setProperty(JCSMPProperties.SSL_TRUST_STORE_FORMAT,
-        lconfig.getString(SolaceSinkConstants.SOL_SSL_TRUST_STORE_FORMAT));
-    properties.setProperty(JCSMPProperties.SSL_TRUSTED_COMMON_NAME_LIST,
-        lconfig.getString(SolaceSinkConstants.SOL_SSL_TRUSTED_COMMON_NAME_LIST));
-    properties.setProperty(JCSMPProperties.SSL_KEY_STORE,
-        lconfig.getString(SolaceSinkConstants.SOL_SSL_KEY_STORE));
-    properties.setProperty(JCSMPProperties.SSL_KEY_STORE_PASSWORD,
-        Optional.ofNullable(lconfig.getPassword(SolaceSinkConstants.SOL_SSL_KEY_STORE_PASSWORD))
-                .map(Password::value).orElse(null));
-    properties.setProperty(JCSMPProperties.SSL_KEY_STORE_FORMAT,
-        lconfig.getString(SolaceSinkConstants.SOL_SSL_KEY_STORE_FORMAT));
-    properties.setProperty(JCSMPProperties.SSL_KEY_STORE_NORMALIZED_FORMAT,
-        lconfig.getString(SolaceSinkConstants.SOL_SSL_KEY_STORE_NORMALIZED_FORMAT));
-    properties.setProperty(JCSMPProperties.SSL_PRIVATE_KEY_PASSWORD,
-        Optional.ofNullable(lconfig.getPassword(SolaceSinkConstants.SOL_SSL_PRIVATE_KEY_PASSWORD))
-                .map(Password::value).orElse(null));
-
   }
 
   /**
@@ -175,9 +99,18 @@ public class SolSessionHandler {
       System.setProperty("java.security.krb5.conf",
           lconfig.getString(SolaceSinkConstants.SOL_KERBEROS_KRB5_CONFIG));
 
+      txSession = null;
+      reconnecting = false;
       session = JCSMPFactory.onlyInstance().createSession(properties,
-          null, new SolSessionEventCallbackHandler());
+          null, new SolSessionEventCallbackHandler(this));
       session.connect();
+      if (rateController != null) {
+        rateController.connected();
+        SolMetrics.unregister(rateControllerMetricName);
+        Object clientName = session.getProperty(JCSMPProperties.CLIENT_NAME);
+        rateControllerMetricName = SolMetrics.register("PublishRate",
+            clientName != null ? clientName.toString() : null, rateController);
+      }
   }
 
   /**
@@ -202,6 +135,47 @@ public class SolSessionHandler {
     return session;
   }
 
+  /**
+   * Whether the session is closed, either explicitly or because it could not be reconnected.
+   * @return true if there is no usable session
+   */
+  public boolean isClosed() {
+    return session == null || session.isClosed();
+  }
+
+  /**
+   * Track the connection state from session events, called on the reactor thread.
+   * @param event the session event
+   */
+  void onSessionEvent(SessionEvent event) {
+    if (event == SessionEvent.RECONNECTING) {
+      reconnecting = true;
+    } else if (event == SessionEvent.RECONNECTED || event == SessionEvent.DOWN_ERROR) {
+      reconnecting = false;
+    }
+    if (rateController != null) {
+      rateController.onSessionEvent(event);
+    }
+  }
+
+  /**
+   * @return true while the session is trying to reconnect
+   */
+  public boolean isReconnecting() {
+    return reconnecting;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  /**
+   * @return the controller of the publish rate after reconnects, or null if not enabled
+   */
+  public SolPublishRateController getPublishRateController() {
+    return rateController;
+  }
+
   public TransactedSession getTxSession() {
     return txSession;
   }
@@ -225,6 +199,8 @@ public class SolSessionHandler {
     if (session != null) {
       session.closeSession();
     }
+    SolMetrics.unregister(rateControllerMetricName);
+    rateControllerMetricName = null;
   }
 
 }
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.JCSMPChannelProperties;
+import com.solacesystems.jcsmp.JCSMPProperties;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.config.types.Password;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Table binding the connector configuration to JCSMP session and channel properties. Every defined
+ * configuration key must either be bound here or be listed as used by the connector itself, which
+ * {@link #verifyAllApplied} checks on startup.
+ */
+final class SolSessionPropertyBinding {
+
+  @FunctionalInterface
+  private interface Binder {
+    void bind(SolaceSinkConnectorConfig config, String key, JCSMPProperties properties,
+              JCSMPChannelProperties channelProperties);
+  }
+
+  private static final Map<String, Binder> BINDINGS = new LinkedHashMap<>();
+
+  // Keys applied by the connector itself rather than to the session properties
+  private static final Set<String> CONNECTOR_KEYS = new HashSet<>(Arrays.asList(
+      SolaceSinkConstants.SOL_TOPICS,
+      SolaceSinkConstants.SOl_QUEUE,
+      SolaceSinkConstants.SOL_RECORD_PROCESSOR,
+      SolaceSinkConstants.SOL_RECORD_PROCESSOR_IGNORE_ERROR,
+      SolaceSinkConstants.SOL_AUTOFLUSH_SIZE,
+      SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE,
+      SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_TOPICS,
+      SolaceSinkConstants.SOL_ACK_EVENT_MODE,
+      SolaceSinkConstants.SOL_PUBLISHER_WINDOW_SIZE,
+      SolaceSinkConstants.SOL_PUBLISHER_WINDOW_ADAPTIVE,
+      SolaceSinkConstants.SOL_PUBLISHER_WINDOW_MIN,
+      SolaceSinkConstants.SOL_PUBLISHER_WINDOW_MAX,
+      SolaceSinkConstants.SOL_KAFKA_MESSAGE_KEY,
+      SolaceSinkConstants.SOL_KAFKA_REPLAY_OFFSET,
+      SolaceSinkConstants.SOL_DYNAMIC_DESTINATION,
+      SolaceSinkConstants.SOL_DYNAMIC_DESTINATION_TOPIC_TEMPLATE,
+      SolaceSinkConstants.SOL_KEYWORD_ROUTES,
+      SolaceSinkConstants.SOL_KEYWORD_ROUTES_DEFAULT_TOPIC,
+      SolaceSinkConstants.SOL_KEYWORD_ROUTES_IGNORE_CASE,
+      SolaceSinkConstants.SOL_EMIT_KAFKA_RECORD_HEADERS_ENABLED,
+      SolaceSinkConstants.SOL_CONNECT_ASYNC,
+      SolaceSinkConstants.SOL_INFLIGHT_MAX_BYTES,
+      SolaceSinkConstants.SOL_SPILL_DIRECTORY,
+      SolaceSinkConstants.SOL_SPILL_SEGMENT_BYTES,
+      SolaceSinkConstants.SOL_SPILL_MAX_SEGMENTS,
+      SolaceSinkConstants.SOL_RETRANSMIT_ENABLED,
+      SolaceSinkConstants.SOL_RETRANSMIT_MAX_RETRIES,
+      SolaceSinkConstants.SOL_RETRANSMIT_BACKOFF_MS,
+      SolaceSinkConstants.SOL_RETRANSMIT_ACK_TIMEOUT_MS,
+      SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS,
+      SolaceSinkConstants.SOL_QUEUE_PRODUCER_FLOW_IDLE_TIMEOUT_MS,
+      SolaceSinkConstants.SOL_RECONNECT_THROTTLE_ENABLED,
+      SolaceSinkConstants.SOL_RECONNECT_THROTTLE_INITIAL_RATE,
+      SolaceSinkConstants.SOL_RECONNECT_THROTTLE_RAMP_MS,
+      SolaceSinkConstants.SOL_STANDBY_HOST,
+      SolaceSinkConstants.SOL_ENDPOINTS,
+      SolaceSinkConstants.SOL_ENDPOINTS_ROUTING,
+      SolaceSinkConstants.SOL_ENDPOINTS_VIRTUAL_NODES,
+      SolaceSinkConstants.SOL_TASK_INDEX,
+      SolaceSinkConstants.SOL_TASK_COUNT,
+      SolaceSinkConstants.SOL_TASK_ROTATE_HOSTS,
+      SolaceSinkConstants.SOL_TASK_DIVIDE_BUDGETS,
+      SolaceSinkConstants.SOL_RATE_LIMIT_DESTINATION_MSGS_PER_SEC,
+      SolaceSinkConstants.SOL_RATE_LIMIT_DESTINATION_BYTES_PER_SEC,
+      SolaceSinkConstants.SOL_RATE_LIMIT_GLOBAL_MSGS_PER_SEC,
+      SolaceSinkConstants.SOL_RATE_LIMIT_GLOBAL_BYTES_PER_SEC,
+      SolaceSinkConstants.SOL_LANES,
+      SolaceSinkConstants.SOL_LANES_DEFAULT_WEIGHT,
+      SolaceSinkConstants.SOL_SCHEMA_CACHE_MAX_ENTRIES,
+      SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN,
+      SolaceSinkConstants.SOL_TOPIC_PROCESSORS,
+      SolaceSinkConstants.SOL_DESTINATION_ROUTES,
+      // Set as system properties when connecting
+      SolaceSinkConstants.SOL_KERBEROS_LOGIN_CONFIG,
+      SolaceSinkConstants.SOL_KERBEROS_KRB5_CONFIG));
+
+  // Keys without a session property in JCSMP, they only apply to subscribing clients
+  private static final Set<String> NOT_APPLICABLE_KEYS = Collections.singleton(
+      SolaceSinkConstants.SOL_SUBSCRIBER_DTO_OVERRIDE);
+
+  static {
+    // Required Properties
+    BINDINGS.put(SolaceSinkConstants.SOL_USERNAME, string(JCSMPProperties.USERNAME));
+    BINDINGS.put(SolaceSinkConstants.SOL_PASSWORD, password(JCSMPProperties.PASSWORD));
+    BINDINGS.put(SolaceSinkConstants.SOL_VPN_NAME, string(JCSMPProperties.VPN_NAME));
+    BINDINGS.put(SolaceSinkConstants.SOL_HOST, string(JCSMPProperties.HOST));
+
+    // Channel Properties
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_connectTimeoutInMillis,
+        channelInt(JCSMPChannelProperties::setConnectTimeoutInMillis));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_readTimeoutInMillis,
+        channelInt(JCSMPChannelProperties::setReadTimeoutInMillis));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_connectRetries,
+        channelInt(JCSMPChannelProperties::setConnectRetries));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_reconnectRetries,
+        channelInt(JCSMPChannelProperties::setReconnectRetries));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_connectRetriesPerHost,
+        channelInt(JCSMPChannelProperties::setConnectRetriesPerHost));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_reconnectRetryWaitInMillis,
+        channelInt(JCSMPChannelProperties::setReconnectRetryWaitInMillis));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_keepAliveIntervalInMillis,
+        channelInt(JCSMPChannelProperties::setKeepAliveIntervalInMillis));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_keepAliveLimit,
+        channelInt(JCSMPChannelProperties::setKeepAliveLimit));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_sendBuffer,
+        channelInt(JCSMPChannelProperties::setSendBuffer));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_receiveBuffer,
+        channelInt(JCSMPChannelProperties::setReceiveBuffer));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_tcpNoDelay,
+        channelBoolean(JCSMPChannelProperties::setTcpNoDelay));
+    BINDINGS.put(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_compressionLevel,
+        channelInt(JCSMPChannelProperties::setCompressionLevel));
+
+    // Session Properties
+    BINDINGS.put(SolaceSinkConstants.SOL_LOCALHOST, nonEmptyString(JCSMPProperties.LOCALHOST));
+    BINDINGS.put(SolaceSinkConstants.SOL_CLIENT_NAME, (config, key, properties, channelProperties) -> {
+      String clientName = config.getString(key);
+      // "default" is the placeholder for a name generated by JCSMP, which keeps client names unique
+      if (clientName != null && !clientName.isEmpty() && !clientName.equals("default")) {
+        properties.setProperty(JCSMPProperties.CLIENT_NAME, clientName);
+      }
+    });
+    BINDINGS.put(SolaceSinkConstants.SOL_GENERATE_SENDER_ID, bool(JCSMPProperties.GENERATE_SENDER_ID));
+    BINDINGS.put(SolaceSinkConstants.SOL_REAPPLY_SUBSCRIPTIONS, bool(JCSMPProperties.REAPPLY_SUBSCRIPTIONS));
+    BINDINGS.put(SolaceSinkConstants.SOL_GENERATE_SEND_TIMESTAMPS, bool(JCSMPProperties.GENERATE_SEND_TIMESTAMPS));
+    BINDINGS.put(SolaceSinkConstants.SOL_GENERATE_RCV_TIMESTAMPS, bool(JCSMPProperties.GENERATE_RCV_TIMESTAMPS));
+    BINDINGS.put(SolaceSinkConstants.SOL_SUB_ACK_WINDOW_SIZE, integer(JCSMPProperties.SUB_ACK_WINDOW_SIZE));
+    BINDINGS.put(SolaceSinkConstants.SOL_GENERATE_SEQUENCE_NUMBERS,
+        bool(JCSMPProperties.GENERATE_SEQUENCE_NUMBERS));
+    BINDINGS.put(SolaceSinkConstants.SOL_CALCULATE_MESSAGE_EXPIRATION,
+        bool(JCSMPProperties.CALCULATE_MESSAGE_EXPIRATION));
+    BINDINGS.put(SolaceSinkConstants.SOL_PUB_MULTI_THREAD, bool(JCSMPProperties.PUB_MULTI_THREAD));
+    BINDINGS.put(SolaceSinkConstants.SOL_PUB_USE_INTERMEDIATE_DIRECT_BUF,
+        bool(JCSMPProperties.PUB_USE_INTERMEDIATE_DIRECT_BUF));
+    BINDINGS.put(SolaceSinkConstants.SOL_MESSAGE_CALLBACK_ON_REACTOR,
+        bool(JCSMPProperties.MESSAGE_CALLBACK_ON_REACTOR));
+    BINDINGS.put(SolaceSinkConstants.SOL_IGNORE_DUPLICATE_SUBSCRIPTION_ERROR,
+        bool(JCSMPProperties.IGNORE_DUPLICATE_SUBSCRIPTION_ERROR));
+    BINDINGS.put(SolaceSinkConstants.SOL_IGNORE_SUBSCRIPTION_NOT_FOUND_ERROR,
+        bool(JCSMPProperties.IGNORE_SUBSCRIPTION_NOT_FOUND_ERROR));
+    BINDINGS.put(SolaceSinkConstants.SOL_NO_LOCAL, bool(JCSMPProperties.NO_LOCAL));
+    BINDINGS.put(SolaceSinkConstants.SOl_AUTHENTICATION_SCHEME, string(JCSMPProperties.AUTHENTICATION_SCHEME));
+    BINDINGS.put(SolaceSinkConstants.SOL_KRB_SERVICE_NAME, string(JCSMPProperties.KRB_SERVICE_NAME));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_CONNECTION_DOWNGRADE_TO,
+        string(JCSMPProperties.SSL_CONNECTION_DOWNGRADE_TO));
+    BINDINGS.put(SolaceSinkConstants.SOL_SUBSCRIBER_LOCAL_PRIORITY,
+        integer(JCSMPProperties.SUBSCRIBER_LOCAL_PRIORITY));
+    BINDINGS.put(SolaceSinkConstants.SOL_SUBSCRIBER_NETWORK_PRIORITY,
+        integer(JCSMPProperties.SUBSCRIBER_NETWORK_PRIORITY));
+
+    // SSL Properties
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_EXCLUDED_PROTOCOLS, nonEmptyString(JCSMPProperties.SSL_EXCLUDED_PROTOCOLS));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_CIPHER_SUITES, nonEmptyString(JCSMPProperties.SSL_CIPHER_SUITES));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_VALIDATE_CERTIFICATE, bool(JCSMPProperties.SSL_VALIDATE_CERTIFICATE));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_VALIDATE_CERTIFICATE_DATE,
+        bool(JCSMPProperties.SSL_VALIDATE_CERTIFICATE_DATE));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_TRUST_STORE, string(JCSMPProperties.SSL_TRUST_STORE));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_TRUST_STORE_PASSWORD, password(JCSMPProperties.SSL_TRUST_STORE_PASSWORD));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_TRUST_STORE_FORMAT, string(JCSMPProperties.SSL_TRUST_STORE_FORMAT));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_TRUSTED_COMMON_NAME_LIST,
+        string(JCSMPProperties.SSL_TRUSTED_COMMON_NAME_LIST));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_KEY_STORE, string(JCSMPProperties.SSL_KEY_STORE));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_KEY_STORE_PASSWORD, password(JCSMPProperties.SSL_KEY_STORE_PASSWORD));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_KEY_STORE_FORMAT, string(JCSMPProperties.SSL_KEY_STORE_FORMAT));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_KEY_STORE_NORMALIZED_FORMAT,
+        string(JCSMPProperties.SSL_KEY_STORE_NORMALIZED_FORMAT));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_PRIVATE_KEY_ALIAS, nonEmptyString(JCSMPProperties.SSL_PRIVATE_KEY_ALIAS));
+    BINDINGS.put(SolaceSinkConstants.SOL_SSL_PRIVATE_KEY_PASSWORD,
+        password(JCSMPProperties.SSL_PRIVATE_KEY_PASSWORD));
+  }
+
+  private SolSessionPropertyBinding() {
+  }
+
+  /**
+   * Apply all bound configuration keys to the session and channel properties.
+   */
+  static void apply(SolaceSinkConnectorConfig config, JCSMPProperties properties,
+                    JCSMPChannelProperties channelProperties) {
+    for (Map.Entry<String, Binder> binding : BINDINGS.entrySet()) {
+      binding.getValue().bind(config, binding.getKey(), properties, channelProperties);
+    }
+  }
+
+  /**
+   * Check that every key defined by the configuration is applied.
+   * @throws ConfigException listing the keys that are defined but never applied
+   */
+  static void verifyAllApplied(ConfigDef configDef) {
+    Set<String> unapplied = new TreeSet<>(configDef.names());
+    unapplied.removeAll(BINDINGS.keySet());
+    unapplied.removeAll(CONNECTOR_KEYS);
+    unapplied.removeAll(NOT_APPLICABLE_KEYS);
+    if (!unapplied.isEmpty()) {
+      throw new ConfigException("Configuration keys are defined but never applied: " + unapplied);
+    }
+  }
+
+  private static Binder string(String property) {
+    return (config, key, properties, channelProperties) -> properties.setProperty(property, config.getString(key));
+  }
+
+  private static Binder nonEmptyString(String property) {
+    return (config, key, properties, channelProperties) -> {
+      String value = config.getString(key);
+      if (value != null && !value.isEmpty()) {
+        properties.setProperty(property, value);
+      }
+    };
+  }
+
+  private static Binder password(String property) {
+    return (config, key, properties, channelProperties) -> {
+      Password password = config.getPassword(key);
+      properties.setProperty(property, password != null ? password.value() : null);
+    };
+  }
+
+  private static Binder bool(String property) {
+    return (config, key, properties, channelProperties) ->
+        properties.setBooleanProperty(property, config.getBoolean(key));
+  }
+
+  private static Binder integer(String property) {
+    return (config, key, properties, channelProperties) ->
+        properties.setIntegerProperty(property, config.getInt(key));
+  }
+
+  private static Binder channelInt(ObjIntConsumer<JCSMPChannelProperties> setter) {
+    return (config, key, properties, channelProperties) -> setter.accept(channelProperties, config.getInt(key));
+  }
+
+  private static Binder channelBoolean(BiConsumer<JCSMPChannelProperties, Boolean> setter) {
+    return (config, key, properties, channelProperties) -> setter.accept(channelProperties, config.getBoolean(key));
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Local write-ahead buffer of messages that could not be sent to PubSub+, made of a bounded number of
+ * {@link SolSpillSegment}s. Entries are read back in the order they were appended. Reading is done through
+ * a cursor that is only made durable by {@link #commitRead()}, so that entries can be re-read if sending
+ * them fails. Segments that have been fully read are recycled.
+ *
+ * <p>Each task locks its own sub-directory of the configured spill directory, entries left behind by a
+ * previous task are drained by the next task that locks the sub-directory.
+ */
+class SolSpillBuffer implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(SolSpillBuffer.class);
+  private static final String LOCK_FILE = "spill.lock";
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".spill";
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final int maxSegments;
+  private final FileChannel lockChannel;
+  private final FileLock lock;
+  private final List<SolSpillSegment> active = new ArrayList<>();
+  private final Deque<SolSpillSegment> free = new ArrayDeque<>();
+  private int segmentCount;
+  private int nextSegmentIndex;
+  private long nextSequence = 1;
+  private int cursorIndex;
+
+  private SolSpillBuffer(Path directory, int segmentBytes, int maxSegments, FileChannel lockChannel,
+                         FileLock lock) {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.maxSegments = maxSegments;
+    this.lockChannel = lockChannel;
+    this.lock = lock;
+  }
+
+  /**
+   * Lock the first available task sub-directory of the spill directory and recover its segments.
+   * @param baseDirectory configured spill directory
+   * @param segmentBytes size of a segment in bytes
+   * @param maxSegments maximum number of segments
+   * @return the spill buffer
+   * @throws IOException if the spill directory cannot be used
+   */
+  static SolSpillBuffer open(Path baseDirectory, int segmentBytes, int maxSegments) throws IOException {
+    for (int i = 0; ; i++) {
+      Path directory = Files.createDirectories(baseDirectory.resolve("task-" + i));
+      FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE);
+      FileLock lock;
+      try {
+        lock = lockChannel.tryLock();
+      } catch (OverlappingFileLockException e) {
+        lock = null;
+      }
+      if (lock == null) {
+        lockChannel.close();
+        continue;
+      }
+      SolSpillBuffer spillBuffer = new SolSpillBuffer(directory, segmentBytes, maxSegments, lockChannel, lock);
+      try {
+        spillBuffer.recover();
+      } catch (IOException | RuntimeException e) {
+        spillBuffer.close();
+        throw e;
+      }
+      return spillBuffer;
+    }
+  }
+
+  private void recover() throws IOException {
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      for (Path path : paths) {
+        String name = path.getFileName().toString();
+        try {
+          int index = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+          nextSegmentIndex = Math.max(nextSegmentIndex, index + 1);
+        } catch (NumberFormatException e) {
+          log.warn("================ Ignoring unexpected file {} in spill directory", path);
+          continue;
+        }
+        SolSpillSegment segment = SolSpillSegment.open(path, segmentBytes);
+        segmentCount++;
+        nextSequence = Math.max(nextSequence, segment.getSequence() + 1);
+        if (segment.isInUse() && !segment.isDrained()) {
+          active.add(segment);
+        } else {
+          free.add(segment);
+        }
+      }
+    }
+    active.sort(Comparator.comparingLong(SolSpillSegment::getSequence));
+    if (!active.isEmpty()) {
+      log.info("================ Recovered {} spill segments with undelivered messages in {}", active.size(),
+          directory);
+    }
+  }
+
+  boolean isEmpty() {
+    for (SolSpillSegment segment : active) {
+      if (!segment.isDrained()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Append an entry to the buffer.
+   * @param payload entry payload, must not be empty
+   * @return false if the buffer is full
+   * @throws IOException if a new segment cannot be created
+   */
+  boolean append(byte[] payload) throws IOException {
+    SolSpillSegment tail = active.isEmpty() ? null : active.get(active.size() - 1);
+    if (tail != null && tail.append(payload)) {
+      return true;
+    }
+    SolSpillSegment segment = allocate();
+    if (segment == null) {
+      return false;
+    }
+    active.add(segment);
+    if (!segment.append(payload)) {
+      throw new IllegalArgumentException(String.format("Message of %d bytes does not fit in a spill segment "
+          + "of %d bytes", payload.length, segmentBytes));
+    }
+    return true;
+  }
+
+  private SolSpillSegment allocate() throws IOException {
+    SolSpillSegment segment = free.poll();
+    if (segment == null) {
+      if (segmentCount >= maxSegments) {
+        return null;
+      }
+      segment = SolSpillSegment.open(directory.resolve(SEGMENT_PREFIX + nextSegmentIndex++ + SEGMENT_SUFFIX),
+          segmentBytes);
+      segmentCount++;
+    }
+    segment.reset(nextSequence++);
+    return segment;
+  }
+
+  /**
+   * Read the next entry at the read cursor.
+   * @return the payload, or null if all entries have been read
+   */
+  byte[] next() {
+    while (cursorIndex < active.size()) {
+      byte[] payload = active.get(cursorIndex).next();
+      if (payload != null || cursorIndex == active.size() - 1) {
+        return payload;
+      }
+      cursorIndex++;
+    }
+    return null;
+  }
+
+  /**
+   * Mark all entries read through the cursor as delivered, recycling segments that are fully read.
+   */
+  void commitRead() {
+    for (int i = 0; i <= cursorIndex && i < active.size(); i++) {
+      active.get(i).commitRead();
+    }
+    while (!active.isEmpty() && active.get(0).isDrained()) {
+      SolSpillSegment segment = active.remove(0);
+      segment.reset(0);
+      free.add(segment);
+      cursorIndex = Math.max(0, cursorIndex - 1);
+    }
+  }
+
+  /**
+   * Move the read cursor back to the first entry that has not been marked as delivered.
+   */
+  void rewind() {
+    for (int i = 0; i <= cursorIndex && i < active.size(); i++) {
+      active.get(i).rewind();
+    }
+    cursorIndex = 0;
+  }
+
+  /**
+   * Make all appended entries and read positions durable.
+   */
+  void force() {
+    for (SolSpillSegment segment : active) {
+      segment.force();
+    }
+    for (SolSpillSegment segment : free) {
+      segment.force();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      for (SolSpillSegment segment : active) {
+        segment.close();
+      }
+      for (SolSpillSegment segment : free) {
+        segment.close();
+      }
+    } finally {
+      active.clear();
+      free.clear();
+      try {
+        lock.release();
+      } finally {
+        lockChannel.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.common.util.ByteArray;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.Destination;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.MapMessage;
+import com.solacesystems.jcsmp.Queue;
+import com.solacesystems.jcsmp.SDTException;
+import com.solacesystems.jcsmp.SDTMap;
+import com.solacesystems.jcsmp.StreamMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializes messages and their destination into {@link SolSpillBuffer} entries.
+ *
+ * <p>The binary attachment, destination, application message type, correlation ID, priority, HTTP content
+ * type and encoding and user properties are kept. Map and stream messages are restored as such, from their SDT encoded attachment.
+ * User properties of a type without a dedicated encoding, such as nested maps and
+ * streams, are kept as their string representation.
+ */
+final class SolSpillCodec {
+  // Version 1 entries lack the message type and are restored as bytes messages, version 2 entries lack the
+  // HTTP content type and encoding
+  private static final byte FORMAT_VERSION = 3;
+  private static final byte FORMAT_VERSION_MESSAGE_TYPE = 2;
+  private static final byte DESTINATION_TOPIC = 0;
+  private static final byte DESTINATION_QUEUE = 1;
+  private static final byte MESSAGE_BYTES = 0;
+  private static final byte MESSAGE_MAP = 1;
+  private static final byte MESSAGE_STREAM = 2;
+
+  private static final byte TYPE_STRING = 'S';
+  private static final byte TYPE_INTEGER = 'I';
+  private static final byte TYPE_LONG = 'L';
+  private static final byte TYPE_SHORT = 'H';
+  private static final byte TYPE_BYTE = 'B';
+  private static final byte TYPE_BOOLEAN = 'Z';
+  private static final byte TYPE_DOUBLE = 'D';
+  private static final byte TYPE_FLOAT = 'F';
+  private static final byte TYPE_CHARACTER = 'C';
+  private static final byte TYPE_BYTES = 'Y';
+  private static final byte TYPE_TOPIC = 'T';
+  private static final byte TYPE_QUEUE = 'Q';
+
+  private SolSpillCodec() { }
+
+  /**
+   * A message read back from the spill buffer.
+   */
+  static final class Entry {
+    final BytesXMLMessage message;
+    final Destination destination;
+
+    Entry(BytesXMLMessage message, Destination destination) {
+      this.message = message;
+      this.destination = destination;
+    }
+  }
+
+  static byte[] encode(BytesXMLMessage message, Destination destination) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(message.getAttachmentContentLength() + 256);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(FORMAT_VERSION);
+    out.writeByte(destination instanceof Queue ? DESTINATION_QUEUE : DESTINATION_TOPIC);
+    writeString(out, destination.getName());
+    out.writeByte(message instanceof MapMessage ? MESSAGE_MAP
+        : message instanceof StreamMessage ? MESSAGE_STREAM : MESSAGE_BYTES);
+    writeString(out, message.getApplicationMessageType());
+    writeString(out, message.getCorrelationId());
+    out.writeInt(message.getPriority());
+    writeString(out, message.getHTTPContentType());
+    writeString(out, message.getHTTPContentEncoding());
+
+    SDTMap properties = message.getProperties();
+    if (properties == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(properties.size());
+      for (String key : properties.keySet()) {
+        writeString(out, key);
+        try {
+          writeValue(out, properties.get(key));
+        } catch (SDTException e) {
+          throw new IOException("Failed to read user property " + key, e);
+        }
+      }
+    }
+
+    ByteBuffer attachment = message.getAttachmentByteBuffer();
+    if (attachment == null) {
+      out.writeInt(0);
+    } else {
+      attachment = attachment.duplicate();
+      out.writeInt(attachment.remaining());
+      if (attachment.hasArray()) {
+        out.write(attachment.array(), attachment.arrayOffset() + attachment.position(), attachment.remaining());
+      } else {
+        byte[] copy = new byte[attachment.remaining()];
+        attachment.get(copy);
+        out.write(copy);
+      }
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  static Entry decode(byte[] payload) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+    byte version = in.readByte();
+    if (version < 1 || version > FORMAT_VERSION) {
+      throw new IOException("Unsupported spill entry format version " + version);
+    }
+    JCSMPFactory factory = JCSMPFactory.onlyInstance();
+    byte destinationType = in.readByte();
+    String destinationName = readString(in);
+    Destination destination = destinationType == DESTINATION_QUEUE
+        ? factory.createQueue(destinationName) : factory.createTopic(destinationName);
+
+    BytesXMLMessage message;
+    byte messageType = version >= FORMAT_VERSION_MESSAGE_TYPE ? in.readByte() : MESSAGE_BYTES;
+    switch (messageType) {
+      case MESSAGE_BYTES:
+        message = factory.createMessage(BytesXMLMessage.class);
+        break;
+      case MESSAGE_MAP:
+        message = (BytesXMLMessage) factory.createMessage(MapMessage.class);
+        break;
+      case MESSAGE_STREAM:
+        message = (BytesXMLMessage) factory.createMessage(StreamMessage.class);
+        break;
+      default:
+        throw new IOException("Unknown message type " + messageType);
+    }
+    String applicationMessageType = readString(in);
+    if (applicationMessageType != null) {
+      message.setApplicationMessageType(applicationMessageType);
+    }
+    String correlationId = readString(in);
+    if (correlationId != null) {
+      message.setCorrelationId(correlationId);
+    }
+    int priority = in.readInt();
+    if (priority >= 0) {
+      message.setPriority(priority);
+    }
+    if (version == FORMAT_VERSION) {
+      String contentType = readString(in);
+      if (contentType != null) {
+        message.setHTTPContentType(contentType);
+      }
+      String contentEncoding = readString(in);
+      if (contentEncoding != null) {
+        message.setHTTPContentEncoding(contentEncoding);
+      }
+    }
+
+    int propertyCount = in.readInt();
+    if (propertyCount >= 0) {
+      SDTMap properties = factory.createMap();
+      for (int i = 0; i < propertyCount; i++) {
+        String key = readString(in);
+        try {
+          readValue(in, properties, key);
+        } catch (SDTException e) {
+          throw new IOException("Failed to restore user property " + key, e);
+        }
+      }
+      message.setProperties(properties);
+    }
+
+    byte[] attachment = new byte[in.readInt()];
+    in.readFully(attachment);
+    // The attachment of a map or stream message holds its SDT encoded content
+    message.writeAttachment(attachment);
+    return new Entry(message, destination);
+  }
+
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value instanceof Integer) {
+      out.writeByte(TYPE_INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(TYPE_LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Short) {
+      out.writeByte(TYPE_SHORT);
+      out.writeShort((Short) value);
+    } else if (value instanceof Byte) {
+      out.writeByte(TYPE_BYTE);
+      out.writeByte((Byte) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(TYPE_BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Double) {
+      out.writeByte(TYPE_DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Float) {
+      out.writeByte(TYPE_FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Character) {
+      out.writeByte(TYPE_CHARACTER);
+      out.writeChar((Character) value);
+    } else if (value instanceof byte[] || value instanceof ByteArray) {
+      byte[] bytes = value instanceof byte[] ? (byte[]) value : ((ByteArray) value).asBytes();
+      out.writeByte(TYPE_BYTES);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    } else if (value instanceof Destination) {
+      out.writeByte(value instanceof Queue ? TYPE_QUEUE : TYPE_TOPIC);
+      writeString(out, ((Destination) value).getName());
+    } else {
+      out.writeByte(TYPE_STRING);
+      writeString(out, value != null ? value.toString() : null);
+    }
+  }
+
+  private static void readValue(DataInputStream in, SDTMap properties, String key)
+      throws IOException, SDTException {
+    byte type = in.readByte();
+    switch (type) {
+      case TYPE_INTEGER:
+        properties.putInteger(key, in.readInt());
+        break;
+      case TYPE_LONG:
+        properties.putLong(key, in.readLong());
+        break;
+      case TYPE_SHORT:
+        properties.putShort(key, in.readShort());
+        break;
+      case TYPE_BYTE:
+        properties.putByte(key, in.readByte());
+        break;
+      case TYPE_BOOLEAN:
+        properties.putBoolean(key, in.readBoolean());
+        break;
+      case TYPE_DOUBLE:
+        properties.putDouble(key, in.readDouble());
+        break;
+      case TYPE_FLOAT:
+        properties.putFloat(key, in.readFloat());
+        break;
+      case TYPE_CHARACTER:
+        properties.putCharacter(key, in.readChar());
+        break;
+      case TYPE_BYTES:
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        properties.putBytes(key, bytes);
+        break;
+      case TYPE_TOPIC:
+        properties.putDestination(key, JCSMPFactory.onlyInstance().createTopic(readString(in)));
+        break;
+      case TYPE_QUEUE:
+        properties.putDestination(key, JCSMPFactory.onlyInstance().createQueue(readString(in)));
+        break;
+      case TYPE_STRING:
+        properties.putString(key, readString(in));
+        break;
+      default:
+        throw new IOException("Unknown user property type " + type);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
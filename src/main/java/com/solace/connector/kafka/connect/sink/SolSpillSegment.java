@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped file holding spilled messages.
+ *
+ * <p>The segment starts with a header made of a magic number, a format version, the sequence number of
+ * the segment and the durable read position. It is followed by entries made of the payload length, a
+ * CRC32 checksum and the payload. A length of 0 marks the end of the written entries. The checksum
+ * covers the segment sequence number so that entries left over from before the segment was recycled
+ * are never mistaken for new ones.
+ */
+class SolSpillSegment implements Closeable {
+  static final int HEADER_SIZE = 24;
+  private static final int MAGIC = 0x534F4C53;
+  private static final int VERSION = 1;
+  private static final int SEQUENCE_OFFSET = 8;
+  private static final int READ_POSITION_OFFSET = 16;
+  private static final int ENTRY_HEADER_SIZE = 8;
+  private static final int TERMINATOR_SIZE = 4;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final ByteBuffer view;
+  private final CRC32 crc = new CRC32();
+  private final ByteBuffer sequenceBytes = ByteBuffer.allocate(Long.BYTES);
+  private long sequence;
+  private int readPosition;
+  private int cursor;
+  private int writePosition;
+  private boolean dirty;
+
+  private SolSpillSegment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+    this.path = path;
+    this.channel = channel;
+    this.buffer = buffer;
+    this.view = buffer.duplicate();
+  }
+
+  /**
+   * Map a segment file, recovering the entries it holds if it already exists.
+   * @param path segment file
+   * @param size size of a new segment in bytes
+   * @return the segment
+   * @throws IOException if the file cannot be mapped
+   */
+  static SolSpillSegment open(Path path, int size) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      long mapSize = Math.min(Math.max(channel.size(), size), Integer.MAX_VALUE);
+      SolSpillSegment segment = new SolSpillSegment(path, channel,
+          channel.map(FileChannel.MapMode.READ_WRITE, 0, mapSize));
+      segment.recover();
+      return segment;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void recover() {
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      reset(0);
+      return;
+    }
+    sequence = buffer.getLong(SEQUENCE_OFFSET);
+    int position = HEADER_SIZE;
+    while (position + ENTRY_HEADER_SIZE <= buffer.capacity()) {
+      int length = buffer.getInt(position);
+      if (length <= 0 || position + ENTRY_HEADER_SIZE + length > buffer.capacity()
+          || buffer.getInt(position + 4) != checksum(position + ENTRY_HEADER_SIZE, length)) {
+        // End of entries, or an entry that was torn while being written
+        break;
+      }
+      position += ENTRY_HEADER_SIZE + length;
+    }
+    writePosition = position;
+    if (writePosition + TERMINATOR_SIZE <= buffer.capacity()) {
+      buffer.putInt(writePosition, 0);
+    }
+    readPosition = (int) Math.min(Math.max(buffer.getLong(READ_POSITION_OFFSET), HEADER_SIZE), writePosition);
+    cursor = readPosition;
+  }
+
+  /**
+   * Empty the segment and give it a new sequence number.
+   * @param newSequence sequence number, 0 for a segment that is not in use
+   */
+  void reset(long newSequence) {
+    sequence = newSequence;
+    readPosition = HEADER_SIZE;
+    cursor = HEADER_SIZE;
+    writePosition = HEADER_SIZE;
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(4, VERSION);
+    buffer.putLong(SEQUENCE_OFFSET, sequence);
+    buffer.putLong(READ_POSITION_OFFSET, readPosition);
+    buffer.putInt(HEADER_SIZE, 0);
+    dirty = true;
+  }
+
+  /**
+   * Append an entry.
+   * @param payload entry payload, must not be empty
+   * @return false if the segment does not have enough space left
+   */
+  boolean append(byte[] payload) {
+    if ((long) writePosition + ENTRY_HEADER_SIZE + payload.length + TERMINATOR_SIZE > buffer.capacity()) {
+      return false;
+    }
+    int position = writePosition;
+    view.clear();
+    view.position(position + ENTRY_HEADER_SIZE);
+    view.put(payload);
+    buffer.putInt(position + ENTRY_HEADER_SIZE + payload.length, 0);
+    buffer.putInt(position + 4, checksum(position + ENTRY_HEADER_SIZE, payload.length));
+    buffer.putInt(position, payload.length);
+    writePosition = position + ENTRY_HEADER_SIZE + payload.length;
+    dirty = true;
+    return true;
+  }
+
+  /**
+   * Read the entry at the read cursor and move the cursor past it.
+   * @return the payload, or null if all entries have been read
+   */
+  byte[] next() {
+    if (cursor >= writePosition) {
+      return null;
+    }
+    byte[] payload = new byte[buffer.getInt(cursor)];
+    view.clear();
+    view.position(cursor + ENTRY_HEADER_SIZE);
+    view.get(payload);
+    cursor += ENTRY_HEADER_SIZE + payload.length;
+    return payload;
+  }
+
+  /**
+   * Make the read cursor the durable read position.
+   */
+  void commitRead() {
+    if (readPosition != cursor) {
+      readPosition = cursor;
+      buffer.putLong(READ_POSITION_OFFSET, readPosition);
+      dirty = true;
+    }
+  }
+
+  /**
+   * Move the read cursor back to the durable read position.
+   */
+  void rewind() {
+    cursor = readPosition;
+  }
+
+  boolean isDrained() {
+    return readPosition >= writePosition;
+  }
+
+  boolean isInUse() {
+    return sequence > 0;
+  }
+
+  long getSequence() {
+    return sequence;
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  /**
+   * Flush modifications to the storage device.
+   */
+  void force() {
+    if (dirty) {
+      buffer.force();
+      dirty = false;
+    }
+  }
+
+  private int checksum(int position, int length) {
+    crc.reset();
+    sequenceBytes.clear();
+    sequenceBytes.putLong(sequence).flip();
+    crc.update(sequenceBytes);
+    ByteBuffer entry = buffer.duplicate();
+    entry.limit(position + length).position(position);
+    crc.update(entry);
+    return (int) crc.getValue();
+  }
+
+  @Override
+  public void close() throws IOException {
+    force();
+    channel.close();
+  }
+}
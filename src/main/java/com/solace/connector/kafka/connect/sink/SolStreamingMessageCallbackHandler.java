@@ -20,29 +20,48 @@
 package com.solace.connector.kafka.connect.sink;
 
 import com.solacesystems.jcsmp.JCSMPException;
-import com.solacesystems.jcsmp.JCSMPStreamingPublishEventHandler;
+import com.solacesystems.jcsmp.JCSMPStreamingPublishCorrelatingEventHandler;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+public class SolStreamingMessageCallbackHandler implements JCSMPStreamingPublishCorrelatingEventHandler {
+  private final SolRetransmitBuffer retransmitBuffer;
+  private final SolPublisherWindow publisherWindow;
+  private final SolAckProcessor ackProcessor;
 
-public class SolStreamingMessageCallbackHandler implements JCSMPStreamingPublishEventHandler {
-  private static final Logger log = LoggerFactory
-      .getLogger(SolStreamingMessageCallbackHandler.class);
-
-  @Override
-  public void handleError(String messageId, JCSMPException cause, long timestamp2) {
-    log.info("===========Error occurred for message: {}, with cause: {} "
-        + "details: {}", messageId, cause.getCause(),
-        cause.getStackTrace());
-    cause.printStackTrace();
+  public SolStreamingMessageCallbackHandler() {
+    this(null, null, null);
+  }
 
+  /**
+   * Handler that reports acknowledgements of tracked messages to a retransmit buffer.
+   * @param retransmitBuffer buffer tracking unacknowledged messages, or null
+   * @param publisherWindow window measuring the ACK round-trip time of the flow, or null
+   * @param ackProcessor processor to hand acknowledgements to instead of handling them on the reactor
+   *                     thread, or null
+   */
+  SolStreamingMessageCallbackHandler(SolRetransmitBuffer retransmitBuffer, SolPublisherWindow publisherWindow,
+                                     SolAckProcessor ackProcessor) {
+    this.retransmitBuffer = retransmitBuffer;
+    this.publisherWindow = publisherWindow;
+    this.ackProcessor = ackProcessor;
   }
 
   @Override
-  public void responseReceived(String messageId) {
-    log.trace("Received ACK for message with ID: {}", messageId);
+  public void handleErrorEx(Object key, JCSMPException cause, long timestamp) {
+    if (ackProcessor != null) {
+      ackProcessor.offer(publisherWindow, key, cause);
+    } else {
+      SolAckProcessor.process(retransmitBuffer, publisherWindow, key, cause, System.nanoTime());
+    }
+  }
 
+  @Override
+  public void responseReceivedEx(Object key) {
+    if (ackProcessor != null) {
+      ackProcessor.offer(publisherWindow, key, null);
+    } else {
+      SolAckProcessor.process(retransmitBuffer, publisherWindow, key, null, System.nanoTime());
+    }
   }
 
 }
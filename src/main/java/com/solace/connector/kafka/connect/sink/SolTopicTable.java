@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Table mapping Kafka topics to the value of the first named entry whose regular expression matches the
+ * topic, or to a default value. The value of a topic is resolved when its partitions are opened, so that
+ * records only take a single lookup of their topic, and forgotten once all its partitions are closed.
+ * Instances are not thread-safe.
+ * @param <V> type of the values
+ */
+final class SolTopicTable<V> {
+  private static final Logger log = LoggerFactory.getLogger(SolTopicTable.class);
+
+  private static final class Entry<V> {
+    final String name;
+    final Pattern topics;
+    final V value;
+
+    Entry(String name, Pattern topics, V value) {
+      this.name = name;
+      this.topics = topics;
+      this.value = value;
+    }
+  }
+
+  private final String kind;
+  private final List<Entry<V>> entries = new ArrayList<>();
+  private final V defaultValue;
+  private final Map<String, V> table = new HashMap<>();
+  private final Map<String, Set<Integer>> openPartitions = new HashMap<>();
+
+  /**
+   * @param kind kind of the entries, for logging
+   * @param defaultValue value of topics matching no entry
+   */
+  SolTopicTable(String kind, V defaultValue) {
+    this.kind = kind;
+    this.defaultValue = defaultValue;
+  }
+
+  /**
+   * Parse the regular expression of the Kafka topics of an entry from its {@code topics} property.
+   * @param prefix prefix of the properties of the entry, for error reporting
+   * @param props properties of the entry, without the prefix
+   * @throws ConfigException if the property is missing or not a valid regular expression
+   */
+  static Pattern topics(String prefix, Map<String, Object> props) {
+    Object topics = props.get("topics");
+    if (topics == null) {
+      throw new ConfigException(prefix + "topics", null, "No Kafka topics configured");
+    }
+    try {
+      return Pattern.compile(topics.toString().trim());
+    } catch (PatternSyntaxException e) {
+      throw new ConfigException(prefix + "topics", topics, e.getMessage());
+    }
+  }
+
+  /**
+   * Add an entry, entries are matched in the order they are added.
+   */
+  void add(String name, Pattern topics, V value) {
+    entries.add(new Entry<>(name, topics, value));
+  }
+
+  /**
+   * Resolve the values of newly assigned partitions.
+   */
+  void open(Collection<TopicPartition> partitions) {
+    for (TopicPartition tp : partitions) {
+      get(tp.topic());
+      openPartitions.computeIfAbsent(tp.topic(), topic -> new HashSet<>()).add(tp.partition());
+    }
+  }
+
+  /**
+   * Forget the topics of which no partition is left open.
+   */
+  void close(Collection<TopicPartition> partitions) {
+    for (TopicPartition tp : partitions) {
+      Set<Integer> open = openPartitions.get(tp.topic());
+      if (open != null) {
+        open.remove(tp.partition());
+        if (!open.isEmpty()) {
+          continue;
+        }
+        openPartitions.remove(tp.topic());
+      }
+      table.remove(tp.topic());
+    }
+  }
+
+  /**
+   * @return the value of a Kafka topic, resolved on first use if its partitions were not opened
+   */
+  V get(String topic) {
+    V value = table.get(topic);
+    if (value == null) {
+      value = resolve(topic);
+      table.put(topic, value);
+    }
+    return value;
+  }
+
+  /**
+   * @return the number of topics currently resolved
+   */
+  int size() {
+    return table.size();
+  }
+
+  private V resolve(String topic) {
+    for (Entry<V> entry : entries) {
+      if (entry.topics.matcher(topic).matches()) {
+        log.info("================ Records of topic {} use {} {}", topic, kind, entry.name);
+        return entry.value;
+      }
+    }
+    log.info("================ Records of topic {} use the default {}", topic, kind);
+    return defaultValue;
+  }
+}
@@ -20,6 +20,8 @@
 package com.solace.connector.kafka.connect.sink;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +49,7 @@ public class SolaceSinkConnector extends SinkConnector {
     log.info("==================== Start a SolaceSinkConnector");
     sconfigProperties = props;
     sconfig = new SolaceSinkConnectorConfig(props);
+    SolSessionPropertyBinding.verifyAllApplied(SolaceSinkConnectorConfig.config);
   }
 
   @Override
@@ -59,13 +62,57 @@ public class SolaceSinkConnector extends SinkConnector {
   public List<Map<String, String>> taskConfigs(int maxTasks) {
     log.info("==================== Requesting taskConfigs for SolaceSinkTask");
     List<Map<String, String>> taskConfigs = new ArrayList<>(maxTasks);
-    Map<String, String> taskProps = new HashMap<>(sconfigProperties);
     for (int i = 0; i < maxTasks; i++) {
-      taskConfigs.add(taskProps);
+      taskConfigs.add(taskProps(i, maxTasks));
     }
     return taskConfigs;
   }
 
+  /**
+   * Derive the configuration of a task, which carries the index of the task. A configured client name gets
+   * the task index as suffix, and optionally the host list is rotated and budgets are divided by task count.
+   */
+  Map<String, String> taskProps(int taskIndex, int taskCount) {
+    Map<String, String> taskProps = new HashMap<>(sconfigProperties);
+    taskProps.put(SolaceSinkConstants.SOL_TASK_INDEX, String.valueOf(taskIndex));
+    taskProps.put(SolaceSinkConstants.SOL_TASK_COUNT, String.valueOf(taskCount));
+
+    String clientName = sconfig.getString(SolaceSinkConstants.SOL_CLIENT_NAME);
+    if (taskCount > 1 && clientName != null && !clientName.equals("default")) {
+      // The broker rejects a second client with the same name
+      taskProps.put(SolaceSinkConstants.SOL_CLIENT_NAME, clientName + "-" + taskIndex);
+    }
+
+    String host = sconfig.getString(SolaceSinkConstants.SOL_HOST);
+    if (host != null && sconfig.getBoolean(SolaceSinkConstants.SOL_TASK_ROTATE_HOSTS)) {
+      List<String> hosts = new ArrayList<>(Arrays.asList(host.split(",")));
+      Collections.rotate(hosts, -(taskIndex % hosts.size()));
+      taskProps.put(SolaceSinkConstants.SOL_HOST, String.join(",", hosts));
+    }
+
+    if (sconfig.getBoolean(SolaceSinkConstants.SOL_TASK_DIVIDE_BUDGETS)) {
+      divideBudget(taskProps, SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS, taskIndex, taskCount);
+      divideBudget(taskProps, SolaceSinkConstants.SOL_RECONNECT_THROTTLE_INITIAL_RATE, taskIndex, taskCount);
+      divideBudget(taskProps, SolaceSinkConstants.SOL_SPILL_MAX_SEGMENTS, taskIndex, taskCount);
+      divideBudget(taskProps, SolaceSinkConstants.SOL_RATE_LIMIT_GLOBAL_MSGS_PER_SEC, taskIndex, taskCount);
+      divideBudget(taskProps, SolaceSinkConstants.SOL_RATE_LIMIT_GLOBAL_BYTES_PER_SEC, taskIndex, taskCount);
+    }
+    return taskProps;
+  }
+
+  /**
+   * Give each task its share of a connector-wide budget, the remainder goes to the first tasks. Each task
+   * gets at least 1 of a budget that is not 0.
+   */
+  private void divideBudget(Map<String, String> taskProps, String key, int taskIndex, int taskCount) {
+    long budget = ((Number) sconfig.values().get(key)).longValue();
+    if (budget <= 0) {
+      return;
+    }
+    long share = budget / taskCount + (taskIndex < budget % taskCount ? 1 : 0);
+    taskProps.put(key, String.valueOf(Math.max(1, share)));
+  }
+
   @Override
   public void stop() {
     log.info("SolaceSourceConnector is shutting down");
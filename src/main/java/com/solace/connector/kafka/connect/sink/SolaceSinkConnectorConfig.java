@@ -248,6 +248,15 @@ public class SolaceSinkConnectorConfig extends AbstractConfig {
             + " windowed or per message.")
         .define(SolaceSinkConstants.SOL_PUBLISHER_WINDOW_SIZE, Type.INT, 18, Importance.MEDIUM,
             "The size of the sliding publisher window for Guaranteed messages.")
+        .define(SolaceSinkConstants.SOL_PUBLISHER_WINDOW_ADAPTIVE, Type.BOOLEAN, false, Importance.LOW,
+            "If true, the publisher window of flows sending to queues without transactions is resized "
+            + "from the observed ACK round-trip time, starting from sol.publisher_window_size.")
+        .define(SolaceSinkConstants.SOL_PUBLISHER_WINDOW_MIN, Type.INT, 1,
+            ConfigDef.Range.between(1, SolPublisherWindow.MAX_WINDOW_SIZE), Importance.LOW,
+            "Smallest publisher window size an adaptive window is resized to.")
+        .define(SolaceSinkConstants.SOL_PUBLISHER_WINDOW_MAX, Type.INT, SolPublisherWindow.MAX_WINDOW_SIZE,
+            ConfigDef.Range.between(1, SolPublisherWindow.MAX_WINDOW_SIZE), Importance.LOW,
+            "Largest publisher window size an adaptive window is resized to.")
         .define(SolaceSinkConstants.SOL_KAFKA_MESSAGE_KEY, Type.STRING, "NONE", Importance.MEDIUM,
             "This propert determines if a Kafka key record is created and the key to be used")
         .define(SolaceSinkConstants.SOL_KAFKA_REPLAY_OFFSET, Type.LONG, null, Importance.LOW,
@@ -256,6 +265,127 @@ public class SolaceSinkConnectorConfig extends AbstractConfig {
             + "0 means from beginning of topic.")
         .define(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION, Type.BOOLEAN, false, Importance.MEDIUM,
             "Indicates whether the SolRecordProcessor should control the destination generation")
+        .define(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION_TOPIC_TEMPLATE, Type.STRING, null, Importance.MEDIUM,
+            "Topic template of the SolTemplateRoutingRecordProcessor, may contain the placeholders {topic}, "
+            + "{partition}, {key}, {header:<name>}, {value.field:<path>} and {value.json:<path>}")
+        .define(SolaceSinkConstants.SOL_KEYWORD_ROUTES, Type.LIST, "", Importance.MEDIUM,
+            "Names of the keyword rules of the SolKeywordRoutingRecordProcessor, the first rule with a keyword "
+            + "in the record value wins. A rule is configured by sol.keyword_route.<name>.keywords (comma "
+            + "separated keywords) and sol.keyword_route.<name>.topic (topic template)")
+        .define(SolaceSinkConstants.SOL_KEYWORD_ROUTES_DEFAULT_TOPIC, Type.STRING, null, Importance.MEDIUM,
+            "Topic template of the SolKeywordRoutingRecordProcessor for records matching no keyword rule")
+        .define(SolaceSinkConstants.SOL_KEYWORD_ROUTES_IGNORE_CASE, Type.BOOLEAN, true, Importance.LOW,
+            "Whether the keywords of the SolKeywordRoutingRecordProcessor match regardless of the case of "
+            + "ASCII letters")
+        .define(SolaceSinkConstants.SOL_CONNECT_ASYNC, Type.BOOLEAN, false, Importance.LOW,
+            "If enabled, the PubSub+ session is connected in the background and the task starts immediately. "
+            + "Partitions are paused and records are redelivered until the session is connected")
+        .define(SolaceSinkConstants.SOL_INFLIGHT_MAX_BYTES, Type.LONG, 0L, ConfigDef.Range.atLeast(0),
+            Importance.LOW,
+            "Maximum number of message bytes held in-flight by all tasks of a worker while waiting for a "
+            + "transaction commit. When exhausted, the partitions holding the most memory are paused. "
+            + "0 means unlimited")
+        .define(SolaceSinkConstants.SOL_SPILL_DIRECTORY, Type.STRING, null, Importance.LOW,
+            "Directory of the local spill buffer. If set, messages that cannot be sent because PubSub+ is "
+            + "unreachable are written to memory-mapped segments in this directory and sent once the "
+            + "connection is restored")
+        .define(SolaceSinkConstants.SOL_SPILL_SEGMENT_BYTES, Type.INT, 64 * 1024 * 1024,
+            ConfigDef.Range.atLeast(64 * 1024), Importance.LOW,
+            "Size in bytes of a spill buffer segment. Must be larger than the largest message")
+        .define(SolaceSinkConstants.SOL_SPILL_MAX_SEGMENTS, Type.INT, 16, ConfigDef.Range.atLeast(1),
+            Importance.LOW,
+            "Maximum number of spill buffer segments per task. Once all segments are full, "
+            + "sending fails with a retriable error")
+        .define(SolaceSinkConstants.SOL_RETRANSMIT_ENABLED, Type.BOOLEAN, false, Importance.LOW,
+            "If true, messages sent to a queue without using transactions are kept until acknowledged "
+            + "by PubSub+ and retransmitted if rejected. Offsets are only committed once all messages "
+            + "have been acknowledged")
+        .define(SolaceSinkConstants.SOL_RETRANSMIT_MAX_RETRIES, Type.INT, 3, ConfigDef.Range.atLeast(0),
+            Importance.LOW,
+            "Number of times a rejected message is retransmitted before its record is reported to the "
+            + "errant record reporter. The task fails if there is no errant record reporter")
+        .define(SolaceSinkConstants.SOL_RETRANSMIT_BACKOFF_MS, Type.LONG, 100L, ConfigDef.Range.atLeast(1),
+            Importance.LOW,
+            "Time to wait before the first retransmission of a rejected message, doubled on every retry")
+        .define(SolaceSinkConstants.SOL_RETRANSMIT_ACK_TIMEOUT_MS, Type.LONG, 30000L,
+            ConfigDef.Range.atLeast(0), Importance.LOW,
+            "Maximum time to wait for acknowledgements when committing offsets. On timeout, offsets are "
+            + "not committed and the records are redelivered")
+        .define(SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS, Type.INT, 0, ConfigDef.Range.atLeast(0),
+            Importance.LOW,
+            "Maximum number of producer flows dedicated to a single queue, each with its own publisher window. "
+            + "Queues beyond this number share one flow. 0 sends to all queues on one shared flow. "
+            + "Only applies if sol.use_transactions_for_queue is false")
+        .define(SolaceSinkConstants.SOL_QUEUE_PRODUCER_FLOW_IDLE_TIMEOUT_MS, Type.LONG, 300000L,
+            ConfigDef.Range.atLeast(1), Importance.LOW,
+            "Time after which a dedicated queue producer flow that was not used is closed")
+        .define(SolaceSinkConstants.SOL_RECONNECT_THROTTLE_ENABLED, Type.BOOLEAN, false, Importance.LOW,
+            "If true, records are held back while the session reconnects and the publish rate is ramped up "
+            + "after it has reconnected or after a DR fail-over")
+        .define(SolaceSinkConstants.SOL_RECONNECT_THROTTLE_INITIAL_RATE, Type.LONG, 100L,
+            ConfigDef.Range.atLeast(1), Importance.LOW,
+            "Messages per second a task may send right after a reconnect, doubled every second")
+        .define(SolaceSinkConstants.SOL_RECONNECT_THROTTLE_RAMP_MS, Type.LONG, 5000L, ConfigDef.Range.atLeast(0),
+            Importance.LOW,
+            "Time after a reconnect during which the publish rate is limited, 0 to not limit it")
+        .define(SolaceSinkConstants.SOL_STANDBY_HOST, Type.STRING, null, Importance.LOW,
+            "Host list of a standby PubSub+ service, e.g. the DR site. If set, each task keeps a second "
+            + "session connected to these hosts and switches to it when its session fails")
+        .define(SolaceSinkConstants.SOL_ENDPOINTS, Type.LIST, "", Importance.LOW,
+            "Names of additional PubSub+ brokers to spread messages over, together with the broker set by "
+            + "sol.host. Properties of an endpoint are set as sol.endpoint.<name>.<property>, e.g. "
+            + "sol.endpoint.<name>.host, and default to the sol.<property> of the connector")
+        .define(SolaceSinkConstants.SOL_ENDPOINTS_ROUTING, Type.STRING, "destination",
+            ConfigDef.ValidString.in("destination", SolEndpointRouter.ROUTING_KEY), Importance.LOW,
+            "Whether messages are assigned to an endpoint by the hash of their destination or of the Kafka "
+            + "record key")
+        .define(SolaceSinkConstants.SOL_ENDPOINTS_VIRTUAL_NODES, Type.INT, 100, ConfigDef.Range.atLeast(1),
+            Importance.LOW, "Number of positions of each endpoint on the consistent hash ring")
+        .define(SolaceSinkConstants.SOL_TASK_INDEX, Type.INT, 0, ConfigDef.Range.atLeast(0), Importance.LOW,
+            "Index of the task, set by the connector")
+        .define(SolaceSinkConstants.SOL_TASK_COUNT, Type.INT, 1, ConfigDef.Range.atLeast(1), Importance.LOW,
+            "Number of tasks of the connector, set by the connector")
+        .define(SolaceSinkConstants.SOL_TASK_ROTATE_HOSTS, Type.BOOLEAN, false, Importance.LOW,
+            "Rotate the sol.host list by the task index, so that tasks connect to different hosts first")
+        .define(SolaceSinkConstants.SOL_TASK_DIVIDE_BUDGETS, Type.BOOLEAN, false, Importance.LOW,
+            "Treat sol.queue.max_producer_flows, sol.reconnect_throttle.initial_rate, sol.spill.max_segments and "
+            + "the global rate limits as connector-wide budgets and divide them between the tasks")
+        .define(SolaceSinkConstants.SOL_RATE_LIMIT_DESTINATION_MSGS_PER_SEC, Type.LONG, 0L,
+            ConfigDef.Range.atLeast(0), Importance.LOW,
+            "Maximum number of messages per second each task sends to a destination, 0 for no limit")
+        .define(SolaceSinkConstants.SOL_RATE_LIMIT_DESTINATION_BYTES_PER_SEC, Type.LONG, 0L,
+            ConfigDef.Range.atLeast(0), Importance.LOW,
+            "Maximum number of bytes per second each task sends to a destination, 0 for no limit")
+        .define(SolaceSinkConstants.SOL_RATE_LIMIT_GLOBAL_MSGS_PER_SEC, Type.LONG, 0L,
+            ConfigDef.Range.atLeast(0), Importance.LOW,
+            "Maximum number of messages per second each task sends to all destinations, 0 for no limit")
+        .define(SolaceSinkConstants.SOL_RATE_LIMIT_GLOBAL_BYTES_PER_SEC, Type.LONG, 0L,
+            ConfigDef.Range.atLeast(0), Importance.LOW,
+            "Maximum number of bytes per second each task sends to all destinations, 0 for no limit")
+        .define(SolaceSinkConstants.SOL_LANES, Type.LIST, "", Importance.LOW,
+            "Names of priority lanes, in the order they are served. A lane is configured by "
+            + "sol.lane.<name>.topics (regular expression of Kafka topics), sol.lane.<name>.weight (records "
+            + "sent per round, default 1) and sol.lane.<name>.priority (Solace message priority 0-255)")
+        .define(SolaceSinkConstants.SOL_LANES_DEFAULT_WEIGHT, Type.INT, 1, ConfigDef.Range.atLeast(1),
+            Importance.LOW, "Weight of the lane of records whose topic matches no configured lane")
+        .define(SolaceSinkConstants.SOL_SCHEMA_CACHE_MAX_ENTRIES, Type.INT,
+            SolSchemaConverterCache.DEFAULT_MAX_ENTRIES, ConfigDef.Range.atLeast(1), Importance.LOW,
+            "Maximum number of record processor converters compiled per Connect schema that are cached, "
+            + "shared by all tasks of a worker")
+        .define(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, Type.LIST, "", Importance.LOW,
+            "Names of the record processing stages of the SolChainRecordProcessor, in the order they apply. "
+            + "A stage is configured by sol.record_processor.stage.<name>.type (filter, headers, payload, "
+            + "compress or route) and the properties of its type")
+        .define(SolaceSinkConstants.SOL_TOPIC_PROCESSORS, Type.LIST, "", Importance.LOW,
+            "Names of record processor mappings of Kafka topics. A mapping is configured by "
+            + "sol.topic_processor.<name>.topics (regular expression of Kafka topics), "
+            + "sol.topic_processor.<name>.class (record processor class) and sol.topic_processor.<name>.<property> "
+            + "overriding sol.<property> when configuring the processor")
+        .define(SolaceSinkConstants.SOL_DESTINATION_ROUTES, Type.LIST, "", Importance.LOW,
+            "Names of PubSub+ destination routes of Kafka topics. A route is configured by "
+            + "sol.destination_route.<name>.topics (regular expression of Kafka topics), "
+            + "sol.destination_route.<name>.queues and sol.destination_route.<name>.solace_topics (comma separated "
+            + "PubSub+ queues and topics), topics matching no route are sent to sol.queue and sol.topics")
         .define(SolaceSinkConstants.SOL_KERBEROS_KRB5_CONFIG, Type.STRING, "", Importance.LOW,
                 "The location of the KRB5 configuration file for the Kerberos Server Detail")
         .define(SolaceSinkConstants.SOL_KERBEROS_LOGIN_CONFIG, Type.STRING, "", Importance.LOW,
@@ -131,6 +131,9 @@ public class SolaceSinkConstants {
   // ProducerFlowProperties.class)
   public static final String SOL_SUPPORTED_ACK_EVENT_MODE = "sol.supported_ack_event_mode";
   public static final String SOL_PUBLISHER_WINDOW_SIZE = "sol.publisher_window_size";
+  public static final String SOL_PUBLISHER_WINDOW_ADAPTIVE = "sol.publisher_window_adaptive";
+  public static final String SOL_PUBLISHER_WINDOW_MIN = "sol.publisher_window_min";
+  public static final String SOL_PUBLISHER_WINDOW_MAX = "sol.publisher_window_max";
 
   // Low importance Kafka key
   // Allowable values for the test sample include: NONE, DESTINATION,
@@ -147,6 +150,91 @@ public class SolaceSinkConstants {
   // Allow SolRecordProcessor to control the creation of destinations rather than SolaceSinkSender
   // Requires a destination property in the user SDTMap with a key "dynamicDestination"
   public static final String SOL_DYNAMIC_DESTINATION = "sol.dynamic_destination";
+  // Topic template of the SolTemplateRoutingRecordProcessor, e.g. orders/{key}/{header:region}
+  public static final String SOL_DYNAMIC_DESTINATION_TOPIC_TEMPLATE = "sol.dynamic_destination.topic_template";
+
+  // Medium importance, keyword rules of the SolKeywordRoutingRecordProcessor, in order of priority
+  public static final String SOL_KEYWORD_ROUTES = "sol.keyword_routes";
+  // Prefix of the keyword rule properties, e.g. sol.keyword_route.<name>.keywords
+  public static final String SOL_KEYWORD_ROUTE_PREFIX = "sol.keyword_route.";
+  // Topic template of records matching no keyword rule
+  public static final String SOL_KEYWORD_ROUTES_DEFAULT_TOPIC = "sol.keyword_routes.default_topic";
+  public static final String SOL_KEYWORD_ROUTES_IGNORE_CASE = "sol.keyword_routes.ignore_case";
+
+  // Low importance, connect the session in the background so that SolaceSinkTask.start() returns immediately.
+  // Partitions are paused until the session is connected
+  public static final String SOL_CONNECT_ASYNC = "sol.connect_async";
+
+  // Low importance, maximum bytes of messages held in-flight by all tasks of a worker JVM, 0 means unlimited
+  public static final String SOL_INFLIGHT_MAX_BYTES = "sol.inflight.max_bytes";
+
+  // Low importance, local spill buffer for messages that cannot be sent while PubSub+ is unreachable.
+  // Spilling is disabled unless a directory is set
+  public static final String SOL_SPILL_DIRECTORY = "sol.spill.directory";
+  public static final String SOL_SPILL_SEGMENT_BYTES = "sol.spill.segment_bytes";
+  public static final String SOL_SPILL_MAX_SEGMENTS = "sol.spill.max_segments";
+
+  // Low importance, retransmission of messages sent to queues outside of a transaction
+  public static final String SOL_RETRANSMIT_ENABLED = "sol.retransmit.enabled";
+  public static final String SOL_RETRANSMIT_MAX_RETRIES = "sol.retransmit.max_retries";
+  public static final String SOL_RETRANSMIT_BACKOFF_MS = "sol.retransmit.backoff_ms";
+  public static final String SOL_RETRANSMIT_ACK_TIMEOUT_MS = "sol.retransmit.ack_timeout_ms";
+
+  // Low importance, dedicated producer flows per queue when not using transactions
+  public static final String SOL_QUEUE_MAX_PRODUCER_FLOWS = "sol.queue.max_producer_flows";
+  public static final String SOL_QUEUE_PRODUCER_FLOW_IDLE_TIMEOUT_MS = "sol.queue.producer_flow_idle_timeout_ms";
+
+  // Low importance, throttling of publishing while the session reconnects and after it reconnected
+  public static final String SOL_RECONNECT_THROTTLE_ENABLED = "sol.reconnect_throttle.enabled";
+  public static final String SOL_RECONNECT_THROTTLE_INITIAL_RATE = "sol.reconnect_throttle.initial_rate";
+  public static final String SOL_RECONNECT_THROTTLE_RAMP_MS = "sol.reconnect_throttle.ramp_ms";
+
+  // Low importance, hot-standby session to alternate hosts, disabled unless set
+  public static final String SOL_STANDBY_HOST = "sol.standby.host";
+
+  // Low importance, additional broker endpoints messages are spread over by consistent hashing
+  public static final String SOL_ENDPOINTS = "sol.endpoints";
+  public static final String SOL_ENDPOINTS_ROUTING = "sol.endpoints.routing";
+  public static final String SOL_ENDPOINTS_VIRTUAL_NODES = "sol.endpoints.virtual_nodes";
+  // Prefix of the per-endpoint overrides, e.g. sol.endpoint.<name>.host
+  public static final String SOL_ENDPOINT_PREFIX = "sol.endpoint.";
+
+  // Low importance, set for each task by the connector
+  public static final String SOL_TASK_INDEX = "sol.task.index";
+  public static final String SOL_TASK_COUNT = "sol.task.count";
+  // Low importance, how task configurations are derived from the connector configuration
+  public static final String SOL_TASK_ROTATE_HOSTS = "sol.task.rotate_hosts";
+  public static final String SOL_TASK_DIVIDE_BUDGETS = "sol.task.divide_budgets";
+
+  // Low importance, publish rate limits in messages and bytes per second, 0 for no limit
+  public static final String SOL_RATE_LIMIT_DESTINATION_MSGS_PER_SEC = "sol.rate_limit.destination.msgs_per_sec";
+  public static final String SOL_RATE_LIMIT_DESTINATION_BYTES_PER_SEC = "sol.rate_limit.destination.bytes_per_sec";
+  public static final String SOL_RATE_LIMIT_GLOBAL_MSGS_PER_SEC = "sol.rate_limit.global.msgs_per_sec";
+  public static final String SOL_RATE_LIMIT_GLOBAL_BYTES_PER_SEC = "sol.rate_limit.global.bytes_per_sec";
+
+  // Low importance, priority lanes scheduling records of Kafka topics by weighted round-robin
+  public static final String SOL_LANES = "sol.lanes";
+  public static final String SOL_LANES_DEFAULT_WEIGHT = "sol.lanes.default_weight";
+  // Prefix of the lane properties, e.g. sol.lane.<name>.topics
+  public static final String SOL_LANE_PREFIX = "sol.lane.";
+
+  // Low importance, number of converters compiled per record schema that are cached by all tasks of a worker
+  public static final String SOL_SCHEMA_CACHE_MAX_ENTRIES = "sol.schema_cache.max_entries";
+
+  // Low importance, stages of the SolChainRecordProcessor, fused into a single pass over each record
+  public static final String SOL_RECORD_PROCESSOR_CHAIN = "sol.record_processor.chain";
+  // Prefix of the stage properties, e.g. sol.record_processor.stage.<name>.type
+  public static final String SOL_RECORD_PROCESSOR_STAGE_PREFIX = "sol.record_processor.stage.";
+
+  // Low importance, record processors of Kafka topics, overriding sol.record_processor_class
+  public static final String SOL_TOPIC_PROCESSORS = "sol.topic_processors";
+  // Prefix of the topic processor properties, e.g. sol.topic_processor.<name>.topics
+  public static final String SOL_TOPIC_PROCESSOR_PREFIX = "sol.topic_processor.";
+
+  // Low importance, PubSub+ queues and topics of Kafka topics, overriding sol.queue and sol.topics
+  public static final String SOL_DESTINATION_ROUTES = "sol.destination_routes";
+  // Prefix of the destination route properties, e.g. sol.destination_route.<name>.topics
+  public static final String SOL_DESTINATION_ROUTE_PREFIX = "sol.destination_route.";
 
   //Low importance Kerberos details
   public static final String SOL_KERBEROS_LOGIN_CONFIG = "sol.kerberos.login.conf";
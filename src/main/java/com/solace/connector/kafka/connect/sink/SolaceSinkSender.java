@@ -20,13 +20,18 @@
 package com.solace.connector.kafka.connect.sink;
 
 import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.ClosedFacilityException;
 import com.solacesystems.jcsmp.Destination;
 import com.solacesystems.jcsmp.JCSMPException;
 import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.JCSMPProperties;
+import com.solacesystems.jcsmp.JCSMPTransportException;
+import com.solacesystems.jcsmp.MapMessage;
 import com.solacesystems.jcsmp.Queue;
 import com.solacesystems.jcsmp.SDTException;
 import com.solacesystems.jcsmp.SDTMap;
-import com.solacesystems.jcsmp.Topic;
+import com.solacesystems.jcsmp.StaleSessionException;
+import com.solacesystems.jcsmp.StreamMessage;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.connect.errors.ConnectException;
@@ -35,24 +40,74 @@ import org.apache.kafka.connect.sink.SinkRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class SolaceSinkSender {
   private static final Logger log = LoggerFactory.getLogger(SolaceSinkSender.class);
 
+  /**
+   * Thrown when a message cannot be spilled because the spill buffer is full.
+   */
+  private static final class SpillBufferFullException extends RetriableException {
+    private static final long serialVersionUID = 1L;
+
+    SpillBufferFullException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+
   private final SolaceSinkConnectorConfig sconfig;
-  private final SolSessionHandler sessionHandler;
-  final SolProducerHandler producerHandler;
-  private final List<Topic> topics = new ArrayList<>();
-  private Queue solQueue = null;
-  private final SolRecordProcessorIF processor;
+  private SolSessionHandler sessionHandler;
+  SolProducerHandler producerHandler;
+  // Queues first, then topics
+  private final Destination[] destinations;
+  private final SolDestinationRouter router;
+  final SolRecordProcessorIF processor;
+  private final SolProcessorDispatcher dispatcher;
   private final String kafkaKey;
   private final SolaceSinkTask sinkTask;
   private final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+  // First offset of each partition with messages in the open transaction
+  private final Map<TopicPartition, Long> uncommittedOffsets = new HashMap<>();
+  private final SolInflightMemoryBudget memoryBudget;
+  // Released from the callback thread once guaranteed messages are acknowledged
+  private final Map<TopicPartition, Long> heldBytes = new ConcurrentHashMap<>();
+  // Holds of the messages of the open transaction
+  private final List<SolInflightMemoryBudget.Hold> transactionHolds = new ArrayList<>();
+  private final Set<TopicPartition> pausedForMemory = new HashSet<>();
+  private final SolSpillBuffer spillBuffer;
+  // Offset of the next record of each partition not yet sent or spilled in the current batch
+  private final Map<TopicPartition, Long> batchProgress = new HashMap<>();
+  // Progress of the batch that failed because the spill buffer was full, Kafka Connect redelivers the whole
+  // batch and the records and destinations already sent or spilled are skipped
+  private final Map<TopicPartition, Long> spillResumeOffsets = new HashMap<>();
+  private TopicPartition spillResumePartition;
+  private int spillResumeDestinations;
+  private final SolRetransmitBuffer retransmitBuffer;
+  private long nextReconnectMillis;
+  private SolSessionHandler standbySessionHandler;
+  private SolProducerHandler standbyProducerHandler;
+  private long nextStandbyConnectMillis;
+  private SolFailoverStats failoverStats;
+  private ObjectName failoverStatsMetricName;
+  private final SolEndpointRouter endpointRouter;
+  private final SolRateLimiter rateLimiter;
+  private final SolLaneScheduler laneScheduler;
+  private BytesXMLMessage[] batchMessages = new BytesXMLMessage[0];
 
   /**
    * Class that sends Solace Messages from Kafka Records.
@@ -64,19 +119,171 @@ public class SolaceSinkSender {
   public SolaceSinkSender(final SolaceSinkConnectorConfig sconfig,
                           final SolSessionHandler sessionHandler,
                           final SolaceSinkTask sinkTask) throws JCSMPException {
+    this(sconfig, sessionHandler, sconfig.getString(SolaceSinkConstants.SOL_STANDBY_HOST) != null
+        ? new SolSessionHandler(sconfig, sconfig.getString(SolaceSinkConstants.SOL_STANDBY_HOST), "-standby")
+        : null, sinkTask);
+  }
+
+  /**
+   * Visible for testing.
+   * @param standbySessionHandler handler of the standby session, or null if there is no standby
+   */
+  SolaceSinkSender(final SolaceSinkConnectorConfig sconfig,
+                   final SolSessionHandler sessionHandler,
+                   final SolSessionHandler standbySessionHandler,
+                   final SolaceSinkTask sinkTask) throws JCSMPException {
     this.sconfig = sconfig;
     this.sessionHandler = sessionHandler;
     this.sinkTask = sinkTask;
     this.kafkaKey = sconfig.getString(SolaceSinkConstants.SOL_KAFKA_MESSAGE_KEY);
-    this.producerHandler = new SolProducerHandler(sconfig, sessionHandler, this::txAutoFlushHandler);
-    this.processor = sconfig.getConfiguredInstance(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolRecordProcessorIF.class);
+    // Messages awaiting acknowledgement are only sent again on the standby session if they are tracked
+    this.retransmitBuffer = sconfig.getBoolean(SolaceSinkConstants.SOL_RETRANSMIT_ENABLED)
+        || standbySessionHandler != null
+        ? new SolRetransmitBuffer(sconfig.getInt(SolaceSinkConstants.SOL_RETRANSMIT_MAX_RETRIES),
+            sconfig.getLong(SolaceSinkConstants.SOL_RETRANSMIT_BACKOFF_MS))
+        : null;
+    this.producerHandler = new SolProducerHandler(sconfig, sessionHandler, this::txAutoFlushHandler,
+        retransmitBuffer);
+    // Release the producers, standby session, spill buffer and metrics already set up if a later step fails
+    try {
+      SolSchemaConverterCache.shared().setMaxEntries(
+          sconfig.getInt(SolaceSinkConstants.SOL_SCHEMA_CACHE_MAX_ENTRIES));
+      this.processor = sconfig.getConfiguredInstance(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolRecordProcessorIF.class);
+      this.dispatcher = SolProcessorDispatcher.create(sconfig, processor);
+
+      List<Destination> defaultDestinations = new ArrayList<>();
+      if (sconfig.getString(SolaceSinkConstants.SOl_QUEUE) != null) {
+        defaultDestinations.add(JCSMPFactory.onlyInstance().createQueue(sconfig.getString(SolaceSinkConstants.SOl_QUEUE)));
+      }
+      for (String topic : sconfig.getTopics()) {
+        defaultDestinations.add(JCSMPFactory.onlyInstance().createTopic(topic.trim()));
+      }
+      this.destinations = defaultDestinations.toArray(new Destination[0]);
+      this.router = SolDestinationRouter.create(sconfig, this.destinations);
+
+      long inflightMaxBytes = sconfig.getLong(SolaceSinkConstants.SOL_INFLIGHT_MAX_BYTES);
+      this.memoryBudget = inflightMaxBytes > 0 ? SolInflightMemoryBudget.shared(inflightMaxBytes) : null;
+
+      String spillDirectory = sconfig.getString(SolaceSinkConstants.SOL_SPILL_DIRECTORY);
+      if (spillDirectory != null) {
+        try {
+          this.spillBuffer = SolSpillBuffer.open(Paths.get(spillDirectory),
+              sconfig.getInt(SolaceSinkConstants.SOL_SPILL_SEGMENT_BYTES),
+              sconfig.getInt(SolaceSinkConstants.SOL_SPILL_MAX_SEGMENTS));
+        } catch (IOException e) {
+          throw new ConnectException("Failed to open spill buffer in directory " + spillDirectory, e);
+        }
+      } else {
+        this.spillBuffer = null;
+      }
+
+      if (standbySessionHandler != null) {
+        this.standbySessionHandler = standbySessionHandler;
+        standbySessionHandler.configureSession();
+        failoverStats = new SolFailoverStats(sessionHandler.getHost());
+        failoverStatsMetricName = SolMetrics.register("Failover", getTaskMetricName(), failoverStats);
+        prepareStandby();
+      }
 
-    for (String topic : sconfig.getTopics()) {
-      this.topics.add(JCSMPFactory.onlyInstance().createTopic(topic.trim()));
+      this.rateLimiter = SolRateLimiter.create(sconfig);
+      this.laneScheduler = SolLaneScheduler.create(sconfig);
+      this.endpointRouter = sconfig.getList(SolaceSinkConstants.SOL_ENDPOINTS).isEmpty() ? null
+          : new SolEndpointRouter(sconfig, this::txAutoFlushHandler, retransmitBuffer);
+    } catch (JCSMPException | RuntimeException e) {
+      shutdown();
+      throw e;
     }
+  }
 
-    if (sconfig.getString(SolaceSinkConstants.SOl_QUEUE) != null) {
-      solQueue = JCSMPFactory.onlyInstance().createQueue(sconfig.getString(SolaceSinkConstants.SOl_QUEUE));
+  /**
+   * Name of the metrics MBeans of the task. The client name is unique per task if configured, otherwise the
+   * connector name and task index are used.
+   */
+  private String getTaskMetricName() {
+    Object clientName = sessionHandler.getSession().getProperty(JCSMPProperties.CLIENT_NAME);
+    if (clientName != null) {
+      return clientName.toString();
+    }
+    Object connectorName = sconfig.originals().get("name");
+    return (connectorName != null ? connectorName + "-" : "task-")
+        + sconfig.getInt(SolaceSinkConstants.SOL_TASK_INDEX);
+  }
+
+  /**
+   * Order records by the weighted round-robin of their priority lanes.
+   * @param records records of a batch
+   * @return the records in the order they should be sent
+   */
+  public Collection<SinkRecord> schedule(Collection<SinkRecord> records) {
+    return laneScheduler != null ? laneScheduler.schedule(records) : records;
+  }
+
+  /**
+   * Send Solace Messages from a batch of Kafka Records, one at a time. The records are converted in one call
+   * if the record processor supports it.
+   * @param records Kafka Records
+   */
+  public void sendRecords(Collection<SinkRecord> records) {
+    batchProgress.clear();
+    if (dispatcher == null) {
+      sendRecords(processor, records);
+    } else {
+      dispatchRecords(records);
+    }
+    // The redelivered batch went through
+    spillResumeOffsets.clear();
+  }
+
+  private void dispatchRecords(Collection<SinkRecord> records) {
+    // Convert runs of consecutive records of topics sharing a processor together
+    List<SinkRecord> run = new ArrayList<>();
+    SolRecordProcessorIF runProcessor = null;
+    for (SinkRecord record : records) {
+      SolRecordProcessorIF recordProcessor = dispatcher.processorFor(record.topic());
+      if (recordProcessor != runProcessor && !run.isEmpty()) {
+        sendRecords(runProcessor, run);
+        run = new ArrayList<>();
+      }
+      runProcessor = recordProcessor;
+      run.add(record);
+    }
+    if (!run.isEmpty()) {
+      sendRecords(runProcessor, run);
+    }
+  }
+
+  private void sendRecords(SolRecordProcessorIF processor, Collection<SinkRecord> records) {
+    if (!(processor instanceof SolBatchRecordProcessorIF) || records.isEmpty()) {
+      for (SinkRecord record : records) {
+        sendRecord(processor, record);
+      }
+      return;
+    }
+    if (batchMessages.length < records.size()) {
+      batchMessages = new BytesXMLMessage[records.size()];
+    }
+    try {
+      ((SolBatchRecordProcessorIF) processor).processRecords(kafkaKey, records, batchMessages);
+    } catch (Exception e) {
+      log.debug("================ Encountered exception in batch record processing, processing records one by one",
+          e);
+      Arrays.fill(batchMessages, 0, records.size(), null);
+      for (SinkRecord record : records) {
+        sendRecord(processor, record);
+      }
+      return;
+    }
+    int i = 0;
+    for (SinkRecord record : records) {
+      BytesXMLMessage message = batchMessages[i];
+      // Do not hold on to the messages until the next batch
+      batchMessages[i++] = null;
+      if (message == null) {
+        log.debug("================ Record processor discarded record of topic {}, partition {} and offset {}",
+            record.topic(), record.kafkaPartition(), record.kafkaOffset());
+        continue;
+      }
+      sendMessage(record, message);
     }
   }
 
@@ -85,13 +292,17 @@ public class SolaceSinkSender {
    * @param record Kafka Records
    */
   public void sendRecord(SinkRecord record) {
+    batchProgress.clear();
+    sendRecord(dispatcher != null ? dispatcher.processorFor(record.topic()) : processor, record);
+    spillResumeOffsets.clear();
+  }
+
+  private void sendRecord(SolRecordProcessorIF processor, SinkRecord record) {
+    log.trace("Putting record to topic {}, partition {} and offset {}", record.topic(), record.kafkaPartition(),
+        record.kafkaOffset());
     BytesXMLMessage message;
     try {
       message = processor.processRecord(kafkaKey, record);
-      offsets.put(new TopicPartition(record.topic(), record.kafkaPartition()),
-          new OffsetAndMetadata(record.kafkaOffset()));
-      log.trace("================ Processed record details, topic: {}, Partition: {}, Offset: {}", record.topic(),
-          record.kafkaPartition(), record.kafkaOffset());
     } catch (Exception e) {
       if (sconfig.getBoolean(SolaceSinkConstants.SOL_RECORD_PROCESSOR_IGNORE_ERROR)) {
         log.warn("================ Encountered exception in record processing for record of topic {}, partition {} " +
@@ -101,64 +312,606 @@ public class SolaceSinkSender {
         throw new ConnectException("Encountered exception in record processing", e);
       }
     }
+    if (message == null) {
+      log.debug("================ Record processor discarded record of topic {}, partition {} and offset {}",
+          record.topic(), record.kafkaPartition(), record.kafkaOffset());
+      return;
+    }
+    sendMessage(record, message);
+  }
 
-    if (message.getAttachmentContentLength() == 0 || message.getAttachmentByteBuffer() == null) {
+  private void sendMessage(SinkRecord record, BytesXMLMessage message) {
+    TopicPartition tp = new TopicPartition(record.topic(), record.kafkaPartition());
+    offsets.put(tp, new OffsetAndMetadata(record.kafkaOffset()));
+    log.trace("================ Processed record details, topic: {}, Partition: {}, Offset: {}", record.topic(),
+        record.kafkaPartition(), record.kafkaOffset());
+
+    if (!hasData(message)) {
       log.info("================ Received record that had no data....discarded");
       return;
     }
 
+    int skipDestinations = 0;
+    Long resumeOffset = spillResumeOffsets.get(tp);
+    if (resumeOffset != null) {
+      if (record.kafkaOffset() < resumeOffset) {
+        log.debug("================ Skipping record of topic {}, partition {} and offset {} already sent before "
+            + "the spill buffer was full", record.topic(), record.kafkaPartition(), record.kafkaOffset());
+        return;
+      }
+      if (record.kafkaOffset() == resumeOffset && tp.equals(spillResumePartition)) {
+        skipDestinations = spillResumeDestinations;
+      }
+    }
+
     mayEnrichUserPropertiesWithKafkaRecordHeaders(record, message);
+    if (laneScheduler != null) {
+      int priority = laneScheduler.laneFor(record.topic()).priority;
+      if (priority >= 0) {
+        message.setPriority(priority);
+      }
+    }
 
-    if (sconfig.getBoolean(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION)) {
-      // Process use Dynamic destination from SolRecordProcessor
-      SDTMap userMap = message.getProperties();
-      Destination dest = null;
-      try {
-        dest = userMap.getDestination("dynamicDestination");
-      } catch (SDTException e) {
-        if (sconfig.getBoolean(SolaceSinkConstants.SOL_RECORD_PROCESSOR_IGNORE_ERROR)) {
-          log.warn("================ Received exception retrieving Dynamic Destination....discarded", e);
-          return;
+    final SolInflightMemoryBudget.Hold hold = reserveMemory(tp, message);
+    boolean transacted = false;
+    try {
+      if (dispatcher != null ? dispatcher.isDynamicDestination(record.topic())
+          : sconfig.getBoolean(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION)) {
+        // Process use Dynamic destination from SolRecordProcessor
+        SDTMap userMap = message.getProperties();
+        Destination dest = null;
+        try {
+          dest = userMap.getDestination("dynamicDestination");
+        } catch (SDTException e) {
+          if (sconfig.getBoolean(SolaceSinkConstants.SOL_RECORD_PROCESSOR_IGNORE_ERROR)) {
+            log.warn("================ Received exception retrieving Dynamic Destination....discarded", e);
+            return;
+          } else {
+            throw new ConnectException("Received exception retrieving Dynamic Destination", e);
+          }
+        }
+        transacted = send(record, tp, message, dest, "topic", hold);
+      } else {
+        // Process when Dynamic destination is not set
+        Destination[] recordDestinations = router != null ? router.destinationsFor(record.topic()) : destinations;
+        for (int i = skipDestinations; i < recordDestinations.length; i++) {
+          Destination dest = recordDestinations[i];
+          try {
+            if (dest instanceof Queue) {
+              transacted |= send(record, tp, message, dest, "queue", hold);
+            } else if (message.getDestination() == null) {
+              transacted |= send(record, tp, message, dest, "topic", hold);
+            }
+          } catch (SpillBufferFullException e) {
+            skipDestinations = i;
+            throw e;
+          }
+        }
+      }
+      batchProgress.put(tp, record.kafkaOffset() + 1);
+    } catch (SpillBufferFullException e) {
+      // Records sent or spilled before this one are not sent again when the batch is redelivered
+      spillResumeOffsets.putAll(batchProgress);
+      spillResumeOffsets.put(tp, record.kafkaOffset());
+      spillResumePartition = tp;
+      spillResumeDestinations = skipDestinations;
+      throw e;
+    } finally {
+      if (hold != null) {
+        if (transacted) {
+          // The transaction takes over the reference of the sender until it is committed or rolled back
+          transactionHolds.add(hold);
         } else {
-          throw new ConnectException("Received exception retrieving Dynamic Destination", e);
+          hold.release();
+        }
+      }
+    }
+  }
+
+  /**
+   * @param hold hold on the in-flight memory of the message, or null; a guaranteed message sent outside of a
+   *             transaction keeps it until it is acknowledged
+   */
+  private boolean send(SinkRecord record, TopicPartition tp, BytesXMLMessage message, Destination dest,
+                       String destType, SolInflightMemoryBudget.Hold hold) {
+    SolProducerHandler target = producerFor(record, dest);
+    // Spilling and the standby session only apply to the default endpoint
+    boolean defaultEndpoint = target == producerHandler;
+    if (defaultEndpoint && spillBuffer != null && dest != null && !spillBuffer.isEmpty()) {
+      // Messages must not overtake the ones already spilled, they are sent once the spill buffer is drained
+      spill(message, dest, destType, null);
+      return false;
+    }
+    boolean transacted = target.isTransacted(dest);
+    SolRetransmitBuffer.Entry tracked = null;
+    boolean awaitsAck = false;
+    boolean sent = false;
+    try {
+      if (transacted) {
+        uncommittedOffsets.putIfAbsent(tp, record.kafkaOffset());
+      } else if (dest instanceof Queue) {
+        if (retransmitBuffer != null) {
+          tracked = retransmitBuffer.track(record, message, dest);
+        }
+        if (hold != null) {
+          // Guaranteed messages stay in the publisher window until they are acknowledged
+          hold.retain();
+          awaitsAck = true;
+          if (tracked != null) {
+            tracked.setHold(hold);
+          } else {
+            message.setCorrelationKey(hold);
+          }
         }
       }
+      target.send(message, dest, laneScheduler != null ? laneScheduler.laneFor(record.topic()).flowName() : null);
+      sent = true;
+      if (rateLimiter != null) {
+        rateLimiter.sent(tp, dest.getName(), (long) message.getAttachmentContentLength()
+            + message.getContentLength(), System.nanoTime());
+      }
+    } catch (IllegalArgumentException e) {
+      throw new ConnectException(String.format("Received exception while sending message to %s %s",
+              destType, dest != null ? dest.getName() : null), e);
+    } catch (JCSMPException e) {
+      if (tracked != null) {
+        // Not sent, so it must not be retransmitted along with the messages awaiting acknowledgement
+        retransmitBuffer.untrack(tracked);
+        tracked.setHold(null);
+        tracked = null;
+      }
+      if (defaultEndpoint && isConnectionFailure(e) && switchToStandby()) {
+        return send(record, tp, message, dest, destType, hold);
+      }
+      if (defaultEndpoint && spillBuffer != null && isConnectionFailure(e)) {
+        log.warn("================ Failed to send message to {} {}, spilling it to the local buffer", destType,
+            dest.getName(), e);
+        spill(message, dest, destType, e);
+        return false;
+      }
+      throw new RetriableException(String.format("Received exception while sending message to %s %s",
+              destType, dest != null ? dest.getName() : null), e);
+    } finally {
+      if (!sent) {
+        if (tracked != null) {
+          retransmitBuffer.untrack(tracked);
+          tracked.setHold(null);
+        }
+        if (awaitsAck) {
+          hold.release();
+        }
+      }
+    }
+    return transacted;
+  }
+
+  /**
+   * @return the producer of the endpoint a message is routed to
+   */
+  private SolProducerHandler producerFor(SinkRecord record, Destination dest) {
+    if (endpointRouter == null) {
+      return producerHandler;
+    }
+    SolProducerHandler endpointProducer = endpointRouter.producerFor(record, dest);
+    return endpointProducer != null ? endpointProducer : producerHandler;
+  }
+
+  /**
+   * Retransmit messages rejected by PubSub+ once their backoff has expired. Records of messages that have
+   * exhausted their retries are reported to the task.
+   */
+  public synchronized void retransmitRejected() {
+    if (retransmitBuffer == null) {
+      return;
+    }
+    for (SolRetransmitBuffer.Entry entry : retransmitBuffer.pollDue(System.currentTimeMillis())) {
+      if (retransmitBuffer.isExhausted(entry)) {
+        log.error("================ Message to {} was rejected {} times, giving up", entry.getDestination().getName(),
+            entry.getRetries(), entry.getCause());
+        sinkTask.reportFailedRecord(entry.getRecord(), entry.getCause());
+        entry.release();
+        continue;
+      }
+      log.debug("================ Retransmitting message to {}, retry {}", entry.getDestination().getName(),
+          entry.getRetries());
+      retransmitBuffer.retransmitting(entry);
       try {
-        producerHandler.send(message, dest);
-      } catch (IllegalArgumentException e) {
-        throw new ConnectException(String.format("Received exception while sending message to topic %s",
-                dest != null ? dest.getName() : null), e);
+        producerFor(entry.getRecord(), entry.getDestination()).send(entry.getMessage(), entry.getDestination());
       } catch (JCSMPException e) {
-        throw new RetriableException(String.format("Received exception while sending message to topic %s",
-                dest != null ? dest.getName() : null), e);
+        retransmitBuffer.untrack(entry);
+        // Connection failures do not count against the retries of the message
+        retransmitBuffer.retryLater(entry, e);
       }
-    } else {
-      // Process when Dynamic destination is not set
-      if (solQueue != null) {
-        try {
-          producerHandler.send(message, solQueue);
-        } catch (IllegalArgumentException e) {
-          throw new ConnectException(String.format("Received exception while sending message to queue %s",
-                  solQueue.getName()), e);
-        } catch (JCSMPException e) {
-          throw new RetriableException(String.format("Received exception while sending message to queue %s",
-                  solQueue.getName()), e);
-        }
+    }
+  }
+
+  /**
+   * Wait until all messages tracked for retransmission have been acknowledged by PubSub+, retransmitting
+   * rejected messages in the meantime.
+   * @throws RetriableException if not all messages were acknowledged within the configured timeout
+   */
+  public synchronized void awaitAcknowledged() {
+    if (retransmitBuffer == null) {
+      return;
+    }
+    long deadline = System.currentTimeMillis() + sconfig.getLong(SolaceSinkConstants.SOL_RETRANSMIT_ACK_TIMEOUT_MS);
+    while (true) {
+      retransmitRejected();
+      if (retransmitBuffer.isEmpty()) {
+        return;
       }
-      if (topics.size() != 0 && message.getDestination() == null) {
-        for (Topic topic : topics) {
-          try {
-            producerHandler.send(message, topic);
-          } catch (IllegalArgumentException e) {
-            throw new ConnectException(String.format("Received exception while sending message to topic %s",
-                    topic.getName()), e);
-          } catch (JCSMPException e) {
-            throw new RetriableException(String.format("Received exception while sending message to topic %s",
-                    topic.getName()), e);
-          }
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        throw new RetriableException(String.format("Timed out waiting for PubSub+ to acknowledge %d messages",
+            retransmitBuffer.size()));
+      }
+      try {
+        retransmitBuffer.await(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ConnectException("Interrupted while waiting for acknowledgements from PubSub+", e);
+      }
+    }
+  }
+
+  private static boolean isConnectionFailure(JCSMPException e) {
+    return e instanceof JCSMPTransportException || e instanceof ClosedFacilityException
+        || e instanceof StaleSessionException;
+  }
+
+  private void spill(BytesXMLMessage message, Destination dest, String destType, JCSMPException cause) {
+    String error = String.format("Received exception while sending message to %s %s", destType, dest.getName());
+    try {
+      if (!spillBuffer.append(SolSpillCodec.encode(message, dest))) {
+        throw new SpillBufferFullException(error + ", spill buffer is full", cause);
+      }
+    } catch (IOException e) {
+      throw new ConnectException(error + ", failed to write to spill buffer", e);
+    }
+  }
+
+  /**
+   * Send the messages held in the spill buffer in the order they were spilled. Draining stops at the first
+   * connection failure and is resumed by the next call. Messages are only removed from the spill buffer once
+   * they have been sent and, if transacted, committed.
+   */
+  public synchronized void drainSpillBuffer() {
+    if (spillBuffer == null || spillBuffer.isEmpty() || !ensureConnected()) {
+      return;
+    }
+    int batchSize = sconfig.getInt(SolaceSinkConstants.SOL_AUTOFLUSH_SIZE);
+    int drained = 0;
+    boolean complete = false;
+    try {
+      int batched = 0;
+      boolean transacted = false;
+      byte[] payload;
+      while ((payload = spillBuffer.next()) != null) {
+        SolSpillCodec.Entry entry = SolSpillCodec.decode(payload);
+        transacted |= producerHandler.isTransacted(entry.destination);
+        producerHandler.send(entry.message, entry.destination);
+        if (++batched >= batchSize) {
+          completeDrainBatch(transacted);
+          drained += batched;
+          batched = 0;
+          transacted = false;
         }
       }
+      completeDrainBatch(transacted);
+      drained += batched;
+      complete = true;
+      log.info("================ Drained {} messages from the spill buffer", drained);
+    } catch (JCSMPException e) {
+      if (!isConnectionFailure(e)) {
+        throw new ConnectException("Received exception while sending message from spill buffer", e);
+      }
+      log.warn("================ Failed to drain spill buffer after {} messages, will retry", drained, e);
+    } catch (IOException e) {
+      throw new ConnectException("Failed to read message from spill buffer", e);
+    } finally {
+      if (!complete) {
+        spillBuffer.rewind();
+      }
+    }
+  }
+
+  private void completeDrainBatch(boolean transacted) throws JCSMPException {
+    if (transacted) {
+      commit();
+    }
+    spillBuffer.commitRead();
+  }
+
+  /**
+   * Re-create the session if it was closed because the reconnect retries were exhausted.
+   * @return true if the session is usable
+   */
+  private boolean ensureConnected() {
+    if (!sessionHandler.isClosed()) {
+      return true;
+    }
+    long now = System.currentTimeMillis();
+    if (now < nextReconnectMillis) {
+      return false;
+    }
+    nextReconnectMillis = now + sconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_reconnectRetryWaitInMillis);
+    log.info("================ JCSMPSession is closed, reconnecting to drain spill buffer");
+    try {
+      producerHandler.close();
+      sessionHandler.shutdown();
+      sessionHandler.connectSession();
+      producerHandler = new SolProducerHandler(sconfig, sessionHandler, this::txAutoFlushHandler,
+          retransmitBuffer);
+    } catch (JCSMPException e) {
+      log.warn("================ Failed to reconnect JCSMPSession", e);
+      return false;
+    }
+    replayInDoubt();
+    return true;
+  }
+
+  /**
+   * Send the messages whose delivery is in doubt because the session they were sent on was replaced:
+   * messages awaiting acknowledgement are retransmitted and the records of the lost transaction are
+   * redelivered by Kafka Connect.
+   */
+  private void replayInDoubt() {
+    if (retransmitBuffer != null) {
+      retransmitBuffer.retransmitInFlight();
+    }
+    if (!uncommittedOffsets.isEmpty()) {
+      log.info("================ Replaying records of uncommitted transaction from offsets {}", uncommittedOffsets);
+      sinkTask.replayFrom(new HashMap<>(uncommittedOffsets));
+      uncommittedOffsets.clear();
+      // Records of the lost transaction must be sent again
+      spillResumeOffsets.clear();
+    }
+    releaseTransactionMemory();
+    if (retransmitBuffer == null) {
+      // Acknowledgements of the messages sent on the replaced session will never be received
+      releaseAllMemory();
+    }
+  }
+
+  /**
+   * Switch to the standby session if the current session is reconnecting or closed, and connect a new
+   * standby session if needed.
+   */
+  public synchronized void failoverIfUnavailable() {
+    if (standbySessionHandler == null) {
+      return;
+    }
+    if (sessionHandler.isClosed() || sessionHandler.isReconnecting()) {
+      switchToStandby();
+    }
+    prepareStandby();
+  }
+
+  /**
+   * Connect the standby session and provision its producers, so that it is ready to take over.
+   */
+  private void prepareStandby() {
+    if (standbyProducerHandler != null && !standbySessionHandler.isClosed()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (now < nextStandbyConnectMillis || standbySessionHandler.isReconnecting()) {
+      return;
+    }
+    nextStandbyConnectMillis = now + sconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_reconnectRetryWaitInMillis);
+    try {
+      if (standbyProducerHandler != null) {
+        standbyProducerHandler.close();
+        standbyProducerHandler = null;
+      }
+      if (standbySessionHandler.isClosed()) {
+        standbySessionHandler.shutdown();
+        standbySessionHandler.connectSession();
+      }
+      standbyProducerHandler = new SolProducerHandler(sconfig, standbySessionHandler, this::txAutoFlushHandler,
+          retransmitBuffer);
+      failoverStats.setStandbyReady(true);
+      log.info("================ Standby JCSMPSession connected to {}", standbySessionHandler.getHost());
+    } catch (JCSMPException e) {
+      log.warn("================ Failed to connect standby JCSMPSession to {}", standbySessionHandler.getHost(), e);
+    }
+  }
+
+  /**
+   * Make the standby session the current one. The failed session becomes the standby once it has recovered.
+   * @return false if there is no standby session ready
+   */
+  private boolean switchToStandby() {
+    if (standbyProducerHandler == null || standbySessionHandler.isClosed()
+        || standbySessionHandler.isReconnecting()) {
+      return false;
+    }
+    long start = System.nanoTime();
+    SolSessionHandler failedSessionHandler = sessionHandler;
+    SolProducerHandler failedProducerHandler = producerHandler;
+    sessionHandler = standbySessionHandler;
+    producerHandler = standbyProducerHandler;
+    standbySessionHandler = failedSessionHandler;
+    standbyProducerHandler = null;
+    nextStandbyConnectMillis = System.currentTimeMillis()
+        + sconfig.getInt(SolaceSinkConstants.SOL_CHANNEL_PROPERTY_reconnectRetryWaitInMillis);
+    failedProducerHandler.close();
+    replayInDoubt();
+    retransmitRejected();
+    long switchMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+    failoverStats.switched(sessionHandler.getHost(), switchMicros);
+    log.warn("================ Switched from {} to standby JCSMPSession on {} in {} us",
+        failedSessionHandler.getHost(), sessionHandler.getHost(), switchMicros);
+    return true;
+  }
+
+  /**
+   * @return the statistics of switches to the standby session, or null if there is no standby
+   */
+  SolFailoverStats getFailoverStats() {
+    return failoverStats;
+  }
+
+  /**
+   * @return the handler of the session messages are currently sent on
+   */
+  SolSessionHandler getSessionHandler() {
+    return sessionHandler;
+  }
+
+  /**
+   * Take the actions called for by session and producer events: reset the flow state after a reconnect and
+   * send in-doubt messages again after a DR fail-over.
+   */
+  public synchronized void handleBrokerEvents() {
+    SolPublishRateController rateController = sessionHandler.getPublishRateController();
+    if (rateController == null) {
+      return;
+    }
+    if (rateController.takeFlowReset()) {
+      log.info("================ Resetting producer flow state after reconnect");
+      producerHandler.resetFlowState();
+    }
+    if (rateController.takeReplay() && retransmitBuffer != null) {
+      log.info("================ Scheduling in-doubt messages for retransmission after DR fail-over");
+      retransmitBuffer.retransmitInFlight();
+    }
+  }
+
+  /**
+   * Make the messages held in the spill buffer durable, must be done before their offsets are committed.
+   */
+  public void syncSpillBuffer() {
+    if (spillBuffer != null) {
+      spillBuffer.force();
+    }
+  }
+
+  /**
+   * Structured messages are checked for their map or stream, their attachment is only encoded when sent.
+   * @return true if the message carries a payload
+   */
+  private static boolean hasData(BytesXMLMessage message) {
+    if (message instanceof MapMessage) {
+      return ((MapMessage) message).getMap() != null;
+    }
+    if (message instanceof StreamMessage) {
+      return ((StreamMessage) message).getStream() != null;
     }
+    return message.getAttachmentContentLength() != 0 && message.getAttachmentByteBuffer() != null;
+  }
+
+  /**
+   * Account for the memory held by a message, applying backpressure if the in-flight memory budget is exhausted.
+   * @return the hold on the reserved memory, or null if there is no in-flight memory budget
+   */
+  private SolInflightMemoryBudget.Hold reserveMemory(TopicPartition tp, BytesXMLMessage message) {
+    if (memoryBudget == null) {
+      return null;
+    }
+    long size = (long) message.getAttachmentContentLength() + message.getContentLength();
+    if (!uncommittedOffsets.isEmpty() && memoryBudget.isExhaustedBy(size)) {
+      // Committing the transaction is the quickest way to give back the memory held by this task
+      log.debug("================ In-flight memory budget exhausted, committing transaction early");
+      txAutoFlushHandler();
+    }
+    heldBytes.merge(tp, size, Long::sum);
+    memoryBudget.acquire(size);
+    if (memoryBudget.isExhausted()) {
+      pauseHeaviestPartitions();
+    }
+    return new SolInflightMemoryBudget.Hold(() -> releaseMemory(tp, size));
+  }
+
+  private void releaseMemory(TopicPartition tp, long size) {
+    if (size == 0) {
+      return;
+    }
+    heldBytes.computeIfPresent(tp, (partition, held) -> {
+      long released = Math.min(held, size);
+      memoryBudget.release(released);
+      return held - released > 0 ? held - released : null;
+    });
+  }
+
+  private void releaseTransactionMemory() {
+    for (SolInflightMemoryBudget.Hold hold : transactionHolds) {
+      hold.release();
+    }
+    transactionHolds.clear();
+  }
+
+  private void releaseAllMemory() {
+    transactionHolds.clear();
+    if (memoryBudget == null) {
+      return;
+    }
+    for (TopicPartition tp : heldBytes.keySet()) {
+      Long held = heldBytes.remove(tp);
+      if (held != null) {
+        memoryBudget.release(held);
+      }
+    }
+  }
+
+  /**
+   * Pause the partitions of this task holding the most memory until at least half of the memory held
+   * by the task belongs to paused partitions.
+   */
+  private void pauseHeaviestPartitions() {
+    SolPartitionBackpressure backpressure = sinkTask.getBackpressure();
+    if (backpressure == null) {
+      return;
+    }
+    List<Map.Entry<TopicPartition, Long>> heaviest = new ArrayList<>(heldBytes.entrySet());
+    heaviest.sort(Map.Entry.<TopicPartition, Long>comparingByValue().reversed());
+    long total = 0;
+    for (Map.Entry<TopicPartition, Long> entry : heaviest) {
+      total += entry.getValue();
+    }
+    long covered = 0;
+    for (Map.Entry<TopicPartition, Long> entry : heaviest) {
+      if (covered * 2 >= total) {
+        break;
+      }
+      covered += entry.getValue();
+      if (pausedForMemory.add(entry.getKey())) {
+        backpressure.pause(Collections.singleton(entry.getKey()), SolPartitionBackpressure.Reason.MEMORY_BUDGET);
+        memoryBudget.pausedPartitionsChanged(1);
+      }
+    }
+  }
+
+  /**
+   * Resume partitions paused by the in-flight memory budget once enough memory has been released.
+   */
+  public synchronized void updateBackpressure() {
+    SolPartitionBackpressure rateBackpressure = sinkTask.getBackpressure();
+    if (rateLimiter != null && rateBackpressure != null) {
+      rateLimiter.release(rateBackpressure, System.nanoTime());
+    }
+    if (memoryBudget == null || pausedForMemory.isEmpty() || !memoryBudget.hasHeadroom()) {
+      return;
+    }
+    SolPartitionBackpressure backpressure = sinkTask.getBackpressure();
+    if (backpressure != null) {
+      backpressure.resume(pausedForMemory, SolPartitionBackpressure.Reason.MEMORY_BUDGET);
+    }
+    memoryBudget.pausedPartitionsChanged(-pausedForMemory.size());
+    pausedForMemory.clear();
+  }
+
+  /**
+   * Pause partitions that sent more than the rate limits allow.
+   * @param assignment partitions assigned to the task
+   * @return milliseconds until the first paused partition may be resumed, 0 if none was paused
+   */
+  public synchronized long applyRateLimits(Collection<TopicPartition> assignment) {
+    SolPartitionBackpressure backpressure = sinkTask.getBackpressure();
+    if (rateLimiter == null || backpressure == null) {
+      return 0;
+    }
+    return rateLimiter.engage(backpressure, assignment, System.nanoTime());
   }
 
   private void txAutoFlushHandler() {
@@ -199,10 +952,66 @@ public class SolaceSinkSender {
    * Commit Solace and Kafka records.
    */
   public synchronized void commit() throws JCSMPException {
-    if (producerHandler.getTxMsgCount().getAndSet(0) > 0) {
-      sessionHandler.getTxSession().commit();
-      log.debug("Committed Solace records for transaction with status: {}",
-          sessionHandler.getTxSession().getStatus().name());
+    uncommittedOffsets.clear();
+    try {
+      if (producerHandler.getTxMsgCount().getAndSet(0) > 0) {
+        sessionHandler.getTxSession().commit();
+        log.debug("Committed Solace records for transaction with status: {}",
+            sessionHandler.getTxSession().getStatus().name());
+      }
+      if (endpointRouter != null) {
+        endpointRouter.commit();
+      }
+    } finally {
+      // Committed or rolled back, the messages of the transaction are no longer held
+      releaseTransactionMemory();
+      updateBackpressure();
+    }
+  }
+
+  /**
+   * Resolve the record processors and destinations of partitions newly assigned to this task.
+   * @param partitions assigned partitions
+   */
+  public void open(Collection<TopicPartition> partitions) {
+    if (dispatcher != null) {
+      dispatcher.open(partitions);
+    }
+    if (router != null) {
+      router.open(partitions);
+    }
+  }
+
+  /**
+   * Release the state held for partitions revoked from this task. Kafka Connect flushes all partitions
+   * before closing revoked ones, which commits the transaction and waits for outstanding acknowledgements
+   * of every partition, so nothing is left to commit here.
+   * @param partitions revoked partitions
+   */
+  public synchronized void close(Collection<TopicPartition> partitions) {
+    // Revoked partitions must not be replayed if a later transaction is rolled back
+    uncommittedOffsets.keySet().removeAll(partitions);
+    spillResumeOffsets.keySet().removeAll(partitions);
+    offsets.keySet().removeAll(partitions);
+    if (dispatcher != null) {
+      dispatcher.close(partitions);
+    }
+    if (router != null) {
+      router.close(partitions);
+    }
+    if (rateLimiter != null) {
+      rateLimiter.forget(partitions);
+    }
+    if (memoryBudget != null) {
+      for (TopicPartition tp : partitions) {
+        Long held = heldBytes.remove(tp);
+        if (held != null) {
+          memoryBudget.release(held);
+        }
+        if (pausedForMemory.remove(tp)) {
+          memoryBudget.pausedPartitionsChanged(-1);
+        }
+      }
     }
   }
 
@@ -211,6 +1020,30 @@ public class SolaceSinkSender {
    */
   public void shutdown() {
     producerHandler.close();
+    if (endpointRouter != null) {
+      endpointRouter.close();
+    }
+    if (standbySessionHandler != null) {
+      if (standbyProducerHandler != null) {
+        standbyProducerHandler.close();
+      }
+      // Either session may be the one the task created, closing a session twice has no effect
+      standbySessionHandler.shutdown();
+      sessionHandler.shutdown();
+      SolMetrics.unregister(failoverStatsMetricName);
+    }
+    if (spillBuffer != null) {
+      try {
+        spillBuffer.close();
+      } catch (IOException e) {
+        log.warn("================ Failed to close spill buffer", e);
+      }
+    }
+    releaseAllMemory();
+    if (memoryBudget != null) {
+      memoryBudget.pausedPartitionsChanged(-pausedForMemory.size());
+      pausedForMemory.clear();
+    }
   }
 
 }
@@ -23,6 +23,8 @@ import com.solacesystems.jcsmp.JCSMPException;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.errors.RetriableException;
+import org.apache.kafka.connect.sink.ErrantRecordReporter;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.apache.kafka.connect.sink.SinkTask;
 import org.apache.kafka.connect.sink.SinkTaskContext;
@@ -30,15 +32,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class SolaceSinkTask extends SinkTask {
   private static final Logger log = LoggerFactory.getLogger(SolaceSinkTask.class);
+  private static final long CONNECT_REDELIVERY_BACKOFF_MS = 1000;
+  private static final long STOP_CONNECT_TIMEOUT_MS = 30000;
   private SolSessionHandler solSessionHandler;
   private SolaceSinkSender solSender;
   private SinkTaskContext context;
+  private SolPartitionBackpressure backpressure;
+  private ErrantRecordReporter errantRecordReporter;
+  private ExecutorService connectExecutor;
+  private volatile CompletableFuture<Void> pendingConnect;
+  // Guarded by this, set once the task is stopped so that a background connect tears down what it built
+  private boolean stopped;
 
   SolaceSinkConnectorConfig connectorConfig;
 
@@ -50,7 +65,24 @@ public class SolaceSinkTask extends SinkTask {
   @Override
   public void start(Map<String, String> props) {
     connectorConfig = new SolaceSinkConnectorConfig(props);
+    log.info("================ Starting task {} of {}", connectorConfig.getInt(SolaceSinkConstants.SOL_TASK_INDEX),
+        connectorConfig.getInt(SolaceSinkConstants.SOL_TASK_COUNT));
     solSessionHandler = new SolSessionHandler(connectorConfig);
+    if (connectorConfig.getBoolean(SolaceSinkConstants.SOL_CONNECT_ASYNC)) {
+      connectExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "solace-sink-connect");
+        thread.setDaemon(true);
+        return thread;
+      });
+      pendingConnect = CompletableFuture.runAsync(this::connect, connectExecutor);
+      connectExecutor.shutdown();
+      log.info("================ JCSMPSession connecting in the background");
+    } else {
+      connect();
+    }
+  }
+
+  private void connect() {
     try {
       solSessionHandler.configureSession();
       solSessionHandler.connectSession();
@@ -59,26 +91,134 @@ public class SolaceSinkTask extends SinkTask {
     }
     log.info("================ JCSMPSession Connected");
 
+    SolaceSinkSender sender;
     try {
-      solSender = new SolaceSinkSender(connectorConfig, solSessionHandler, this);
+      sender = new SolaceSinkSender(connectorConfig, solSessionHandler, this);
     } catch (Exception e) {
       throw new ConnectException("Failed to setup sender to PubSub+", e);
     }
+    synchronized (this) {
+      if (!stopped) {
+        solSender = sender;
+        return;
+      }
+    }
+    // The task was stopped while connecting in the background, nothing else will release the sender
+    log.info("================ Task stopped while connecting, closing the sender");
+    sender.shutdown();
+    solSessionHandler.shutdown();
   }
 
   @Override
   public void put(Collection<SinkRecord> records) {
-    for (SinkRecord r : records) {
-      log.trace("Putting record to topic {}, partition {} and offset {}", r.topic(),
-          r.kafkaPartition(),
-          r.kafkaOffset());
-      solSender.sendRecord(r);
+    if (!isSessionReady()) {
+      backpressure.pause(context.assignment(), SolPartitionBackpressure.Reason.SESSION_CONNECTING);
+      if (!records.isEmpty()) {
+        context.timeout(CONNECT_REDELIVERY_BACKOFF_MS);
+        throw new RetriableException("PubSub+ session is not connected yet, records will be redelivered");
+      }
+      return;
+    }
+
+    solSender.failoverIfUnavailable();
+    SolPublishRateController rateController = solSender.getSessionHandler().getPublishRateController();
+    if (rateController != null && !admitRecords(rateController, records)) {
+      return;
+    }
+
+    solSender.updateBackpressure();
+    solSender.handleBrokerEvents();
+    solSender.drainSpillBuffer();
+    solSender.retransmitRejected();
+    solSender.sendRecords(solSender.schedule(records));
+
+    long throttleDelayMillis = rateController != null ? rateController.recordSent(records.size()) : 0;
+    throttle(throttleDelayMillis);
+    if (context != null) {
+      long rateLimitDelayMillis = solSender.applyRateLimits(context.assignment());
+      if (rateLimitDelayMillis > 0 && (throttleDelayMillis == 0 || rateLimitDelayMillis < throttleDelayMillis)) {
+        // Wake up in time to resume the partitions paused by the rate limits
+        context.timeout(rateLimitDelayMillis);
+      }
+    }
+  }
+
+  /**
+   * Holds back records while the session reconnects and resumes partitions paused by the publish rate
+   * controller once sending may continue.
+   * @return false if no records may be sent
+   */
+  private boolean admitRecords(SolPublishRateController rateController, Collection<SinkRecord> records) {
+    if (!rateController.isPublishingAllowed()) {
+      if (context != null) {
+        backpressure.pause(context.assignment(), SolPartitionBackpressure.Reason.SESSION_RECONNECTING);
+        context.timeout(CONNECT_REDELIVERY_BACKOFF_MS);
+      }
+      if (!records.isEmpty()) {
+        throw new RetriableException("PubSub+ session is reconnecting, records will be redelivered");
+      }
+      return false;
+    }
+    if (backpressure != null) {
+      backpressure.resumeAll(SolPartitionBackpressure.Reason.SESSION_RECONNECTING);
+      if (rateController.getThrottleDelayMillis() == 0) {
+        backpressure.resumeAll(SolPartitionBackpressure.Reason.PUBLISH_RATE);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Pause the assigned partitions until the publish rate allows sending again.
+   * @param delayMillis time to wait before sending more messages
+   */
+  private void throttle(long delayMillis) {
+    if (delayMillis > 0 && context != null) {
+      log.debug("================ Throttling publishing for {} ms", delayMillis);
+      backpressure.pause(context.assignment(), SolPartitionBackpressure.Reason.PUBLISH_RATE);
+      context.timeout(delayMillis);
+    }
+  }
+
+  /**
+   * Checks whether a background connect has completed, resuming partitions paused while connecting.
+   * @return true if the session is connected and the sender is ready
+   */
+  private boolean isSessionReady() {
+    CompletableFuture<Void> connect = pendingConnect;
+    if (connect == null) {
+      return true;
+    }
+    if (!connect.isDone()) {
+      return false;
+    }
+    try {
+      connect.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof ConnectException) {
+        throw (ConnectException) e.getCause();
+      }
+      throw new ConnectException("Failed to connect to PubSub+", e.getCause());
     }
+    pendingConnect = null;
+    backpressure.resumeAll(SolPartitionBackpressure.Reason.SESSION_CONNECTING);
+    return true;
+  }
+
+  SolPartitionBackpressure getBackpressure() {
+    return backpressure;
   }
 
   @Override
   public void stop() {
     log.info("================ Shutting down PubSub+ Sink Connector");
+    synchronized (this) {
+      stopped = true;
+    }
+    if (connectExecutor != null) {
+      connectExecutor.shutdownNow();
+      awaitPendingConnect();
+    }
     if (solSender != null) {
       solSender.shutdown();
     }
@@ -90,6 +230,30 @@ public class SolaceSinkTask extends SinkTask {
     log.info("PubSub+ Sink Connector stopped");
   }
 
+  /**
+   * Wait for a background connect to finish, it does not react to interrupts while JCSMP is connecting.
+   * Once it finishes it sees the task is stopped and closes the sender it built, so that the spill
+   * directory is unlocked before a restarted task opens it.
+   */
+  private void awaitPendingConnect() {
+    CompletableFuture<Void> connect = pendingConnect;
+    if (connect == null) {
+      return;
+    }
+    // Closing the session makes a blocked connect fail sooner
+    solSessionHandler.shutdown();
+    try {
+      connect.get(STOP_CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      log.debug("================ Background connect failed while stopping", e.getCause());
+    } catch (TimeoutException e) {
+      log.warn("================ Background connect still running after {} ms, it is closed once it finishes",
+          STOP_CONNECT_TIMEOUT_MS);
+    }
+  }
+
   /**
    * Flushes Kafka Records.
    */
@@ -100,7 +264,13 @@ public class SolaceSinkTask extends SinkTask {
       log.debug("Flushing up to topic {}, partition {} and offset {}", tp.topic(),
           tp.partition(), om.offset());
     }
-    if (solSessionHandler.getTxSession() != null) {
+    if (pendingConnect != null) {
+      log.debug("================ JCSMPSession not connected yet, nothing to flush");
+      return;
+    }
+    solSender.syncSpillBuffer();
+    solSender.awaitAcknowledged();
+    if (solSender.getSessionHandler().getTxSession() != null) {
       try {
         solSender.commit();
       } catch (JCSMPException e) {
@@ -118,6 +288,39 @@ public class SolaceSinkTask extends SinkTask {
    */
   public void initialize(SinkTaskContext context) {
     this.context = context;
+    this.backpressure = new SolPartitionBackpressure(context);
+    try {
+      this.errantRecordReporter = context.errantRecordReporter();
+    } catch (NoSuchMethodError | NoClassDefFoundError e) {
+      // Kafka Connect older than 2.6
+      this.errantRecordReporter = null;
+    }
+  }
+
+  /**
+   * Have Kafka Connect redeliver records starting from the given offsets.
+   * @param offsets offset to restart from for each partition
+   */
+  void replayFrom(Map<TopicPartition, Long> offsets) {
+    if (context != null) {
+      context.offset(offsets);
+    } else {
+      log.warn("================ Cannot replay records from offsets {} without a task context", offsets);
+    }
+  }
+
+  /**
+   * Report a record whose message could not be delivered to PubSub+.
+   * @param record the record
+   * @param cause the reason the message was not delivered
+   * @throws ConnectException if no errant record reporter is configured
+   */
+  void reportFailedRecord(SinkRecord record, Throwable cause) {
+    if (errantRecordReporter == null) {
+      throw new ConnectException(String.format("Failed to deliver record from topic %s, partition %s and offset %s",
+          record.topic(), record.kafkaPartition(), record.kafkaOffset()), cause);
+    }
+    errantRecordReporter.report(record, cause);
   }
 
   /**
@@ -127,16 +330,35 @@ public class SolaceSinkTask extends SinkTask {
    * @param partitions List of TopicPartitions for Topic
    */
   public void open(Collection<TopicPartition> partitions) {
+    if (pendingConnect == null && solSender != null) {
+      solSender.open(partitions);
+    }
     Long offsetLong = connectorConfig.getLong(SolaceSinkConstants.SOL_KAFKA_REPLAY_OFFSET);
     log.debug("================ Starting  for replay Offset: " + offsetLong);
     if (offsetLong != null) {
-      Set<TopicPartition> parts = context.assignment();
-      Iterator<TopicPartition> partsIt = parts.iterator();
-      while (partsIt.hasNext()) {
-        TopicPartition tp = partsIt.next();
+      // Only seek the newly assigned partitions, with incremental cooperative rebalancing
+      // the partitions this task already owns keep their position.
+      for (TopicPartition tp : partitions) {
         context.offset(tp, offsetLong);
       }
     }
   }
 
+  /**
+   * Closes the partitions revoked from this task, releasing the state held for them. Kafka Connect flushes
+   * the offsets of all assigned partitions first, so the transaction has already been committed.
+   *
+   * @param partitions List of revoked TopicPartitions
+   */
+  @Override
+  public void close(Collection<TopicPartition> partitions) {
+    log.debug("================ Closing partitions {}", partitions);
+    if (backpressure != null) {
+      backpressure.forget(partitions);
+    }
+    if (solSender != null) {
+      solSender.close(partitions);
+    }
+  }
+
 }
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solacesystems.jcsmp.BytesXMLMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.connect.data.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converters of record keys and values to message fields, compiled per schema for the
+ * {@link com.solace.connector.kafka.connect.sink.SolSchemaConverterCache}.
+ */
+final class SolAttachmentConverters {
+  private static final Logger log = LoggerFactory.getLogger(SolAttachmentConverters.class);
+
+  static final String VALUE_KIND = "attachment.value";
+  static final String CORRELATION_ID_KIND = "attachment.key.correlation_id";
+  static final String STRING_CORRELATION_ID_KIND = "attachment.key.string_correlation_id";
+
+  /**
+   * Applies a non-null record key or value to a message.
+   */
+  @FunctionalInterface
+  interface Converter {
+    void apply(BytesXMLMessage msg, Object value);
+  }
+
+  private static final Converter NONE = (msg, value) -> { };
+
+  private SolAttachmentConverters() { }
+
+  /**
+   * Compile the converter writing a record value of the given schema as the message attachment. Values of
+   * other types than bytes and strings reset the message.
+   */
+  static Converter attachment(Schema schema) {
+    if (schema == null) {
+      return (msg, value) -> {
+        log.trace("No schema info {}", value);
+        if (value instanceof byte[]) {
+          msg.writeAttachment((byte[]) value);
+        } else if (value instanceof ByteBuffer) {
+          msg.writeAttachment((byte[]) ((ByteBuffer) value).array());
+        } else if (value instanceof String) {
+          msg.writeAttachment(((String) value).getBytes(StandardCharsets.UTF_8));
+        } else {
+          // Unknown recordValue type
+          msg.reset();
+        }
+      };
+    }
+    switch (schema.type()) {
+      case BYTES:
+        return (msg, value) -> {
+          if (value instanceof byte[]) {
+            msg.writeAttachment((byte[]) value);
+          } else if (value instanceof ByteBuffer) {
+            msg.writeAttachment((byte[]) ((ByteBuffer) value).array());
+          }
+        };
+      case STRING:
+        return (msg, value) -> msg.writeAttachment(((String) value).getBytes(StandardCharsets.UTF_8));
+      default:
+        // Do nothing in all other cases
+        return (msg, value) -> msg.reset();
+    }
+  }
+
+  /**
+   * Compile the converter setting a record key of the given schema as the correlation ID.
+   */
+  static Converter correlationId(Schema schema) {
+    if (schema == null) {
+      return (msg, key) -> {
+        log.trace("No schema info {}", key);
+        if (key instanceof byte[]) {
+          msg.setCorrelationId(new String((byte[]) key, StandardCharsets.UTF_8));
+        } else if (key instanceof ByteBuffer) {
+          msg.setCorrelationId(new String(((ByteBuffer) key).array(), StandardCharsets.UTF_8));
+        } else {
+          msg.setCorrelationId(key.toString());
+        }
+      };
+    }
+    switch (schema.type()) {
+      case BYTES:
+        return (msg, key) -> {
+          if (key instanceof byte[]) {
+            msg.setCorrelationId(new String((byte[]) key, StandardCharsets.UTF_8));
+          } else if (key instanceof ByteBuffer) {
+            msg.setCorrelationId(new String(((ByteBuffer) key).array(), StandardCharsets.UTF_8));
+          }
+        };
+      case STRING:
+        return (msg, key) -> msg.setCorrelationId((String) key);
+      default:
+        log.trace("No applicable schema type {}", schema.type());
+        // Nothing to do with no applicable schema type
+        return NONE;
+    }
+  }
+
+  /**
+   * Compile the converter setting a record key as the correlation ID only if the key is a string.
+   */
+  static Converter stringCorrelationId(Schema schema) {
+    if (schema != null && schema.type() == Schema.Type.STRING) {
+      return (msg, key) -> msg.setCorrelationId((String) key);
+    }
+    return NONE;
+  }
+}
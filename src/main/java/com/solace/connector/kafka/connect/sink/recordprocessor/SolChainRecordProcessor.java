@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolBatchRecordProcessorIF;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Processes records through the chain of stages listed by
+ * {@value com.solace.connector.kafka.connect.sink.SolaceSinkConstants#SOL_RECORD_PROCESSOR_CHAIN}, such as
+ * filters, header mapping, payload encoding, compression and routing. The stages are fused when the processor
+ * is configured, so each record is processed in one pass writing a single message. Records filtered out are
+ * discarded.
+ */
+public class SolChainRecordProcessor implements SolBatchRecordProcessorIF {
+
+  private SolProcessorChain chain;
+
+  @Override
+  public void configure(Map<String, ?> configs) {
+    chain = SolProcessorChain.compile(configs);
+  }
+
+  @Override
+  public BytesXMLMessage processRecord(String skey, SinkRecord record) {
+    return chain.process(record);
+  }
+
+  @Override
+  public void processRecords(String skey, Collection<SinkRecord> records, BytesXMLMessage[] messages) {
+    int i = 0;
+    for (SinkRecord record : records) {
+      messages[i++] = chain.process(record);
+    }
+  }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.Topic;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Topic template compiled into a sequence of extractors appending literal text and record data, such as
+ * {@code orders/{key}/{header:region}/{value.field:status}}. The placeholders are:
+ * <ul>
+ *   <li>{@code {topic}} and {@code {partition}}: the Kafka topic and partition</li>
+ *   <li>{@code {key}}: the record key</li>
+ *   <li>{@code {header:<name>}}: the last Kafka header with the name</li>
+ *   <li>{@code {value.field:<path>}}: a field of a struct or map value, nested fields separated by dots</li>
+ *   <li>{@code {value.json:<path>}}: a field of a value holding a JSON document, see {@link SolJsonPath}</li>
+ * </ul>
+ * Missing, null or empty values resolve to {@value #MISSING}. The topic level separator {@code /} and the
+ * wildcards {@code *} and {@code >} in keys, headers and value fields are replaced by {@value #MISSING}, so
+ * that record data cannot add topic levels or turn a level into a wildcard. Topics are built in a reused
+ * {@link StringBuilder} and cached by their name. Instances are not thread-safe.
+ */
+final class SolDestinationTemplate {
+  static final String MISSING = "_";
+  private static final int MAX_CACHED_TOPICS = 10000;
+
+  @FunctionalInterface
+  interface Extractor {
+    void append(SinkRecord record, StringBuilder sb);
+  }
+
+  private final Extractor[] extractors;
+  private final Topic constant;
+  private final StringBuilder sb = new StringBuilder(64);
+  private final Map<String, Topic> topics = new HashMap<>();
+
+  private SolDestinationTemplate(Extractor[] extractors, Topic constant) {
+    this.extractors = extractors;
+    this.constant = constant;
+  }
+
+  /**
+   * Compile a topic template.
+   * @param name name of the configuration property holding the template, for error reporting
+   * @param template the template
+   * @throws ConfigException if the template is invalid
+   */
+  static SolDestinationTemplate compile(String name, String template) {
+    if (template == null || template.trim().isEmpty()) {
+      throw new ConfigException(name, template, "Topic template is empty");
+    }
+    template = template.trim();
+    List<Extractor> extractors = new ArrayList<>();
+    boolean hasPlaceholder = false;
+    int pos = 0;
+    while (pos < template.length()) {
+      int open = template.indexOf('{', pos);
+      int close = template.indexOf('}', pos);
+      if (open < 0) {
+        if (close >= 0) {
+          throw new ConfigException(name, template, "Unbalanced } at position " + close);
+        }
+        extractors.add(literal(template.substring(pos)));
+        break;
+      }
+      if (close < open) {
+        throw new ConfigException(name, template, close < 0 ? "Unbalanced { at position " + open
+            : "Unbalanced } at position " + close);
+      }
+      if (open > pos) {
+        extractors.add(literal(template.substring(pos, open)));
+      }
+      extractors.add(placeholder(name, template, template.substring(open + 1, close)));
+      hasPlaceholder = true;
+      pos = close + 1;
+    }
+    Topic constant = hasPlaceholder ? null : JCSMPFactory.onlyInstance().createTopic(template);
+    return new SolDestinationTemplate(extractors.toArray(new Extractor[0]), constant);
+  }
+
+  private static Extractor literal(String text) {
+    return (record, sb) -> sb.append(text);
+  }
+
+  private static Extractor placeholder(String name, String template, String placeholder) {
+    if (placeholder.equals("topic")) {
+      return (record, sb) -> sb.append(record.topic());
+    }
+    if (placeholder.equals("partition")) {
+      return (record, sb) -> sb.append(record.kafkaPartition());
+    }
+    if (placeholder.equals("key")) {
+      return level((record, sb) -> appendValue(record.key(), sb));
+    }
+    if (placeholder.startsWith("header:") && placeholder.length() > "header:".length()) {
+      String header = placeholder.substring("header:".length());
+      return level((record, sb) -> {
+        Header value = record.headers().lastWithName(header);
+        appendValue(value != null ? value.value() : null, sb);
+      });
+    }
+    if (placeholder.startsWith("value.field:") && placeholder.length() > "value.field:".length()) {
+      String[] path = placeholder.substring("value.field:".length()).split("\\.");
+      return level((record, sb) -> appendValue(field(record.value(), path), sb));
+    }
+    if (placeholder.startsWith("value.json:")) {
+      SolJsonPath path = SolJsonPath.compile(name, placeholder.substring("value.json:".length()));
+      return level((record, sb) -> path.appendTo(record.value(), sb));
+    }
+    throw new ConfigException(name, template, "Unknown placeholder {" + placeholder + "}");
+  }
+
+  /**
+   * Confine the record data appended by an extractor to a single, non-empty topic level.
+   */
+  private static Extractor level(Extractor extractor) {
+    return (record, sb) -> {
+      int start = sb.length();
+      extractor.append(record, sb);
+      if (sb.length() == start) {
+        sb.append(MISSING);
+        return;
+      }
+      for (int i = start; i < sb.length(); i++) {
+        char c = sb.charAt(i);
+        if (c == '/' || c == '*' || c == '>') {
+          sb.replace(i, i + 1, MISSING);
+        }
+      }
+    };
+  }
+
+  private static Object field(Object value, String[] path) {
+    for (String name : path) {
+      if (value instanceof Struct) {
+        Struct struct = (Struct) value;
+        Field field = struct.schema().field(name);
+        if (field == null) {
+          return null;
+        }
+        value = struct.get(field);
+      } else if (value instanceof Map) {
+        value = ((Map<?, ?>) value).get(name);
+      } else {
+        return null;
+      }
+    }
+    return value;
+  }
+
+  private static void appendValue(Object value, StringBuilder sb) {
+    if (value == null) {
+      sb.append(MISSING);
+    } else if (value instanceof byte[]) {
+      sb.append(new String((byte[]) value, StandardCharsets.UTF_8));
+    } else if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+      sb.append(StandardCharsets.UTF_8.decode(buffer));
+    } else {
+      sb.append(value);
+    }
+  }
+
+  /**
+   * @return the topic of a record
+   */
+  Topic resolve(SinkRecord record) {
+    if (constant != null) {
+      return constant;
+    }
+    sb.setLength(0);
+    for (Extractor extractor : extractors) {
+      extractor.append(record, sb);
+    }
+    String name = sb.toString();
+    Topic topic = topics.get(name);
+    if (topic == null) {
+      if (topics.size() >= MAX_CACHED_TOPICS) {
+        topics.clear();
+      }
+      topic = JCSMPFactory.onlyInstance().createTopic(name);
+      topics.put(name, topic);
+    }
+    return topic;
+  }
+}
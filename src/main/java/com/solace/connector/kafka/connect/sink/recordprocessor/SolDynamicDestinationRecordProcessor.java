@@ -28,6 +28,8 @@ import com.solacesystems.jcsmp.Topic;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.apache.kafka.connect.sink.SinkRecord;
 
@@ -44,6 +46,11 @@ import org.slf4j.LoggerFactory;
 public class SolDynamicDestinationRecordProcessor implements SolRecordProcessorIF {
   private static final Logger log = 
       LoggerFactory.getLogger(SolDynamicDestinationRecordProcessor.class);
+  private static final int STOP = 0;
+  private static final int START = 1;
+  // Rules in order of priority, a message containing both commands stops the bus
+  private static final SolKeywordMatcher COMMANDS = SolKeywordMatcher.compile(
+      Arrays.asList(Collections.singletonList("stop"), Collections.singletonList("start")), true);
 
   @Override
   public BytesXMLMessage processRecord(String skey, SinkRecord record) {
@@ -54,24 +61,28 @@ public class SolDynamicDestinationRecordProcessor implements SolRecordProcessorI
     msg.setApplicationMessageType("ResendOfKafkaTopic: " + kafkaTopic);
 
     Object recordValue = record.value();
-    String payload = "";
+    byte[] payload = new byte[0];
     Topic topic;
     if (recordValue instanceof byte[]) {
-      payload = new String((byte[]) recordValue, StandardCharsets.UTF_8);
+      payload = (byte[]) recordValue;
     } else if (recordValue instanceof ByteBuffer) {
-      payload = new String(((ByteBuffer) recordValue).array(),StandardCharsets.UTF_8);
+      payload = ((ByteBuffer) recordValue).array();
     }
-    log.debug("================ Payload: " + payload);
-    
-    String busId = payload.substring(0, 4);
-    String busMsg = payload.substring(5, payload.length());
-    log.debug("================ Bus message: " + busMsg);
-    
-    if (busMsg.toLowerCase().contains("stop")) {
+    if (log.isDebugEnabled()) {
+      log.debug("================ Payload: " + new String(payload, StandardCharsets.UTF_8));
+    }
+
+    String busId = new String(payload, 0, 4, StandardCharsets.UTF_8);
+    int busMsgOffset = Math.min(5, payload.length);
+    int busMsgLength = payload.length - busMsgOffset;
+
+    // One pass over the message bytes finds the command without copying the message
+    int command = COMMANDS.match(payload, busMsgOffset, busMsgLength);
+    if (command == STOP) {
       topic = JCSMPFactory.onlyInstance().createTopic("ctrl/bus/" + busId + "/stop");
       log.debug("================ Dynamic Topic = " + topic.getName());
 
-    } else if (busMsg.toLowerCase().contains("start")) {
+    } else if (command == START) {
       topic = JCSMPFactory.onlyInstance().createTopic("ctrl/bus/" + busId + "/start");
       log.debug("================ Dynamic Topic = " + topic.getName());
     } else {
@@ -90,7 +101,7 @@ public class SolDynamicDestinationRecordProcessor implements SolRecordProcessorI
           e.getCause(), e.getStackTrace());
     }
     msg.setProperties(userHeader);
-    msg.writeAttachment(busMsg.getBytes(StandardCharsets.UTF_8));
+    msg.writeAttachment(payload, busMsgOffset, busMsgLength);
     
     return msg;
   }
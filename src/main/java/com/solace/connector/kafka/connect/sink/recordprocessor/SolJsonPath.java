@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import org.apache.kafka.common.config.ConfigException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Path to a field of a JSON document, such as {@code customer.tier} or {@code items[0].sku}, extracted by
+ * scanning the UTF-8 bytes of the document. Only the members and elements on the way to the field are
+ * looked at, the values before them are skipped without being decoded and scanning stops at the first
+ * match, so that a field near the start of a large document is found without reading the rest of it.
+ *
+ * <p>Only scalar values are extracted, strings are unescaped and numbers and booleans are taken as written.
+ * Missing fields, {@code null}, objects, arrays and malformed documents yield no value. Instances are
+ * immutable and thread-safe.
+ */
+final class SolJsonPath {
+  private static final int NO_MATCH = -1;
+
+  private final String path;
+  // Member names as UTF-8, or null for array elements
+  private final byte[][] names;
+  private final int[] indexes;
+
+  private SolJsonPath(String path, byte[][] names, int[] indexes) {
+    this.path = path;
+    this.names = names;
+    this.indexes = indexes;
+  }
+
+  /**
+   * Compile a path of member names separated by dots, each optionally followed by array indexes in brackets.
+   * @param name name of the configuration property holding the path, for error reporting
+   * @param path the path
+   * @throws ConfigException if the path is invalid
+   */
+  static SolJsonPath compile(String name, String path) {
+    if (path == null || path.trim().isEmpty()) {
+      throw new ConfigException(name, path, "JSON path is empty");
+    }
+    path = path.trim();
+    List<byte[]> names = new ArrayList<>();
+    List<Integer> indexes = new ArrayList<>();
+    for (String segment : path.split("\\.", -1)) {
+      int bracket = segment.indexOf('[');
+      String member = bracket < 0 ? segment : segment.substring(0, bracket);
+      if (member.isEmpty() && (bracket < 0 || names.size() > 0)) {
+        throw new ConfigException(name, path, "JSON path has an empty member name");
+      }
+      if (!member.isEmpty()) {
+        names.add(member.getBytes(StandardCharsets.UTF_8));
+        indexes.add(NO_MATCH);
+      }
+      while (bracket >= 0) {
+        int close = segment.indexOf(']', bracket);
+        int index;
+        try {
+          index = close < 0 ? NO_MATCH : Integer.parseInt(segment.substring(bracket + 1, close));
+        } catch (NumberFormatException e) {
+          index = NO_MATCH;
+        }
+        if (index < 0) {
+          throw new ConfigException(name, path, "JSON path has an invalid array index in " + segment);
+        }
+        names.add(null);
+        indexes.add(index);
+        bracket = close + 1 < segment.length() ? close + 1 : -1;
+        if (bracket >= 0 && segment.charAt(bracket) != '[') {
+          throw new ConfigException(name, path, "JSON path has characters after an array index in " + segment);
+        }
+      }
+    }
+    int[] indexArray = new int[indexes.size()];
+    for (int i = 0; i < indexArray.length; i++) {
+      indexArray[i] = indexes.get(i);
+    }
+    return new SolJsonPath(path, names.toArray(new byte[0][]), indexArray);
+  }
+
+  /**
+   * Append the value of the field in a record value holding a JSON document as bytes, a byte buffer or a
+   * string.
+   * @return false if the value holds no document or the field has no scalar value
+   */
+  boolean appendTo(Object value, StringBuilder sb) {
+    if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      return appendTo(bytes, 0, bytes.length, sb);
+    } else if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = (ByteBuffer) value;
+      if (buffer.hasArray()) {
+        return appendTo(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), sb);
+      }
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.duplicate().get(bytes);
+      return appendTo(bytes, 0, bytes.length, sb);
+    } else if (value instanceof String) {
+      byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+      return appendTo(bytes, 0, bytes.length, sb);
+    }
+    return false;
+  }
+
+  /**
+   * Append the value of the field in a JSON document.
+   * @return false if the field has no scalar value, in which case nothing was appended
+   */
+  boolean appendTo(byte[] bytes, int offset, int length, StringBuilder sb) {
+    int end = offset + length;
+    int pos = skipWhitespace(bytes, offset, end);
+    for (int i = 0; i < names.length && pos != NO_MATCH; i++) {
+      pos = names[i] != null ? member(bytes, pos, end, names[i]) : element(bytes, pos, end, indexes[i]);
+    }
+    if (pos == NO_MATCH || pos >= end) {
+      return false;
+    }
+    byte b = bytes[pos];
+    if (b == '"') {
+      int mark = sb.length();
+      if (unescape(bytes, pos + 1, end, sb) == NO_MATCH) {
+        sb.setLength(mark);
+        return false;
+      }
+      return true;
+    }
+    if (b == '{' || b == '[' || b == 'n') {
+      return false;
+    }
+    int literalEnd = skipLiteral(bytes, pos, end);
+    for (int i = pos; i < literalEnd; i++) {
+      sb.append((char) bytes[i]);
+    }
+    return true;
+  }
+
+  /**
+   * @return the position of the value of a member of the object at pos
+   */
+  private static int member(byte[] bytes, int pos, int end, byte[] name) {
+    if (pos >= end || bytes[pos] != '{') {
+      return NO_MATCH;
+    }
+    pos = skipWhitespace(bytes, pos + 1, end);
+    if (pos < end && bytes[pos] == '}') {
+      return NO_MATCH;
+    }
+    while (pos != NO_MATCH && pos < end && bytes[pos] == '"') {
+      int nameEnd = skipString(bytes, pos, end);
+      if (nameEnd == NO_MATCH) {
+        return NO_MATCH;
+      }
+      boolean matches = nameEquals(bytes, pos + 1, nameEnd - 1, name);
+      pos = skipWhitespace(bytes, nameEnd, end);
+      if (pos >= end || bytes[pos] != ':') {
+        return NO_MATCH;
+      }
+      pos = skipWhitespace(bytes, pos + 1, end);
+      if (matches) {
+        return pos;
+      }
+      pos = next(bytes, skipValue(bytes, pos, end), end);
+    }
+    return NO_MATCH;
+  }
+
+  /**
+   * @return the position of an element of the array at pos
+   */
+  private static int element(byte[] bytes, int pos, int end, int index) {
+    if (pos >= end || bytes[pos] != '[') {
+      return NO_MATCH;
+    }
+    pos = skipWhitespace(bytes, pos + 1, end);
+    if (pos < end && bytes[pos] == ']') {
+      return NO_MATCH;
+    }
+    for (int i = 0; i < index && pos != NO_MATCH; i++) {
+      pos = next(bytes, skipValue(bytes, pos, end), end);
+    }
+    return pos;
+  }
+
+  /**
+   * @return the position after the separator following a value, or {@link #NO_MATCH} at the closing bracket
+   */
+  private static int next(byte[] bytes, int pos, int end) {
+    if (pos == NO_MATCH) {
+      return NO_MATCH;
+    }
+    pos = skipWhitespace(bytes, pos, end);
+    if (pos >= end || bytes[pos] != ',') {
+      return NO_MATCH;
+    }
+    return skipWhitespace(bytes, pos + 1, end);
+  }
+
+  private static boolean nameEquals(byte[] bytes, int start, int end, byte[] name) {
+    if (end - start == name.length) {
+      int i = 0;
+      while (i < name.length && bytes[start + i] == name[i]) {
+        i++;
+      }
+      if (i == name.length) {
+        return true;
+      }
+    }
+    for (int i = start; i < end; i++) {
+      if (bytes[i] == '\\') {
+        // Rarely escaped, compare the decoded name
+        StringBuilder sb = new StringBuilder(end - start);
+        unescape(bytes, start, end + 1, sb);
+        return sb.toString().equals(new String(name, StandardCharsets.UTF_8));
+      }
+    }
+    return false;
+  }
+
+  private static int skipWhitespace(byte[] bytes, int pos, int end) {
+    while (pos < end) {
+      byte b = bytes[pos];
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+        break;
+      }
+      pos++;
+    }
+    return pos;
+  }
+
+  /**
+   * @return the position after the value at pos
+   */
+  private static int skipValue(byte[] bytes, int pos, int end) {
+    if (pos >= end) {
+      return NO_MATCH;
+    }
+    byte b = bytes[pos];
+    if (b == '"') {
+      return skipString(bytes, pos, end);
+    }
+    if (b != '{' && b != '[') {
+      int literalEnd = skipLiteral(bytes, pos, end);
+      return literalEnd > pos ? literalEnd : NO_MATCH;
+    }
+    int depth = 0;
+    while (pos < end) {
+      b = bytes[pos];
+      if (b == '"') {
+        pos = skipString(bytes, pos, end);
+        if (pos == NO_MATCH) {
+          return NO_MATCH;
+        }
+        continue;
+      }
+      if (b == '{' || b == '[') {
+        depth++;
+      } else if (b == '}' || b == ']') {
+        if (--depth == 0) {
+          return pos + 1;
+        }
+      }
+      pos++;
+    }
+    return NO_MATCH;
+  }
+
+  /**
+   * @return the position after the closing quote of the string at pos
+   */
+  private static int skipString(byte[] bytes, int pos, int end) {
+    pos++;
+    while (pos < end) {
+      byte b = bytes[pos];
+      if (b == '"') {
+        return pos + 1;
+      }
+      pos += b == '\\' ? 2 : 1;
+    }
+    return NO_MATCH;
+  }
+
+  private static int skipLiteral(byte[] bytes, int pos, int end) {
+    while (pos < end) {
+      byte b = bytes[pos];
+      if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+        break;
+      }
+      pos++;
+    }
+    return pos;
+  }
+
+  /**
+   * Decode the UTF-8 string contents starting at pos up to the closing quote.
+   * @return the position after the closing quote
+   */
+  private static int unescape(byte[] bytes, int pos, int end, StringBuilder sb) {
+    while (pos < end) {
+      int b = bytes[pos] & 0xff;
+      if (b == '"') {
+        return pos + 1;
+      }
+      if (b == '\\') {
+        if (pos + 1 >= end) {
+          return NO_MATCH;
+        }
+        byte escaped = bytes[pos + 1];
+        pos += 2;
+        switch (escaped) {
+          case 'b': sb.append('\b'); break;
+          case 'f': sb.append('\f'); break;
+          case 'n': sb.append('\n'); break;
+          case 'r': sb.append('\r'); break;
+          case 't': sb.append('\t'); break;
+          case 'u':
+            if (pos + 4 > end) {
+              return NO_MATCH;
+            }
+            int c = 0;
+            for (int i = 0; i < 4; i++) {
+              int digit = Character.digit(bytes[pos + i], 16);
+              if (digit < 0) {
+                return NO_MATCH;
+              }
+              c = c << 4 | digit;
+            }
+            sb.append((char) c);
+            pos += 4;
+            break;
+          default:
+            sb.append((char) escaped);
+        }
+      } else if (b < 0x80) {
+        sb.append((char) b);
+        pos++;
+      } else {
+        int extra = b >= 0xf0 ? 3 : b >= 0xe0 ? 2 : 1;
+        if (pos + extra >= end) {
+          return NO_MATCH;
+        }
+        int codePoint = b & (0x3f >> extra);
+        for (int i = 1; i <= extra; i++) {
+          codePoint = codePoint << 6 | (bytes[pos + i] & 0x3f);
+        }
+        if (codePoint > Character.MAX_CODE_POINT) {
+          return NO_MATCH;
+        }
+        sb.appendCodePoint(codePoint);
+        pos += extra + 1;
+      }
+    }
+    return NO_MATCH;
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolRecordProcessorIF;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.SDTException;
+import com.solacesystems.jcsmp.SDTMap;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes the record value as a UTF-8 JSON document. Structs, maps, lists and primitives are supported,
+ * with or without a schema. The JSON is written by a {@link SolJsonSerializer} into a buffer reused across
+ * records.
+ */
+public class SolJsonRecordProcessor implements SolRecordProcessorIF {
+  private static final Logger log = LoggerFactory.getLogger(SolJsonRecordProcessor.class);
+  static final String JSON_CONTENT_TYPE = "application/json";
+
+  private final SolJsonSerializer serializer = new SolJsonSerializer();
+
+  @Override
+  public BytesXMLMessage processRecord(String skey, SinkRecord record) {
+    BytesXMLMessage msg = JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class);
+
+    // Add Record Topic,Partition,Offset to Solace Msg
+    String kafkaTopic = record.topic();
+    SDTMap userHeader = JCSMPFactory.onlyInstance().createMap();
+    try {
+      userHeader.putString("k_topic", kafkaTopic);
+      userHeader.putInteger("k_partition", record.kafkaPartition());
+      userHeader.putLong("k_offset", record.kafkaOffset());
+    } catch (SDTException e) {
+      log.info("Received Solace SDTException {}, with the following: {} ",
+          e.getCause(), e.getStackTrace());
+    }
+    msg.setProperties(userHeader);
+    msg.setApplicationMessageType("ResendOfKafkaTopic: " + kafkaTopic);
+
+    // A record without a value leaves the message empty
+    if (record.value() != null) {
+      serializer.serialize(record.valueSchema(), record.value());
+      msg.writeAttachment(serializer.buffer(), 0, serializer.size());
+      msg.setHTTPContentType(JSON_CONTENT_TYPE);
+    }
+    return msg;
+  }
+
+}
@@ -0,0 +1,461 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolSchemaConverterCache;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes Kafka Connect values into UTF-8 JSON in a reusable buffer, without building an intermediate
+ * object tree. The writer for a {@link Schema} is compiled once, with the field names of structs encoded
+ * ahead of time, and cached by schema instance in the {@link SolSchemaConverterCache}. Values without a
+ * schema are written by their Java type.
+ *
+ * <p>Bytes are written as base64 strings, {@link Decimal} as JSON numbers, {@link Date} as days and
+ * {@link Time} and {@link Timestamp} as milliseconds since the epoch. Maps with keys that are not strings
+ * are written as arrays of key and value pairs. Instances are not thread-safe.
+ */
+public final class SolJsonSerializer {
+  // A buffer grown by a large value is released rather than kept for the lifetime of the task
+  private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+  private static final int INITIAL_BUFFER = 4096;
+  private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+  private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+  private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] BASE64 =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+  private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+  @FunctionalInterface
+  interface ValueWriter {
+    void write(SolJsonSerializer out, Object value);
+  }
+
+  private static final ValueWriter SCHEMALESS = SolJsonSerializer::writeSchemaless;
+
+  private final SolSchemaConverterCache.Converters<ValueWriter> writers =
+      SolSchemaConverterCache.shared().converters("json", SolJsonSerializer::compile);
+  private byte[] buf = new byte[INITIAL_BUFFER];
+  private int size;
+
+  /**
+   * Serialize a value, replacing the previous content of the buffer.
+   * @param schema schema of the value, or null to write the value by its Java type
+   * @param value the value
+   */
+  public void serialize(Schema schema, Object value) {
+    if (buf.length > MAX_RETAINED_BUFFER) {
+      buf = new byte[INITIAL_BUFFER];
+    }
+    size = 0;
+    writerFor(schema).write(this, value);
+  }
+
+  /**
+   * @return the buffer holding the JSON document in its first {@link #size()} bytes
+   */
+  public byte[] buffer() {
+    return buf;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  ValueWriter writerFor(Schema schema) {
+    if (schema == null) {
+      return SCHEMALESS;
+    }
+    return writers.get(schema);
+  }
+
+  /**
+   * Compile the writer of a schema, including the writers of nested schemas.
+   */
+  static ValueWriter compile(Schema schema) {
+    ValueWriter writer = compileNonNull(schema);
+    return (out, value) -> {
+      if (value == null) {
+        out.writeBytes(NULL);
+      } else {
+        writer.write(out, value);
+      }
+    };
+  }
+
+  private static ValueWriter compileNonNull(Schema schema) {
+    String logicalName = schema.name();
+    if (Decimal.LOGICAL_NAME.equals(logicalName)) {
+      return (out, value) -> out.writeAscii(((BigDecimal) value).toPlainString());
+    }
+    if (Date.LOGICAL_NAME.equals(logicalName)) {
+      return (out, value) -> out.writeLong(Math.floorDiv(((java.util.Date) value).getTime(), MILLIS_PER_DAY));
+    }
+    if (Time.LOGICAL_NAME.equals(logicalName) || Timestamp.LOGICAL_NAME.equals(logicalName)) {
+      return (out, value) -> out.writeLong(((java.util.Date) value).getTime());
+    }
+    switch (schema.type()) {
+      case INT8:
+      case INT16:
+      case INT32:
+      case INT64:
+        return (out, value) -> out.writeLong(((Number) value).longValue());
+      case FLOAT32:
+        return (out, value) -> out.writeFloat((Float) value);
+      case FLOAT64:
+        return (out, value) -> out.writeDouble((Double) value);
+      case BOOLEAN:
+        return (out, value) -> out.writeBytes((Boolean) value ? TRUE : FALSE);
+      case STRING:
+        return (out, value) -> out.writeString((String) value);
+      case BYTES:
+        return SolJsonSerializer::writeBinary;
+      case ARRAY:
+        return arrayWriter(compile(schema.valueSchema()));
+      case MAP:
+        return mapWriter(schema.keySchema(), compile(schema.keySchema()), compile(schema.valueSchema()));
+      case STRUCT:
+        return structWriter(schema);
+      default:
+        throw new IllegalArgumentException("Unsupported schema type " + schema.type());
+    }
+  }
+
+  private static ValueWriter arrayWriter(ValueWriter elementWriter) {
+    return (out, value) -> {
+      out.writeByte('[');
+      boolean first = true;
+      for (Object element : (Collection<?>) value) {
+        if (!first) {
+          out.writeByte(',');
+        }
+        first = false;
+        elementWriter.write(out, element);
+      }
+      out.writeByte(']');
+    };
+  }
+
+  private static ValueWriter mapWriter(Schema keySchema, ValueWriter keyWriter, ValueWriter valueWriter) {
+    if (keySchema.type() == Schema.Type.STRING) {
+      return (out, value) -> {
+        out.writeByte('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          if (!first) {
+            out.writeByte(',');
+          }
+          first = false;
+          out.writeString(String.valueOf(entry.getKey()));
+          out.writeByte(':');
+          valueWriter.write(out, entry.getValue());
+        }
+        out.writeByte('}');
+      };
+    }
+    return (out, value) -> {
+      out.writeByte('[');
+      boolean first = true;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        if (!first) {
+          out.writeByte(',');
+        }
+        first = false;
+        out.writeByte('[');
+        keyWriter.write(out, entry.getKey());
+        out.writeByte(',');
+        valueWriter.write(out, entry.getValue());
+        out.writeByte(']');
+      }
+      out.writeByte(']');
+    };
+  }
+
+  private static ValueWriter structWriter(Schema schema) {
+    List<Field> fieldList = schema.fields();
+    Field[] fields = fieldList.toArray(new Field[0]);
+    byte[][] names = new byte[fields.length][];
+    ValueWriter[] fieldWriters = new ValueWriter[fields.length];
+    SolJsonSerializer nameEncoder = new SolJsonSerializer();
+    for (int i = 0; i < fields.length; i++) {
+      // Encode the separator, quoted name and colon once
+      nameEncoder.size = 0;
+      if (i > 0) {
+        nameEncoder.writeByte(',');
+      }
+      nameEncoder.writeString(fields[i].name());
+      nameEncoder.writeByte(':');
+      names[i] = Arrays.copyOf(nameEncoder.buf, nameEncoder.size);
+      fieldWriters[i] = compile(fields[i].schema());
+    }
+    return (out, value) -> {
+      Struct struct = (Struct) value;
+      out.writeByte('{');
+      for (int i = 0; i < fields.length; i++) {
+        out.writeBytes(names[i]);
+        fieldWriters[i].write(out, struct.get(fields[i]));
+      }
+      out.writeByte('}');
+    };
+  }
+
+  private static void writeSchemaless(SolJsonSerializer out, Object value) {
+    if (value == null) {
+      out.writeBytes(NULL);
+    } else if (value instanceof String) {
+      out.writeString((String) value);
+    } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte) {
+      out.writeLong(((Number) value).longValue());
+    } else if (value instanceof Double) {
+      out.writeDouble((Double) value);
+    } else if (value instanceof Float) {
+      out.writeFloat((Float) value);
+    } else if (value instanceof Boolean) {
+      out.writeBytes((Boolean) value ? TRUE : FALSE);
+    } else if (value instanceof BigDecimal) {
+      out.writeAscii(((BigDecimal) value).toPlainString());
+    } else if (value instanceof Number) {
+      out.writeAscii(value.toString());
+    } else if (value instanceof byte[] || value instanceof ByteBuffer) {
+      writeBinary(out, value);
+    } else if (value instanceof Struct) {
+      out.writerFor(((Struct) value).schema()).write(out, value);
+    } else if (value instanceof Map) {
+      out.writeByte('{');
+      boolean first = true;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        if (!first) {
+          out.writeByte(',');
+        }
+        first = false;
+        out.writeString(String.valueOf(entry.getKey()));
+        out.writeByte(':');
+        writeSchemaless(out, entry.getValue());
+      }
+      out.writeByte('}');
+    } else if (value instanceof Collection) {
+      out.writeByte('[');
+      boolean first = true;
+      for (Object element : (Collection<?>) value) {
+        if (!first) {
+          out.writeByte(',');
+        }
+        first = false;
+        writeSchemaless(out, element);
+      }
+      out.writeByte(']');
+    } else if (value instanceof java.util.Date) {
+      out.writeLong(((java.util.Date) value).getTime());
+    } else {
+      out.writeString(value.toString());
+    }
+  }
+
+  private static void writeBinary(SolJsonSerializer out, Object value) {
+    if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = (ByteBuffer) value;
+      if (buffer.hasArray()) {
+        out.writeBase64(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      } else {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        out.writeBase64(bytes, 0, bytes.length);
+      }
+    } else {
+      byte[] bytes = (byte[]) value;
+      out.writeBase64(bytes, 0, bytes.length);
+    }
+  }
+
+  private void ensureCapacity(int additional) {
+    if (size + additional > buf.length) {
+      buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + additional));
+    }
+  }
+
+  private void writeByte(char b) {
+    ensureCapacity(1);
+    buf[size++] = (byte) b;
+  }
+
+  private void writeBytes(byte[] bytes) {
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buf, size, bytes.length);
+    size += bytes.length;
+  }
+
+  private void writeAscii(String s) {
+    int length = s.length();
+    ensureCapacity(length);
+    for (int i = 0; i < length; i++) {
+      buf[size++] = (byte) s.charAt(i);
+    }
+  }
+
+  private void writeLong(long v) {
+    if (v == Long.MIN_VALUE) {
+      writeAscii("-9223372036854775808");
+      return;
+    }
+    ensureCapacity(20);
+    if (v < 0) {
+      buf[size++] = '-';
+      v = -v;
+    }
+    int digits = 1;
+    for (long rest = v / 10; rest != 0; rest /= 10) {
+      digits++;
+    }
+    int pos = size + digits;
+    do {
+      buf[--pos] = (byte) ('0' + (v % 10));
+      v /= 10;
+    } while (v != 0);
+    size += digits;
+  }
+
+  private void writeDouble(double v) {
+    if (Double.isNaN(v) || Double.isInfinite(v)) {
+      // Not representable as a JSON number
+      writeString(Double.toString(v));
+    } else if (v == (long) v && Math.abs(v) < 1e15) {
+      writeLong((long) v);
+      writeAscii(".0");
+    } else {
+      writeAscii(Double.toString(v));
+    }
+  }
+
+  private void writeFloat(float v) {
+    if (Float.isNaN(v) || Float.isInfinite(v)) {
+      writeString(Float.toString(v));
+    } else {
+      writeAscii(Float.toString(v));
+    }
+  }
+
+  private void writeString(String s) {
+    int length = s.length();
+    // Worst case is 6 bytes per char for escaped control characters
+    ensureCapacity(length * 6 + 2);
+    byte[] b = buf;
+    int pos = size;
+    b[pos++] = '"';
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        if (c >= 0x20 && c != '"' && c != '\\') {
+          b[pos++] = (byte) c;
+          continue;
+        }
+        b[pos++] = '\\';
+        switch (c) {
+          case '"':
+            b[pos++] = '"';
+            break;
+          case '\\':
+            b[pos++] = '\\';
+            break;
+          case '\n':
+            b[pos++] = 'n';
+            break;
+          case '\r':
+            b[pos++] = 'r';
+            break;
+          case '\t':
+            b[pos++] = 't';
+            break;
+          case '\b':
+            b[pos++] = 'b';
+            break;
+          case '\f':
+            b[pos++] = 'f';
+            break;
+          default:
+            b[pos++] = 'u';
+            b[pos++] = '0';
+            b[pos++] = '0';
+            b[pos++] = HEX[c >> 4];
+            b[pos++] = HEX[c & 0xf];
+        }
+      } else if (c < 0x800) {
+        b[pos++] = (byte) (0xc0 | (c >> 6));
+        b[pos++] = (byte) (0x80 | (c & 0x3f));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, s.charAt(++i));
+        b[pos++] = (byte) (0xf0 | (cp >> 18));
+        b[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+        b[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+        b[pos++] = (byte) (0x80 | (cp & 0x3f));
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogate, not encodable in UTF-8
+        b[pos++] = '?';
+      } else {
+        b[pos++] = (byte) (0xe0 | (c >> 12));
+        b[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        b[pos++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+    b[pos++] = '"';
+    size = pos;
+  }
+
+  private void writeBase64(byte[] bytes, int offset, int length) {
+    ensureCapacity((length + 2) / 3 * 4 + 2);
+    byte[] b = buf;
+    int pos = size;
+    b[pos++] = '"';
+    int end = offset + length - length % 3;
+    for (int i = offset; i < end; i += 3) {
+      int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+      b[pos++] = BASE64[bits >>> 18];
+      b[pos++] = BASE64[(bits >>> 12) & 0x3f];
+      b[pos++] = BASE64[(bits >>> 6) & 0x3f];
+      b[pos++] = BASE64[bits & 0x3f];
+    }
+    int remaining = length % 3;
+    if (remaining > 0) {
+      int bits = (bytes[end] & 0xff) << 16 | (remaining == 2 ? (bytes[end + 1] & 0xff) << 8 : 0);
+      b[pos++] = BASE64[bits >>> 18];
+      b[pos++] = BASE64[(bits >>> 12) & 0x3f];
+      b[pos++] = remaining == 2 ? BASE64[(bits >>> 6) & 0x3f] : (byte) '=';
+      b[pos++] = '=';
+    }
+    b[pos++] = '"';
+    size = pos;
+  }
+}
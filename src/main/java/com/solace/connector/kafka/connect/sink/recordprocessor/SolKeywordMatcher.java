@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton finding which of a list of keyword rules occurs in a payload, in a single pass over
+ * its bytes. Each rule has one or more keywords, a rule matches if any of them occurs and the first matching
+ * rule of the list wins.
+ *
+ * <p>Keywords are matched as UTF-8 bytes. A table maps each byte to its symbol, folding ASCII letters to one
+ * symbol when matching ignores case, and bytes that occur in no keyword to a common symbol, so that the
+ * transitions of all states fit in one small array indexed by state and symbol. Instances are immutable and
+ * thread-safe.
+ */
+final class SolKeywordMatcher {
+  static final int NO_MATCH = -1;
+
+  // Symbol of each byte
+  private final byte[] symbols;
+  private final int symbolCount;
+  // Next state of each state and symbol, with the failure transitions resolved
+  private final int[] transitions;
+  // First rule matching at each state, or NO_MATCH
+  private final int[] rules;
+
+  private SolKeywordMatcher(byte[] symbols, int symbolCount, int[] transitions, int[] rules) {
+    this.symbols = symbols;
+    this.symbolCount = symbolCount;
+    this.transitions = transitions;
+    this.rules = rules;
+  }
+
+  /**
+   * Compile keyword rules.
+   * @param keywords keywords of each rule, in order of priority
+   * @param ignoreCase whether ASCII letters match regardless of case
+   * @throws IllegalArgumentException if a keyword is empty or there are more than 255 distinct keyword bytes
+   */
+  static SolKeywordMatcher compile(List<List<String>> keywords, boolean ignoreCase) {
+    List<List<byte[]>> encoded = new ArrayList<>();
+    int[] folding = new int[256];
+    for (int b = 0; b < 256; b++) {
+      folding[b] = ignoreCase && b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+    // Symbol 0 stands for the bytes occurring in no keyword
+    byte[] symbols = new byte[256];
+    int symbolCount = 1;
+    for (List<String> rule : keywords) {
+      List<byte[]> ruleBytes = new ArrayList<>();
+      for (String keyword : rule) {
+        if (keyword.isEmpty()) {
+          throw new IllegalArgumentException("Keywords must not be empty");
+        }
+        byte[] bytes = keyword.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+          int folded = folding[b & 0xff];
+          if (symbols[folded] == 0) {
+            if (symbolCount > 255) {
+              throw new IllegalArgumentException("Keywords have more than 255 distinct bytes");
+            }
+            symbols[folded] = (byte) symbolCount++;
+          }
+        }
+        ruleBytes.add(bytes);
+      }
+      encoded.add(ruleBytes);
+    }
+    for (int b = 0; b < 256; b++) {
+      symbols[b] = symbols[folding[b]];
+    }
+
+    // Trie of the keywords, 0 is the root and missing transitions are -1
+    int[] transitions = new int[symbolCount];
+    Arrays.fill(transitions, -1);
+    int[] rules = {NO_MATCH};
+    int stateCount = 1;
+    for (int rule = 0; rule < encoded.size(); rule++) {
+      for (byte[] bytes : encoded.get(rule)) {
+        int state = 0;
+        for (byte b : bytes) {
+          int index = state * symbolCount + (symbols[b & 0xff] & 0xff);
+          if (transitions[index] < 0) {
+            if ((stateCount + 1) * symbolCount > transitions.length) {
+              int size = transitions.length;
+              transitions = Arrays.copyOf(transitions, size * 2);
+              Arrays.fill(transitions, size, transitions.length, -1);
+              rules = Arrays.copyOf(rules, transitions.length / symbolCount);
+            }
+            rules[stateCount] = NO_MATCH;
+            transitions[index] = stateCount++;
+          }
+          state = transitions[index];
+        }
+        if (rules[state] == NO_MATCH || rule < rules[state]) {
+          rules[state] = rule;
+        }
+      }
+    }
+
+    // Resolve missing transitions through the failure links, breadth first so that the failure state of
+    // a state is complete before the state itself
+    int[] failures = new int[stateCount];
+    Queue<Integer> queue = new ArrayDeque<>();
+    for (int symbol = 0; symbol < symbolCount; symbol++) {
+      int next = transitions[symbol];
+      if (next < 0) {
+        transitions[symbol] = 0;
+      } else {
+        failures[next] = 0;
+        queue.add(next);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.remove();
+      int failure = failures[state];
+      if (rules[failure] != NO_MATCH && (rules[state] == NO_MATCH || rules[failure] < rules[state])) {
+        rules[state] = rules[failure];
+      }
+      for (int symbol = 0; symbol < symbolCount; symbol++) {
+        int index = state * symbolCount + symbol;
+        int next = transitions[index];
+        if (next < 0) {
+          transitions[index] = transitions[failure * symbolCount + symbol];
+        } else {
+          failures[next] = transitions[failure * symbolCount + symbol];
+          queue.add(next);
+        }
+      }
+    }
+    return new SolKeywordMatcher(symbols, symbolCount, Arrays.copyOf(transitions, stateCount * symbolCount),
+        Arrays.copyOf(rules, stateCount));
+  }
+
+  /**
+   * @return the first rule with a keyword occurring in the bytes, or {@link #NO_MATCH}
+   */
+  int match(byte[] bytes, int offset, int length) {
+    int best = NO_MATCH;
+    int state = 0;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      state = transitions[state * symbolCount + (symbols[bytes[i] & 0xff] & 0xff)];
+      int rule = rules[state];
+      if (rule != NO_MATCH && (best == NO_MATCH || rule < best)) {
+        best = rule;
+        if (best == 0) {
+          // No rule can take precedence
+          break;
+        }
+      }
+    }
+    return best;
+  }
+}
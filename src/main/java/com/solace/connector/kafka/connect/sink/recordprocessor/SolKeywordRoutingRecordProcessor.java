@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolaceSinkConstants;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.SDTException;
+import com.solacesystems.jcsmp.SDTMap;
+import com.solacesystems.jcsmp.Topic;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Converts records like the {@link SolSimpleRecordProcessor} and sends each to the topic of the first keyword
+ * rule of {@value SolaceSinkConstants#SOL_KEYWORD_ROUTES} with a keyword occurring in the record value, or to
+ * {@value SolaceSinkConstants#SOL_KEYWORD_ROUTES_DEFAULT_TOPIC} if there is none. The keywords of all rules
+ * are compiled into a {@link SolKeywordMatcher} that finds the rule in a single pass over the value bytes,
+ * however many keywords there are. Topics are {@link SolDestinationTemplate} templates. Requires
+ * {@code sol.dynamic_destination=true}.
+ */
+public class SolKeywordRoutingRecordProcessor extends SolSimpleRecordProcessor {
+
+  private SolKeywordMatcher matcher;
+  private SolDestinationTemplate[] templates;
+  private SolDestinationTemplate defaultTemplate;
+
+  @Override
+  public void configure(Map<String, ?> configs) {
+    Object dynamicDestination = configs.get(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION);
+    if (!Boolean.parseBoolean(String.valueOf(dynamicDestination))) {
+      throw new ConfigException(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION, dynamicDestination,
+          "Must be true to route records by keyword");
+    }
+    List<List<String>> keywords = new ArrayList<>();
+    List<SolDestinationTemplate> templates = new ArrayList<>();
+    for (String name : list(configs, SolaceSinkConstants.SOL_KEYWORD_ROUTES)) {
+      String prefix = SolaceSinkConstants.SOL_KEYWORD_ROUTE_PREFIX + name.trim() + ".";
+      List<String> ruleKeywords = list(configs, prefix + "keywords");
+      if (ruleKeywords.isEmpty()) {
+        throw new ConfigException(prefix + "keywords", null, "Keyword rule " + name + " has no keywords");
+      }
+      keywords.add(ruleKeywords);
+      Object topic = configs.get(prefix + "topic");
+      templates.add(SolDestinationTemplate.compile(prefix + "topic", topic != null ? topic.toString() : null));
+    }
+    Object ignoreCase = configs.get(SolaceSinkConstants.SOL_KEYWORD_ROUTES_IGNORE_CASE);
+    try {
+      matcher = SolKeywordMatcher.compile(keywords,
+          ignoreCase == null || Boolean.parseBoolean(ignoreCase.toString()));
+    } catch (IllegalArgumentException e) {
+      throw new ConfigException(SolaceSinkConstants.SOL_KEYWORD_ROUTES, keywords, e.getMessage());
+    }
+    this.templates = templates.toArray(new SolDestinationTemplate[0]);
+    Object defaultTopic = configs.get(SolaceSinkConstants.SOL_KEYWORD_ROUTES_DEFAULT_TOPIC);
+    defaultTemplate = SolDestinationTemplate.compile(SolaceSinkConstants.SOL_KEYWORD_ROUTES_DEFAULT_TOPIC,
+        defaultTopic != null ? defaultTopic.toString() : null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<String> list(Map<String, ?> configs, String name) {
+    Object value = configs.get(name);
+    List<String> entries = new ArrayList<>();
+    if (value != null) {
+      for (String entry : (List<String>) ConfigDef.parseType(name, value, ConfigDef.Type.LIST)) {
+        if (!entry.trim().isEmpty()) {
+          entries.add(entry.trim());
+        }
+      }
+    }
+    return entries;
+  }
+
+  @Override
+  public BytesXMLMessage processRecord(String skey, SinkRecord record) {
+    BytesXMLMessage msg = super.processRecord(skey, record);
+    SDTMap userHeader = msg.getProperties();
+    if (userHeader == null) {
+      userHeader = JCSMPFactory.onlyInstance().createMap();
+    }
+    try {
+      userHeader.putDestination("dynamicDestination", route(record));
+    } catch (SDTException e) {
+      throw new DataException(String.format("Failed to set destination of record from topic %s, partition %s "
+          + "and offset %s", record.topic(), record.kafkaPartition(), record.kafkaOffset()), e);
+    }
+    msg.setProperties(userHeader);
+    return msg;
+  }
+
+  private Topic route(SinkRecord record) {
+    Object value = record.value();
+    int rule = SolKeywordMatcher.NO_MATCH;
+    if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      rule = matcher.match(bytes, 0, bytes.length);
+    } else if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = (ByteBuffer) value;
+      if (buffer.hasArray()) {
+        rule = matcher.match(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      } else {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        rule = matcher.match(bytes, 0, bytes.length);
+      }
+    } else if (value instanceof String) {
+      byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+      rule = matcher.match(bytes, 0, bytes.length);
+    }
+    return (rule != SolKeywordMatcher.NO_MATCH ? templates[rule] : defaultTemplate).resolve(record);
+  }
+
+}
@@ -0,0 +1,433 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolSchemaConverterCache;
+import com.solace.connector.kafka.connect.sink.SolaceSinkConstants;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.Destination;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.SDTException;
+import com.solacesystems.jcsmp.SDTMap;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.zip.Deflater;
+
+/**
+ * Record processing stages configured by {@value SolaceSinkConstants#SOL_RECORD_PROCESSOR_CHAIN}, fused into
+ * a single pass over each record. Filters only inspect the record and run before anything is allocated,
+ * header mappers write into one property map, and the payload is encoded and compressed in buffers reused
+ * across records before it is written once into the only message created for the record.
+ *
+ * <p>The stage types are:
+ * <ul>
+ *   <li>{@code filter}: keeps records whose Kafka topic matches {@code topics}, that have a key if
+ *   {@code require_key} is set and whose JSON value has the field {@code json_path}, equal to
+ *   {@code json_value} if set</li>
+ *   <li>{@code headers}: adds the Kafka topic, partition and offset as user properties unless
+ *   {@code metadata} is false, copies the Kafka headers listed in {@code mapping} as
+ *   {@code <header>:<property>} and sets the record key as correlation ID if {@code correlation_id} is
+ *   {@code key}</li>
+ *   <li>{@code payload}: writes the record value as {@code bytes}, the default, or as {@code json}</li>
+ *   <li>{@code compress}: deflates payloads of at least {@code min_bytes} bytes at {@code level}</li>
+ *   <li>{@code route}: sends to the Solace topic {@code topic}, a {@link SolDestinationTemplate} that may
+ *   contain the Kafka topic, record key, headers or value fields</li>
+ * </ul>
+ * Instances are not thread-safe.
+ */
+final class SolProcessorChain {
+  static final String DEFLATE_ENCODING = "deflate";
+
+  @FunctionalInterface
+  interface Filter {
+    boolean accept(SinkRecord record);
+  }
+
+  @FunctionalInterface
+  interface HeaderMapper {
+    void map(SinkRecord record, SDTMap properties, BytesXMLMessage msg) throws SDTException;
+  }
+
+  @FunctionalInterface
+  interface PayloadEncoder {
+    /**
+     * @return false if the value has no payload
+     */
+    boolean encode(SinkRecord record, Payload payload);
+  }
+
+  @FunctionalInterface
+  interface Router {
+    Destination route(SinkRecord record);
+  }
+
+  /**
+   * View of the payload of the record being processed, backed by the record value or a reused buffer.
+   */
+  static final class Payload {
+    byte[] bytes;
+    int offset;
+    int length;
+
+    void set(byte[] bytes, int offset, int length) {
+      this.bytes = bytes;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  private final Filter filter;
+  private final HeaderMapper[] headerMappers;
+  private final PayloadEncoder payloadEncoder;
+  private final String contentType;
+  private final Compressor compressor;
+  private final Router router;
+  private final Payload payload = new Payload();
+
+  private SolProcessorChain(Filter filter, HeaderMapper[] headerMappers, PayloadEncoder payloadEncoder,
+                            String contentType, Compressor compressor, Router router) {
+    this.filter = filter;
+    this.headerMappers = headerMappers;
+    this.payloadEncoder = payloadEncoder;
+    this.contentType = contentType;
+    this.compressor = compressor;
+    this.router = router;
+  }
+
+  /**
+   * Compile the stages listed by {@value SolaceSinkConstants#SOL_RECORD_PROCESSOR_CHAIN}.
+   * @param configs the connector configuration
+   * @throws ConfigException if a stage is misconfigured
+   */
+  static SolProcessorChain compile(Map<String, ?> configs) {
+    Object stageList = configs.get(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN);
+    @SuppressWarnings("unchecked")
+    List<String> names = stageList != null
+        ? (List<String>) ConfigDef.parseType(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, stageList,
+            ConfigDef.Type.LIST)
+        : new ArrayList<>();
+
+    List<Filter> filters = new ArrayList<>();
+    List<HeaderMapper> headerMappers = new ArrayList<>();
+    PayloadEncoder payloadEncoder = null;
+    String contentType = null;
+    Compressor compressor = null;
+    Router router = null;
+    for (String name : names) {
+      name = name.trim();
+      String prefix = SolaceSinkConstants.SOL_RECORD_PROCESSOR_STAGE_PREFIX + name + ".";
+      Map<String, Object> props = withPrefix(configs, prefix);
+      Object type = props.get("type");
+      if (type == null) {
+        throw new ConfigException(prefix + "type", null, "Stage " + name + " has no type");
+      }
+      switch (type.toString().trim().toLowerCase(Locale.ROOT)) {
+        case "filter":
+          filters.add(filter(props, prefix));
+          break;
+        case "headers":
+          headerMappers.addAll(headerMappers(props, prefix));
+          break;
+        case "payload":
+          if (payloadEncoder != null) {
+            throw new ConfigException(prefix + "type", type, "Only one payload stage is allowed");
+          }
+          if (compressor != null) {
+            throw new ConfigException(prefix + "type", type, "The payload stage must come before the compress stage");
+          }
+          String format = string(props, "format", "bytes");
+          if ("json".equalsIgnoreCase(format)) {
+            payloadEncoder = jsonEncoder();
+            contentType = SolJsonRecordProcessor.JSON_CONTENT_TYPE;
+          } else if ("bytes".equalsIgnoreCase(format)) {
+            payloadEncoder = SolProcessorChain::encodeBytes;
+          } else {
+            throw new ConfigException(prefix + "format", format, "Must be bytes or json");
+          }
+          break;
+        case "compress":
+          if (compressor != null) {
+            throw new ConfigException(prefix + "type", type, "Only one compress stage is allowed");
+          }
+          compressor = new Compressor(integer(props, prefix, "min_bytes", 1024, 0, Integer.MAX_VALUE),
+              integer(props, prefix, "level", Deflater.BEST_SPEED, Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION));
+          break;
+        case "route":
+          if (router != null) {
+            throw new ConfigException(prefix + "type", type, "Only one route stage is allowed");
+          }
+          if (!Boolean.parseBoolean(String.valueOf(configs.get(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION)))) {
+            throw new ConfigException(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION,
+                configs.get(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION), "Must be true to use route stage " + name);
+          }
+          router = router(props, prefix);
+          break;
+        default:
+          throw new ConfigException(prefix + "type", type,
+              "Must be one of filter, headers, payload, compress or route");
+      }
+    }
+
+    Filter[] filterArray = filters.toArray(new Filter[0]);
+    Filter fused = filterArray.length == 0 ? record -> true : record -> {
+      for (Filter f : filterArray) {
+        if (!f.accept(record)) {
+          return false;
+        }
+      }
+      return true;
+    };
+    return new SolProcessorChain(fused, headerMappers.toArray(new HeaderMapper[0]),
+        payloadEncoder != null ? payloadEncoder : SolProcessorChain::encodeBytes, contentType, compressor, router);
+  }
+
+  /**
+   * Run all stages over a record.
+   * @return the message, or null if the record was filtered out or has no payload
+   */
+  BytesXMLMessage process(SinkRecord record) {
+    if (!filter.accept(record) || !payloadEncoder.encode(record, payload)) {
+      return null;
+    }
+    BytesXMLMessage msg = JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class);
+    if (headerMappers.length > 0 || router != null) {
+      SDTMap properties = JCSMPFactory.onlyInstance().createMap();
+      try {
+        for (HeaderMapper mapper : headerMappers) {
+          mapper.map(record, properties, msg);
+        }
+        if (router != null) {
+          properties.putDestination("dynamicDestination", router.route(record));
+        }
+      } catch (SDTException e) {
+        throw new DataException(String.format("Failed to set properties of record from topic %s, partition %s "
+            + "and offset %s", record.topic(), record.kafkaPartition(), record.kafkaOffset()), e);
+      }
+      msg.setProperties(properties);
+    }
+    if (compressor != null && compressor.compress(payload)) {
+      msg.setHTTPContentEncoding(DEFLATE_ENCODING);
+    }
+    if (contentType != null) {
+      msg.setHTTPContentType(contentType);
+    }
+    msg.writeAttachment(payload.bytes, payload.offset, payload.length);
+    return msg;
+  }
+
+  private static Filter filter(Map<String, Object> props, String prefix) {
+    Object topics = props.get("topics");
+    Pattern pattern = null;
+    if (topics != null) {
+      try {
+        pattern = Pattern.compile(topics.toString().trim());
+      } catch (PatternSyntaxException e) {
+        throw new ConfigException(prefix + "topics", topics, e.getMessage());
+      }
+    }
+    boolean requireKey = Boolean.parseBoolean(string(props, "require_key", "false"));
+    Pattern topicPattern = pattern;
+    // Matching is cached per topic, a task only consumes a few topics
+    Map<String, Boolean> matches = new HashMap<>();
+    Filter filter = record -> (topicPattern == null
+        || matches.computeIfAbsent(record.topic(), topic -> topicPattern.matcher(topic).matches()))
+        && (!requireKey || record.key() != null);
+    String jsonPath = string(props, "json_path", null);
+    if (jsonPath == null) {
+      return filter;
+    }
+    SolJsonPath path = SolJsonPath.compile(prefix + "json_path", jsonPath);
+    String expected = string(props, "json_value", null);
+    StringBuilder sb = new StringBuilder();
+    return record -> {
+      if (!filter.accept(record)) {
+        return false;
+      }
+      sb.setLength(0);
+      return path.appendTo(record.value(), sb) && (expected == null || expected.contentEquals(sb));
+    };
+  }
+
+  private static List<HeaderMapper> headerMappers(Map<String, Object> props, String prefix) {
+    List<HeaderMapper> mappers = new ArrayList<>();
+    if (Boolean.parseBoolean(string(props, "metadata", "true"))) {
+      mappers.add((record, properties, msg) -> {
+        properties.putString("k_topic", record.topic());
+        properties.putInteger("k_partition", record.kafkaPartition());
+        properties.putLong("k_offset", record.kafkaOffset());
+        msg.setApplicationMessageType("ResendOfKafkaTopic: " + record.topic());
+      });
+    }
+    Object mapping = props.get("mapping");
+    if (mapping != null) {
+      @SuppressWarnings("unchecked")
+      List<String> entries = (List<String>) ConfigDef.parseType(prefix + "mapping", mapping, ConfigDef.Type.LIST);
+      for (String entry : entries) {
+        int colon = entry.indexOf(':');
+        String header = (colon < 0 ? entry : entry.substring(0, colon)).trim();
+        String property = (colon < 0 ? entry : entry.substring(colon + 1)).trim();
+        if (header.isEmpty() || property.isEmpty()) {
+          throw new ConfigException(prefix + "mapping", mapping, "Entries must be <header>:<property>");
+        }
+        mappers.add((record, properties, msg) -> {
+          Header value = record.headers().lastWithName(header);
+          if (value != null) {
+            properties.putObject(property, value.value());
+          }
+        });
+      }
+    }
+    String correlationId = string(props, "correlation_id", "none");
+    if ("key".equalsIgnoreCase(correlationId)) {
+      SolSchemaConverterCache.Converters<SolAttachmentConverters.Converter> converters =
+          SolSchemaConverterCache.shared().converters(SolAttachmentConverters.CORRELATION_ID_KIND,
+              SolAttachmentConverters::correlationId);
+      mappers.add((record, properties, msg) -> {
+        if (record.key() != null) {
+          converters.get(record.keySchema()).apply(msg, record.key());
+        }
+      });
+    } else if (!"none".equalsIgnoreCase(correlationId)) {
+      throw new ConfigException(prefix + "correlation_id", correlationId, "Must be none or key");
+    }
+    return mappers;
+  }
+
+  private static Router router(Map<String, Object> props, String prefix) {
+    SolDestinationTemplate template = SolDestinationTemplate.compile(prefix + "topic", string(props, "topic", null));
+    return template::resolve;
+  }
+
+  private static boolean encodeBytes(SinkRecord record, Payload payload) {
+    Object value = record.value();
+    if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      payload.set(bytes, 0, bytes.length);
+    } else if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = (ByteBuffer) value;
+      if (buffer.hasArray()) {
+        payload.set(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      } else {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        payload.set(bytes, 0, bytes.length);
+      }
+    } else if (value instanceof String) {
+      byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+      payload.set(bytes, 0, bytes.length);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private static PayloadEncoder jsonEncoder() {
+    SolJsonSerializer serializer = new SolJsonSerializer();
+    return (record, payload) -> {
+      if (record.value() == null) {
+        return false;
+      }
+      serializer.serialize(record.valueSchema(), record.value());
+      payload.set(serializer.buffer(), 0, serializer.size());
+      return true;
+    };
+  }
+
+  /**
+   * Deflates payloads into a buffer reused across records.
+   */
+  static final class Compressor {
+    private final int minBytes;
+    private final Deflater deflater;
+    private byte[] buffer = new byte[4096];
+
+    Compressor(int minBytes, int level) {
+      this.minBytes = minBytes;
+      this.deflater = new Deflater(level);
+    }
+
+    /**
+     * @return true if the payload was replaced by its compressed form
+     */
+    boolean compress(Payload payload) {
+      if (payload.length < minBytes) {
+        return false;
+      }
+      deflater.reset();
+      deflater.setInput(payload.bytes, payload.offset, payload.length);
+      deflater.finish();
+      int size = 0;
+      while (!deflater.finished()) {
+        if (size == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        size += deflater.deflate(buffer, size, buffer.length - size);
+      }
+      payload.set(buffer, 0, size);
+      return true;
+    }
+  }
+
+  private static Map<String, Object> withPrefix(Map<String, ?> configs, String prefix) {
+    Map<String, Object> props = new HashMap<>();
+    for (Map.Entry<String, ?> entry : configs.entrySet()) {
+      if (entry.getKey().startsWith(prefix)) {
+        props.put(entry.getKey().substring(prefix.length()), entry.getValue());
+      }
+    }
+    return props;
+  }
+
+  private static String string(Map<String, Object> props, String key, String defaultValue) {
+    Object value = props.get(key);
+    return value != null ? value.toString().trim() : defaultValue;
+  }
+
+  private static int integer(Map<String, Object> props, String prefix, String key, int defaultValue, int min,
+                             int max) {
+    Object value = props.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      int parsed = Integer.parseInt(value.toString().trim());
+      if (parsed >= min && parsed <= max) {
+        return parsed;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+    throw new ConfigException(prefix + key, value, "Must be a number between " + min + " and " + max);
+  }
+}
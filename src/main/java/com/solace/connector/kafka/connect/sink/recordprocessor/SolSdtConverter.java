@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolSchemaConverterCache;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.MapMessage;
+import com.solacesystems.jcsmp.SDTException;
+import com.solacesystems.jcsmp.SDTMap;
+import com.solacesystems.jcsmp.SDTStream;
+import com.solacesystems.jcsmp.StreamMessage;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts Kafka Connect values into Solace structured data types. Structs and maps become an {@link SDTMap}
+ * carried by a {@link MapMessage}, arrays become an {@link SDTStream} carried by a {@link StreamMessage}, and
+ * any other value is written as the single element of a stream. The conversion plan of a {@link Schema} is
+ * compiled once and cached by schema instance in the {@link SolSchemaConverterCache}, so that primitives
+ * are put with their typed SDT method without inspecting the value. Values without a schema are converted
+ * by their Java type.
+ *
+ * <p>SDT has no decimal type, so {@link Decimal} values are written as strings. {@link Date} is written as
+ * days, {@link Time} and {@link Timestamp} as milliseconds since the epoch. Map keys that are not strings
+ * are converted with {@link String#valueOf}. Instances are not thread-safe.
+ */
+public final class SolSdtConverter {
+  private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+  /**
+   * Writes a value into an SDT container.
+   */
+  interface SdtWriter {
+    void put(SDTMap map, String key, Object value) throws SDTException;
+
+    void write(SDTStream stream, Object value) throws SDTException;
+  }
+
+  @FunctionalInterface
+  private interface MapFiller {
+    void fill(SDTMap map, Object value) throws SDTException;
+  }
+
+  @FunctionalInterface
+  private interface StreamFiller {
+    void fill(SDTStream stream, Object value) throws SDTException;
+  }
+
+  private final SolSchemaConverterCache.Converters<SdtWriter> writers =
+      SolSchemaConverterCache.shared().converters("sdt", SolSdtConverter::compile);
+  private final SchemalessWriter schemaless = new SchemalessWriter();
+
+  /**
+   * Convert a value into a structured message.
+   * @param schema schema of the value, or null to convert the value by its Java type
+   * @param value the value, not null
+   * @return a {@link MapMessage} or a {@link StreamMessage}
+   */
+  public BytesXMLMessage toMessage(Schema schema, Object value) throws SDTException {
+    if (schema == null && value instanceof Struct) {
+      schema = ((Struct) value).schema();
+    }
+    SDTMap map = null;
+    SDTStream stream = null;
+    if (schema == null) {
+      if (value instanceof Map) {
+        map = schemaless.buildMap((Map<?, ?>) value);
+      } else if (value instanceof Collection) {
+        stream = schemaless.buildStream((Collection<?>) value);
+      }
+    } else {
+      SdtWriter writer = writerFor(schema);
+      if (writer instanceof MapWriter) {
+        map = ((MapWriter) writer).build(value);
+      } else if (writer instanceof StreamWriter) {
+        stream = ((StreamWriter) writer).build(value);
+      }
+    }
+    if (map != null) {
+      MapMessage msg = JCSMPFactory.onlyInstance().createMessage(MapMessage.class);
+      msg.setMap(map);
+      return msg;
+    }
+    if (stream == null) {
+      stream = JCSMPFactory.onlyInstance().createStream();
+      writerFor(schema).write(stream, value);
+    }
+    StreamMessage msg = JCSMPFactory.onlyInstance().createMessage(StreamMessage.class);
+    msg.setStream(stream);
+    return msg;
+  }
+
+  SdtWriter writerFor(Schema schema) {
+    if (schema == null) {
+      return schemaless;
+    }
+    return writers.get(schema);
+  }
+
+  /**
+   * Compile the conversion plan of a schema, including the plans of nested schemas.
+   */
+  static SdtWriter compile(Schema schema) {
+    String logicalName = schema.name();
+    if (Decimal.LOGICAL_NAME.equals(logicalName)) {
+      return new PrimitiveWriter(
+          (map, key, value) -> map.putString(key, ((BigDecimal) value).toPlainString()),
+          (stream, value) -> stream.writeString(((BigDecimal) value).toPlainString()));
+    }
+    if (Date.LOGICAL_NAME.equals(logicalName)) {
+      return new PrimitiveWriter(
+          (map, key, value) -> map.putInteger(key, days((java.util.Date) value)),
+          (stream, value) -> stream.writeInteger(days((java.util.Date) value)));
+    }
+    if (Time.LOGICAL_NAME.equals(logicalName) || Timestamp.LOGICAL_NAME.equals(logicalName)) {
+      return new PrimitiveWriter(
+          (map, key, value) -> map.putLong(key, ((java.util.Date) value).getTime()),
+          (stream, value) -> stream.writeLong(((java.util.Date) value).getTime()));
+    }
+    switch (schema.type()) {
+      case INT8:
+        return new PrimitiveWriter((map, key, value) -> map.putByte(key, (Byte) value),
+            (stream, value) -> stream.writeByte((Byte) value));
+      case INT16:
+        return new PrimitiveWriter((map, key, value) -> map.putShort(key, (Short) value),
+            (stream, value) -> stream.writeShort((Short) value));
+      case INT32:
+        return new PrimitiveWriter((map, key, value) -> map.putInteger(key, (Integer) value),
+            (stream, value) -> stream.writeInteger((Integer) value));
+      case INT64:
+        return new PrimitiveWriter((map, key, value) -> map.putLong(key, (Long) value),
+            (stream, value) -> stream.writeLong((Long) value));
+      case FLOAT32:
+        return new PrimitiveWriter((map, key, value) -> map.putFloat(key, (Float) value),
+            (stream, value) -> stream.writeFloat((Float) value));
+      case FLOAT64:
+        return new PrimitiveWriter((map, key, value) -> map.putDouble(key, (Double) value),
+            (stream, value) -> stream.writeDouble((Double) value));
+      case BOOLEAN:
+        return new PrimitiveWriter((map, key, value) -> map.putBoolean(key, (Boolean) value),
+            (stream, value) -> stream.writeBoolean((Boolean) value));
+      case STRING:
+        return new PrimitiveWriter((map, key, value) -> map.putString(key, (String) value),
+            (stream, value) -> stream.writeString((String) value));
+      case BYTES:
+        return new PrimitiveWriter((map, key, value) -> map.putBytes(key, bytes(value)),
+            (stream, value) -> stream.writeBytes(bytes(value)));
+      case ARRAY: {
+        SdtWriter elementWriter = compile(schema.valueSchema());
+        return new StreamWriter((stream, value) -> {
+          for (Object element : (Collection<?>) value) {
+            elementWriter.write(stream, element);
+          }
+        });
+      }
+      case MAP: {
+        SdtWriter valueWriter = compile(schema.valueSchema());
+        return new MapWriter((map, value) -> {
+          for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            valueWriter.put(map, String.valueOf(entry.getKey()), entry.getValue());
+          }
+        });
+      }
+      case STRUCT: {
+        Field[] fields = schema.fields().toArray(new Field[0]);
+        SdtWriter[] fieldWriters = new SdtWriter[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+          fieldWriters[i] = compile(fields[i].schema());
+        }
+        return new MapWriter((map, value) -> {
+          Struct struct = (Struct) value;
+          for (int i = 0; i < fields.length; i++) {
+            fieldWriters[i].put(map, fields[i].name(), struct.get(fields[i]));
+          }
+        });
+      }
+      default:
+        throw new IllegalArgumentException("Unsupported schema type " + schema.type());
+    }
+  }
+
+  private static Integer days(java.util.Date date) {
+    return (int) Math.floorDiv(date.getTime(), MILLIS_PER_DAY);
+  }
+
+  private static byte[] bytes(Object value) {
+    if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = (ByteBuffer) value;
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.duplicate().get(bytes);
+      return bytes;
+    }
+    return (byte[]) value;
+  }
+
+  private static class PrimitiveWriter implements SdtWriter {
+    @FunctionalInterface
+    interface MapPut {
+      void put(SDTMap map, String key, Object value) throws SDTException;
+    }
+
+    @FunctionalInterface
+    interface StreamWrite {
+      void write(SDTStream stream, Object value) throws SDTException;
+    }
+
+    private final MapPut mapPut;
+    private final StreamWrite streamWrite;
+
+    PrimitiveWriter(MapPut mapPut, StreamWrite streamWrite) {
+      this.mapPut = mapPut;
+      this.streamWrite = streamWrite;
+    }
+
+    @Override
+    public void put(SDTMap map, String key, Object value) throws SDTException {
+      if (value == null) {
+        map.putObject(key, null);
+      } else {
+        mapPut.put(map, key, value);
+      }
+    }
+
+    @Override
+    public void write(SDTStream stream, Object value) throws SDTException {
+      if (value == null) {
+        stream.writeObject(null);
+      } else {
+        streamWrite.write(stream, value);
+      }
+    }
+  }
+
+  private static class MapWriter implements SdtWriter {
+    private final MapFiller filler;
+
+    MapWriter(MapFiller filler) {
+      this.filler = filler;
+    }
+
+    SDTMap build(Object value) throws SDTException {
+      SDTMap map = JCSMPFactory.onlyInstance().createMap();
+      filler.fill(map, value);
+      return map;
+    }
+
+    @Override
+    public void put(SDTMap map, String key, Object value) throws SDTException {
+      map.putMap(key, value != null ? build(value) : null);
+    }
+
+    @Override
+    public void write(SDTStream stream, Object value) throws SDTException {
+      stream.writeMap(value != null ? build(value) : null);
+    }
+  }
+
+  private static class StreamWriter implements SdtWriter {
+    private final StreamFiller filler;
+
+    StreamWriter(StreamFiller filler) {
+      this.filler = filler;
+    }
+
+    SDTStream build(Object value) throws SDTException {
+      SDTStream stream = JCSMPFactory.onlyInstance().createStream();
+      filler.fill(stream, value);
+      return stream;
+    }
+
+    @Override
+    public void put(SDTMap map, String key, Object value) throws SDTException {
+      map.putStream(key, value != null ? build(value) : null);
+    }
+
+    @Override
+    public void write(SDTStream stream, Object value) throws SDTException {
+      stream.writeStream(value != null ? build(value) : null);
+    }
+  }
+
+  /**
+   * Converts values without a schema by their Java type, using the compiled plan for structs.
+   */
+  private final class SchemalessWriter implements SdtWriter {
+
+    SDTMap buildMap(Map<?, ?> values) throws SDTException {
+      SDTMap map = JCSMPFactory.onlyInstance().createMap();
+      for (Map.Entry<?, ?> entry : values.entrySet()) {
+        put(map, String.valueOf(entry.getKey()), entry.getValue());
+      }
+      return map;
+    }
+
+    SDTStream buildStream(Collection<?> values) throws SDTException {
+      SDTStream stream = JCSMPFactory.onlyInstance().createStream();
+      for (Object element : values) {
+        write(stream, element);
+      }
+      return stream;
+    }
+
+    @Override
+    public void put(SDTMap map, String key, Object value) throws SDTException {
+      if (value instanceof Struct) {
+        writerFor(((Struct) value).schema()).put(map, key, value);
+      } else if (value instanceof Map) {
+        map.putMap(key, buildMap((Map<?, ?>) value));
+      } else if (value instanceof Collection) {
+        map.putStream(key, buildStream((Collection<?>) value));
+      } else {
+        map.putObject(key, scalar(value));
+      }
+    }
+
+    @Override
+    public void write(SDTStream stream, Object value) throws SDTException {
+      if (value instanceof Struct) {
+        writerFor(((Struct) value).schema()).write(stream, value);
+      } else if (value instanceof Map) {
+        stream.writeMap(buildMap((Map<?, ?>) value));
+      } else if (value instanceof Collection) {
+        stream.writeStream(buildStream((Collection<?>) value));
+      } else {
+        stream.writeObject(scalar(value));
+      }
+    }
+
+    private Object scalar(Object value) {
+      if (value instanceof ByteBuffer) {
+        return bytes(value);
+      }
+      if (value instanceof BigDecimal) {
+        return ((BigDecimal) value).toPlainString();
+      }
+      if (value instanceof java.util.Date) {
+        return ((java.util.Date) value).getTime();
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolRecordProcessorIF;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.SDTException;
+import com.solacesystems.jcsmp.SDTMap;
+
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes the record value as a Solace structured message, so that consumers can read typed fields
+ * without parsing the payload. Structs and maps become a {@link com.solacesystems.jcsmp.MapMessage}, arrays
+ * a {@link com.solacesystems.jcsmp.StreamMessage}, as converted by a {@link SolSdtConverter}.
+ */
+public class SolSdtRecordProcessor implements SolRecordProcessorIF {
+  private static final Logger log = LoggerFactory.getLogger(SolSdtRecordProcessor.class);
+
+  private final SolSdtConverter converter = new SolSdtConverter();
+
+  @Override
+  public BytesXMLMessage processRecord(String skey, SinkRecord record) {
+    BytesXMLMessage msg;
+    if (record.value() == null) {
+      // A record without a value leaves the message empty
+      msg = JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class);
+    } else {
+      try {
+        msg = converter.toMessage(record.valueSchema(), record.value());
+      } catch (SDTException e) {
+        throw new DataException(String.format("Failed to convert record from topic %s, partition %s and offset %s",
+            record.topic(), record.kafkaPartition(), record.kafkaOffset()), e);
+      }
+    }
+
+    // Add Record Topic,Partition,Offset to Solace Msg
+    String kafkaTopic = record.topic();
+    SDTMap userHeader = JCSMPFactory.onlyInstance().createMap();
+    try {
+      userHeader.putString("k_topic", kafkaTopic);
+      userHeader.putInteger("k_partition", record.kafkaPartition());
+      userHeader.putLong("k_offset", record.kafkaOffset());
+    } catch (SDTException e) {
+      log.info("Received Solace SDTException {}, with the following: {} ",
+          e.getCause(), e.getStackTrace());
+    }
+    msg.setProperties(userHeader);
+    msg.setApplicationMessageType("ResendOfKafkaTopic: " + kafkaTopic);
+    return msg;
+  }
+
+}
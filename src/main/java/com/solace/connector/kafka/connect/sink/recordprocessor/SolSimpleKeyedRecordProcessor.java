@@ -20,15 +20,12 @@
 package com.solace.connector.kafka.connect.sink.recordprocessor;
 
 import com.solace.connector.kafka.connect.sink.SolRecordProcessorIF;
+import com.solace.connector.kafka.connect.sink.SolSchemaConverterCache;
 import com.solacesystems.jcsmp.BytesXMLMessage;
 import com.solacesystems.jcsmp.JCSMPFactory;
 import com.solacesystems.jcsmp.SDTException;
 import com.solacesystems.jcsmp.SDTMap;
 
-import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
-
-import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +39,16 @@ public class SolSimpleKeyedRecordProcessor implements SolRecordProcessorIF {
 
   protected KeyHeader keyheader = KeyHeader.NONE; // default
 
+  private final SolSchemaConverterCache.Converters<SolAttachmentConverters.Converter> correlationIdConverters =
+      SolSchemaConverterCache.shared().converters(SolAttachmentConverters.CORRELATION_ID_KIND,
+          SolAttachmentConverters::correlationId);
+  private final SolSchemaConverterCache.Converters<SolAttachmentConverters.Converter>
+      stringCorrelationIdConverters = SolSchemaConverterCache.shared().converters(
+          SolAttachmentConverters.STRING_CORRELATION_ID_KIND, SolAttachmentConverters::stringCorrelationId);
+  private final SolSchemaConverterCache.Converters<SolAttachmentConverters.Converter> valueConverters =
+      SolSchemaConverterCache.shared().converters(SolAttachmentConverters.VALUE_KIND,
+          SolAttachmentConverters::attachment);
+
   @Override
   public BytesXMLMessage processRecord(String skey, SinkRecord record) {
     if (skey.equals("NONE")) {
@@ -70,71 +77,21 @@ public class SolSimpleKeyedRecordProcessor implements SolRecordProcessorIF {
     msg.setApplicationMessageType("ResendOfKafkaTopic: " + kafkaTopic);
 
     Object recordKey = record.key();
-    Schema keySchema = record.keySchema();
-
-    // If Topic was Keyed, use the key for correlationID
-    if (keyheader == KeyHeader.CORRELATION_ID || keyheader == KeyHeader.CORRELATION_ID_AS_BYTES) {
-      if (recordKey != null) {
-        if (keySchema == null) {
-          log.trace("No schema info {}", recordKey);
-          if (recordKey instanceof byte[]) {
-            msg.setCorrelationId(new String((byte[]) recordKey, StandardCharsets.UTF_8));
-          } else if (recordKey instanceof ByteBuffer) {
-            msg.setCorrelationId(new String(((ByteBuffer) recordKey).array(), StandardCharsets.UTF_8));
-          } else {
-            msg.setCorrelationId(recordKey.toString());
-          }
-        } else if (keySchema.type() == Schema.Type.BYTES) {
-          if (recordKey instanceof byte[]) {
-            msg.setCorrelationId(new String((byte[]) recordKey, StandardCharsets.UTF_8));
-          } else if (recordKey instanceof ByteBuffer) {
-            msg.setCorrelationId(new String(((ByteBuffer) recordKey).array(), StandardCharsets.UTF_8));
-          }
-        } else if (keySchema.type() == Schema.Type.STRING) {
-          msg.setCorrelationId((String) recordKey);
-        } else {
-          log.trace("No applicable schema type {}", keySchema.type());
-          // Nothing to do with no applicable schema type
-        }
-      } else {
-        // Nothing to do with null recordKey
-      }
-    } else if (keyheader == KeyHeader.DESTINATION && keySchema.type() == Schema.Type.STRING) {
+    if (recordKey != null) {
+      // If Topic was Keyed, use the key for correlationID
+      if (keyheader == KeyHeader.CORRELATION_ID || keyheader == KeyHeader.CORRELATION_ID_AS_BYTES) {
+        correlationIdConverters.get(record.keySchema()).apply(msg, recordKey);
+      } else if (keyheader == KeyHeader.DESTINATION) {
         // Destination is already determined by sink settings so set just the correlationId.
         // Receiving app can evaluate it
-        msg.setCorrelationId((String) recordKey);
-    } else {
-      // Do nothing in all other cases
+        stringCorrelationIdConverters.get(record.keySchema()).apply(msg, recordKey);
+      }
     }
 
-    Schema valueSchema = record.valueSchema();
     Object recordValue = record.value();
     // get message body details from record
     if (recordValue != null) {
-      if (valueSchema == null) {
-        log.trace("No schema info {}", recordValue);
-        if (recordValue instanceof byte[]) {
-          msg.writeAttachment((byte[]) recordValue);
-        } else if (recordValue instanceof ByteBuffer) {
-          msg.writeAttachment((byte[]) ((ByteBuffer) recordValue).array());
-        } else if (recordValue instanceof String) {
-          msg.writeAttachment(((String) recordValue).getBytes(StandardCharsets.UTF_8));
-        } else {
-          // Unknown recordValue type
-          msg.reset();
-        }
-      } else if (valueSchema.type() == Schema.Type.BYTES) {
-        if (recordValue instanceof byte[]) {
-          msg.writeAttachment((byte[]) recordValue);
-        } else if (recordValue instanceof ByteBuffer) {
-          msg.writeAttachment((byte[]) ((ByteBuffer) recordValue).array());
-        }
-      } else if (valueSchema.type() == Schema.Type.STRING) {
-        msg.writeAttachment(((String) recordValue).getBytes(StandardCharsets.UTF_8));
-      } else {
-        // Do nothing in all other cases
-        msg.reset();
-      }
+      valueConverters.get(record.valueSchema()).apply(msg, recordValue);
     } else {
       // Invalid message
       msg.reset();
@@ -20,15 +20,12 @@
 package com.solace.connector.kafka.connect.sink.recordprocessor;
 
 import com.solace.connector.kafka.connect.sink.SolRecordProcessorIF;
+import com.solace.connector.kafka.connect.sink.SolSchemaConverterCache;
 import com.solacesystems.jcsmp.BytesXMLMessage;
 import com.solacesystems.jcsmp.JCSMPFactory;
 import com.solacesystems.jcsmp.SDTException;
 import com.solacesystems.jcsmp.SDTMap;
 
-import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
-
-import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +33,10 @@ import org.slf4j.LoggerFactory;
 public class SolSimpleRecordProcessor implements SolRecordProcessorIF {
   private static final Logger log = LoggerFactory.getLogger(SolSimpleRecordProcessor.class);
 
+  private final SolSchemaConverterCache.Converters<SolAttachmentConverters.Converter> valueConverters =
+      SolSchemaConverterCache.shared().converters(SolAttachmentConverters.VALUE_KIND,
+          SolAttachmentConverters::attachment);
+
   @Override
   public BytesXMLMessage processRecord(String skey, SinkRecord record) {
     BytesXMLMessage msg = JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class);
@@ -54,34 +55,10 @@ public class SolSimpleRecordProcessor implements SolRecordProcessorIF {
     msg.setProperties(userHeader);
     msg.setApplicationMessageType("ResendOfKafkaTopic: " + kafkaTopic);
 
-    Schema valueSchema = record.valueSchema();
     Object recordValue = record.value();
     // get message body details from record
     if (recordValue != null) {
-      if (valueSchema == null) {
-        log.trace("No schema info {}", recordValue);
-        if (recordValue instanceof byte[]) {
-          msg.writeAttachment((byte[]) recordValue);
-        } else if (recordValue instanceof ByteBuffer) {
-          msg.writeAttachment((byte[]) ((ByteBuffer) recordValue).array());
-        } else if (recordValue instanceof String) {
-          msg.writeAttachment(((String) recordValue).getBytes(StandardCharsets.UTF_8));
-        } else {
-          // Unknown recordValue type
-          msg.reset();
-        }
-      } else if (valueSchema.type() == Schema.Type.BYTES) {
-        if (recordValue instanceof byte[]) {
-          msg.writeAttachment((byte[]) recordValue);
-        } else if (recordValue instanceof ByteBuffer) {
-          msg.writeAttachment((byte[]) ((ByteBuffer) recordValue).array());
-        }
-      } else if (valueSchema.type() == Schema.Type.STRING) {
-        msg.writeAttachment(((String) recordValue).getBytes(StandardCharsets.UTF_8));
-      } else {
-        // Do nothing in all other cases
-        msg.reset();
-      }
+      valueConverters.get(record.valueSchema()).apply(msg, recordValue);
     } else {
       // Invalid message
       msg.reset();
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolaceSinkConstants;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.SDTException;
+import com.solacesystems.jcsmp.SDTMap;
+
+import java.util.Map;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Converts records like the {@link SolSimpleRecordProcessor} and sends each to the topic built from the
+ * {@value SolaceSinkConstants#SOL_DYNAMIC_DESTINATION_TOPIC_TEMPLATE} template, such as
+ * {@code orders/{key}/{header:region}/{value.field:status}}. See {@link SolDestinationTemplate} for the
+ * placeholders. Requires {@code sol.dynamic_destination=true}.
+ */
+public class SolTemplateRoutingRecordProcessor extends SolSimpleRecordProcessor {
+
+  private SolDestinationTemplate template;
+
+  @Override
+  public void configure(Map<String, ?> configs) {
+    Object dynamicDestination = configs.get(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION);
+    if (!Boolean.parseBoolean(String.valueOf(dynamicDestination))) {
+      throw new ConfigException(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION, dynamicDestination,
+          "Must be true to route records by topic template");
+    }
+    Object topicTemplate = configs.get(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION_TOPIC_TEMPLATE);
+    template = SolDestinationTemplate.compile(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION_TOPIC_TEMPLATE,
+        topicTemplate != null ? topicTemplate.toString() : null);
+  }
+
+  @Override
+  public BytesXMLMessage processRecord(String skey, SinkRecord record) {
+    BytesXMLMessage msg = super.processRecord(skey, record);
+    SDTMap userHeader = msg.getProperties();
+    if (userHeader == null) {
+      userHeader = JCSMPFactory.onlyInstance().createMap();
+    }
+    try {
+      userHeader.putDestination("dynamicDestination", template.resolve(record));
+    } catch (SDTException e) {
+      throw new DataException(String.format("Failed to set destination of record from topic %s, partition %s "
+          + "and offset %s", record.topic(), record.kafkaPartition(), record.kafkaOffset()), e);
+    }
+    msg.setProperties(userHeader);
+    return msg;
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.Queue;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class SolAckProcessorTest {
+	@Test
+	public void testReleaseAcknowledgedMessagesBeyondRingCapacity() {
+		SolRetransmitBuffer retransmitBuffer = new SolRetransmitBuffer(3, 100);
+		SolPublisherWindow window = new SolPublisherWindow(255, 1, 255, null);
+		Queue queue = JCSMPFactory.onlyInstance().createQueue("queue");
+		int count = 64 * 100;
+		List<Object> keys = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			BytesXMLMessage message = JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class);
+			retransmitBuffer.track(null, message, queue);
+			keys.add(message.getCorrelationKey());
+		}
+
+		SolAckProcessor ackProcessor = new SolAckProcessor(retransmitBuffer, 64, "test-acks");
+		try {
+			for (Object key : keys) {
+				window.sent();
+				ackProcessor.offer(window, key, null);
+			}
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+				while (!retransmitBuffer.isEmpty()) {
+					retransmitBuffer.await(100);
+				}
+			});
+		} finally {
+			ackProcessor.close();
+		}
+		assertEquals(0, window.getOutstanding());
+	}
+}
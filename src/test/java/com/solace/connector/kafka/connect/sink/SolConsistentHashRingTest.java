@@ -0,0 +1,53 @@
+package com.solace.connector.kafka.connect.sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SolConsistentHashRingTest {
+	private static final int KEYS = 10000;
+
+	private static byte[] key(int i) {
+		return ("orders/" + i).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testSingleNodeOwnsAllKeys() {
+		SolConsistentHashRing ring = new SolConsistentHashRing(Collections.singletonList("default"), 10);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(0, ring.nodeFor(key(i)));
+		}
+	}
+
+	@Test
+	public void testKeysSpreadEvenly() {
+		SolConsistentHashRing ring = new SolConsistentHashRing(Arrays.asList("default", "east", "west"), 100);
+		int[] counts = new int[3];
+		for (int i = 0; i < KEYS; i++) {
+			counts[ring.nodeFor(key(i))]++;
+		}
+		for (int count : counts) {
+			assertTrue(count > KEYS / 3 * 0.7 && count < KEYS / 3 * 1.3, "Uneven distribution " + Arrays.toString(counts));
+		}
+	}
+
+	@Test
+	public void testAddingNodeOnlyMovesKeysToNewNode() {
+		SolConsistentHashRing before = new SolConsistentHashRing(Arrays.asList("default", "east", "west"), 100);
+		SolConsistentHashRing after = new SolConsistentHashRing(Arrays.asList("default", "east", "west", "north"), 100);
+		int moved = 0;
+		for (int i = 0; i < KEYS; i++) {
+			int node = after.nodeFor(key(i));
+			if (node != before.nodeFor(key(i))) {
+				assertEquals(3, node);
+				moved++;
+			}
+		}
+		assertTrue(moved > KEYS / 4 * 0.7 && moved < KEYS / 4 * 1.3, "Moved " + moved + " keys");
+	}
+}
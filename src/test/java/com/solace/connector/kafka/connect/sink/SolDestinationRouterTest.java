@@ -0,0 +1,60 @@
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.Destination;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.Queue;
+import com.solacesystems.jcsmp.Topic;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolDestinationRouterTest {
+	private static final String PREFIX = SolaceSinkConstants.SOL_DESTINATION_ROUTE_PREFIX;
+	private final Destination[] defaultDestinations = {JCSMPFactory.onlyInstance().createTopic("default")};
+
+	private SolDestinationRouter create(Map<String, String> config) {
+		return SolDestinationRouter.create(new SolaceSinkConnectorConfig(config), defaultDestinations);
+	}
+
+	@Test
+	public void testNoRoutes() {
+		assertNull(create(new HashMap<>()));
+	}
+
+	@Test
+	public void testRouteByTopic() {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_DESTINATION_ROUTES, "orders");
+		config.put(PREFIX + "orders.topics", "orders|payments");
+		config.put(PREFIX + "orders.queues", "q1,q2");
+		config.put(PREFIX + "orders.solace_topics", "orders/new");
+		SolDestinationRouter router = create(config);
+
+		router.open(Collections.singleton(new TopicPartition("orders", 0)));
+		Destination[] destinations = router.destinationsFor("orders");
+		assertEquals(3, destinations.length);
+		assertInstanceOf(Queue.class, destinations[0]);
+		assertEquals("q2", destinations[1].getName());
+		assertInstanceOf(Topic.class, destinations[2]);
+		assertEquals("orders/new", destinations[2].getName());
+		assertSame(defaultDestinations, router.destinationsFor("clicks"));
+	}
+
+	@Test
+	public void testRouteWithoutDestinations() {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_DESTINATION_ROUTES, "orders");
+		config.put(PREFIX + "orders.topics", "orders");
+		assertThrows(ConfigException.class, () -> create(config));
+	}
+}
@@ -0,0 +1,83 @@
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolLaneSchedulerTest {
+	private static SolaceSinkConnectorConfig config(String... keyValues) {
+		Map<String, String> props = new HashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			props.put(keyValues[i], keyValues[i + 1]);
+		}
+		return new SolaceSinkConnectorConfig(props);
+	}
+
+	private static SinkRecord record(String topic, long offset) {
+		return new SinkRecord(topic, 0, Schema.STRING_SCHEMA, null, Schema.STRING_SCHEMA, topic + offset, offset);
+	}
+
+	private static List<String> values(Collection<SinkRecord> records) {
+		return records.stream().map(r -> (String) r.value()).collect(Collectors.toList());
+	}
+
+	@Test
+	public void testNoSchedulerWithoutLanes() {
+		assertNull(SolLaneScheduler.create(config()));
+	}
+
+	@Test
+	public void testWeightedRoundRobinAcrossLanes() {
+		SolLaneScheduler scheduler = SolLaneScheduler.create(config(
+				SolaceSinkConstants.SOL_LANES, "control,bulk",
+				"sol.lane.control.topics", "control-.*",
+				"sol.lane.control.weight", "2",
+				"sol.lane.control.priority", "9",
+				"sol.lane.bulk.topics", "bulk"));
+		List<SinkRecord> records = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			records.add(record("bulk", i));
+		}
+		for (int i = 0; i < 3; i++) {
+			records.add(record("control-a", i));
+		}
+		records.add(record("other", 0));
+
+		assertEquals(Arrays.asList("control-a0", "control-a1", "bulk0", "other0", "control-a2", "bulk1", "bulk2"),
+				values(scheduler.schedule(records)));
+		assertEquals(9, scheduler.laneFor("control-a").priority);
+		assertEquals("control", scheduler.laneFor("control-a").flowName());
+		assertNull(scheduler.laneFor("other").flowName());
+
+		// State is reset between batches
+		assertEquals(Arrays.asList("control-a0", "bulk0"), values(scheduler.schedule(Arrays.asList(records.get(0), records.get(3)))));
+	}
+
+	@Test
+	public void testSingleLaneKeepsBatch() {
+		SolLaneScheduler scheduler = SolLaneScheduler.create(config(
+				SolaceSinkConstants.SOL_LANES, "control",
+				"sol.lane.control.topics", "control"));
+		List<SinkRecord> records = Arrays.asList(record("bulk", 0), record("bulk", 1));
+		assertSame(records, scheduler.schedule(records));
+	}
+
+	@Test
+	public void testLaneWithoutTopics() {
+		assertThrows(ConfigException.class, () -> SolLaneScheduler.create(config(SolaceSinkConstants.SOL_LANES, "control")));
+	}
+}
@@ -0,0 +1,90 @@
+package com.solace.connector.kafka.connect.sink;
+
+import com.solace.connector.kafka.connect.sink.recordprocessor.SolChainRecordProcessor;
+import com.solace.connector.kafka.connect.sink.recordprocessor.SolJsonRecordProcessor;
+import com.solace.connector.kafka.connect.sink.recordprocessor.SolSimpleRecordProcessor;
+import com.solace.connector.kafka.connect.sink.recordprocessor.SolTemplateRoutingRecordProcessor;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SolProcessorDispatcherTest {
+	private static final String PREFIX = SolaceSinkConstants.SOL_TOPIC_PROCESSOR_PREFIX;
+	private final SolRecordProcessorIF defaultProcessor = new SolSimpleRecordProcessor();
+
+	private SolProcessorDispatcher create(Map<String, String> config) {
+		return SolProcessorDispatcher.create(new SolaceSinkConnectorConfig(config), defaultProcessor);
+	}
+
+	@Test
+	public void testNoMappings() {
+		assertNull(create(new HashMap<>()));
+	}
+
+	@Test
+	public void testDispatchByTopic() {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_TOPIC_PROCESSORS, "json,filtered");
+		config.put(PREFIX + "json.topics", "orders|payments");
+		config.put(PREFIX + "json.class", SolJsonRecordProcessor.class.getName());
+		config.put(PREFIX + "filtered.topics", "audit-.*");
+		config.put(PREFIX + "filtered.class", SolChainRecordProcessor.class.getName());
+		// Overrides sol.record_processor.chain for this processor only
+		config.put(PREFIX + "filtered.record_processor.chain", "keyed");
+		config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_STAGE_PREFIX + "keyed.type", "filter");
+		config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_STAGE_PREFIX + "keyed.require_key", "true");
+		SolProcessorDispatcher dispatcher = create(config);
+
+		dispatcher.open(Arrays.asList(new TopicPartition("orders", 0), new TopicPartition("audit-eu", 0)));
+		assertInstanceOf(SolJsonRecordProcessor.class, dispatcher.processorFor("orders"));
+		assertSame(defaultProcessor, dispatcher.processorFor("clicks"));
+
+		SolRecordProcessorIF audit = dispatcher.processorFor("audit-eu");
+		assertInstanceOf(SolChainRecordProcessor.class, audit);
+		assertNull(audit.processRecord("NONE", new SinkRecord("audit-eu", 0, null, null, null, "v", 0)));
+		assertInstanceOf(BytesXMLMessage.class,
+				audit.processRecord("NONE", new SinkRecord("audit-eu", 0, null, "k", null, "v", 0)));
+	}
+
+	@Test
+	public void testDynamicDestinationPerMapping() {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_TOPIC_PROCESSORS, "routed");
+		config.put(PREFIX + "routed.topics", "orders");
+		config.put(PREFIX + "routed.class", SolTemplateRoutingRecordProcessor.class.getName());
+		config.put(PREFIX + "routed.dynamic_destination", "true");
+		config.put(PREFIX + "routed.dynamic_destination.topic_template", "orders/{key}");
+		SolProcessorDispatcher dispatcher = create(config);
+
+		assertInstanceOf(SolTemplateRoutingRecordProcessor.class, dispatcher.processorFor("orders"));
+		assertTrue(dispatcher.isDynamicDestination("orders"));
+		assertFalse(dispatcher.isDynamicDestination("clicks"));
+
+		config.put(PREFIX + "routed.dynamic_destination", "maybe");
+		assertThrows(ConfigException.class, () -> create(config));
+	}
+
+	@Test
+	public void testInvalidMappings() {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_TOPIC_PROCESSORS, "json");
+		config.put(PREFIX + "json.topics", "orders");
+		assertThrows(ConfigException.class, () -> create(config));
+
+		config.put(PREFIX + "json.class", "com.example.Missing");
+		assertThrows(ConfigException.class, () -> create(config));
+	}
+}
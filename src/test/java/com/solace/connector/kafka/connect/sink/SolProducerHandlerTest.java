@@ -0,0 +1,106 @@
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.JCSMPSession;
+import com.solacesystems.jcsmp.JCSMPStreamingPublishCorrelatingEventHandler;
+import com.solacesystems.jcsmp.Queue;
+import com.solacesystems.jcsmp.XMLMessage;
+import com.solacesystems.jcsmp.XMLMessageProducer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SolProducerHandlerTest {
+	@Test
+	public void testDedicatedQueueFlowsUpToMaximum() throws Exception {
+		XMLMessageProducer sharedFlow = Mockito.mock(XMLMessageProducer.class);
+		XMLMessageProducer firstFlow = Mockito.mock(XMLMessageProducer.class);
+		XMLMessageProducer secondFlow = Mockito.mock(XMLMessageProducer.class);
+		JCSMPSession session = Mockito.mock(JCSMPSession.class);
+		Mockito.when(session.createProducer(Mockito.any(), Mockito.any(), Mockito.any()))
+				.thenReturn(sharedFlow, firstFlow, secondFlow);
+		SolSessionHandler sessionHandler = Mockito.mock(SolSessionHandler.class);
+		Mockito.when(sessionHandler.getSession()).thenReturn(session);
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE, "false");
+		properties.put(SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS, "2");
+		SolProducerHandler producerHandler = new SolProducerHandler(new SolaceSinkConnectorConfig(properties),
+				sessionHandler, null);
+
+		Queue[] queues = new Queue[3];
+		for (int i = 0; i < queues.length; i++) {
+			queues[i] = JCSMPFactory.onlyInstance().createQueue("queue" + i);
+			producerHandler.send(JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class), queues[i]);
+		}
+		producerHandler.send(JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class), queues[0]);
+
+		Mockito.verify(firstFlow, Mockito.times(2)).send(Mockito.any(XMLMessage.class), Mockito.eq(queues[0]));
+		Mockito.verify(secondFlow).send(Mockito.any(XMLMessage.class), Mockito.eq(queues[1]));
+		Mockito.verify(sharedFlow).send(Mockito.any(XMLMessage.class), Mockito.eq(queues[2]));
+		assertEquals(2, producerHandler.queueFlows.size());
+
+		producerHandler.close();
+		Mockito.verify(firstFlow).close();
+		Mockito.verify(secondFlow).close();
+	}
+
+	@Test
+	public void testCloseIdleQueueFlow() throws Exception {
+		XMLMessageProducer sharedFlow = Mockito.mock(XMLMessageProducer.class);
+		XMLMessageProducer firstFlow = Mockito.mock(XMLMessageProducer.class);
+		XMLMessageProducer secondFlow = Mockito.mock(XMLMessageProducer.class);
+		JCSMPSession session = Mockito.mock(JCSMPSession.class);
+		ArgumentCaptor<JCSMPStreamingPublishCorrelatingEventHandler> handlers =
+				ArgumentCaptor.forClass(JCSMPStreamingPublishCorrelatingEventHandler.class);
+		Mockito.when(session.createProducer(Mockito.any(), handlers.capture(), Mockito.any()))
+				.thenReturn(sharedFlow, firstFlow, secondFlow);
+		SolProducerHandler producerHandler = createIdleEvictingHandler(session);
+
+		Queue first = JCSMPFactory.onlyInstance().createQueue("first");
+		Queue second = JCSMPFactory.onlyInstance().createQueue("second");
+		producerHandler.send(JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class), first);
+		handlers.getAllValues().get(1).responseReceivedEx(null);
+		Thread.sleep(5);
+		producerHandler.send(JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class), second);
+
+		Mockito.verify(firstFlow).close();
+		Mockito.verify(secondFlow).send(Mockito.any(XMLMessage.class), Mockito.eq(second));
+	}
+
+	@Test
+	public void testKeepIdleQueueFlowWithUnacknowledgedMessages() throws Exception {
+		XMLMessageProducer sharedFlow = Mockito.mock(XMLMessageProducer.class);
+		XMLMessageProducer firstFlow = Mockito.mock(XMLMessageProducer.class);
+		JCSMPSession session = Mockito.mock(JCSMPSession.class);
+		Mockito.when(session.createProducer(Mockito.any(), Mockito.any(), Mockito.any()))
+				.thenReturn(sharedFlow, firstFlow);
+		SolProducerHandler producerHandler = createIdleEvictingHandler(session);
+
+		Queue first = JCSMPFactory.onlyInstance().createQueue("first");
+		Queue second = JCSMPFactory.onlyInstance().createQueue("second");
+		producerHandler.send(JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class), first);
+		Thread.sleep(5);
+		producerHandler.send(JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class), second);
+
+		Mockito.verify(firstFlow, Mockito.never()).close();
+		Mockito.verify(sharedFlow).send(Mockito.any(XMLMessage.class), Mockito.eq(second));
+		assertEquals(1, producerHandler.queueFlows.size());
+	}
+
+	private static SolProducerHandler createIdleEvictingHandler(final JCSMPSession session) throws Exception {
+		SolSessionHandler sessionHandler = Mockito.mock(SolSessionHandler.class);
+		Mockito.when(sessionHandler.getSession()).thenReturn(session);
+		Map<String, String> properties = new HashMap<>();
+		properties.put(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE, "false");
+		properties.put(SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS, "1");
+		properties.put(SolaceSinkConstants.SOL_QUEUE_PRODUCER_FLOW_IDLE_TIMEOUT_MS, "1");
+		return new SolProducerHandler(new SolaceSinkConnectorConfig(properties), sessionHandler, null);
+	}
+}
@@ -0,0 +1,58 @@
+package com.solace.connector.kafka.connect.sink;
+
+import com.solacesystems.jcsmp.ProducerEvent;
+import com.solacesystems.jcsmp.SessionEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SolPublishRateControllerTest {
+	@Test
+	public void testHoldBackWhileReconnecting() {
+		SolPublishRateController rateController = new SolPublishRateController(100, 5000);
+		assertTrue(rateController.isPublishingAllowed());
+		rateController.onSessionEvent(SessionEvent.RECONNECTING);
+		assertFalse(rateController.isPublishingAllowed());
+		assertEquals("RECONNECTING", rateController.getState());
+		assertEquals(1, rateController.getReconnectCount());
+	}
+
+	@Test
+	public void testThrottleAfterReconnect() {
+		SolPublishRateController rateController = new SolPublishRateController(100, 5000);
+		rateController.onSessionEvent(SessionEvent.RECONNECTING);
+		rateController.onSessionEvent(SessionEvent.RECONNECTED);
+		assertTrue(rateController.isPublishingAllowed());
+		assertEquals("RECOVERING", rateController.getState());
+		assertTrue(rateController.recordSent(1000) > 1000);
+		assertTrue(rateController.getThrottleDelayMillis() > 0);
+		assertEquals(1, rateController.getThrottledCount());
+
+		assertTrue(rateController.takeFlowReset());
+		assertFalse(rateController.takeFlowReset());
+		assertFalse(rateController.takeReplay());
+
+		rateController.connected();
+		assertEquals(0, rateController.getThrottleDelayMillis());
+	}
+
+	@Test
+	public void testReplayAfterDrFailover() {
+		SolPublishRateController rateController = new SolPublishRateController(100, 0);
+		rateController.onSessionEvent(SessionEvent.VIRTUAL_ROUTER_NAME_CHANGED);
+		assertEquals("CONNECTED", rateController.getState());
+		assertEquals(0, rateController.recordSent(1000));
+		assertTrue(rateController.takeReplay());
+		assertTrue(rateController.takeFlowReset());
+	}
+
+	@Test
+	public void testResetFlowStateOnRepublish() {
+		SolPublishRateController rateController = new SolPublishRateController(100, 5000);
+		rateController.onProducerEvent(ProducerEvent.REPUBLISH_UNACKED_MESSAGES);
+		assertTrue(rateController.takeFlowReset());
+		assertEquals("REPUBLISH_UNACKED_MESSAGES", rateController.getLastEvent());
+	}
+}
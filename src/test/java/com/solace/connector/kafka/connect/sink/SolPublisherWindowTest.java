@@ -0,0 +1,54 @@
+package com.solace.connector.kafka.connect.sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SolPublisherWindowTest {
+	private static final long INTERVAL = TimeUnit.SECONDS.toNanos(2);
+
+	@Test
+	public void testAcknowledgementCompletesOldestSend() {
+		SolPublisherWindow window = new SolPublisherWindow(50, 1, 255, null);
+		window.sent();
+		window.sent();
+		window.unsent();
+		assertEquals(1, window.getOutstanding());
+		window.acknowledged(System.nanoTime());
+		window.acknowledged(System.nanoTime());
+		assertEquals(0, window.getOutstanding());
+	}
+
+	@Test
+	public void testShrinkWindowWithinBounds() {
+		SolPublisherWindow window = new SolPublisherWindow(50, 10, 255, null);
+		for (int i = 0; i < 20; i++) {
+			window.sent();
+			window.acknowledged(System.nanoTime());
+		}
+		assertEquals(0, window.proposeWindowSize(System.nanoTime()));
+		assertEquals(10, window.proposeWindowSize(System.nanoTime() + INTERVAL));
+	}
+
+	@Test
+	public void testKeepWindowWithoutEnoughSamples() {
+		SolPublisherWindow window = new SolPublisherWindow(50, 1, 255, null);
+		for (int i = 0; i < 5; i++) {
+			window.sent();
+			window.acknowledged(System.nanoTime());
+		}
+		assertEquals(0, window.proposeWindowSize(System.nanoTime() + INTERVAL));
+	}
+
+	@Test
+	public void testKeepWindowOnSmallChange() {
+		SolPublisherWindow window = new SolPublisherWindow(12, 10, 255, null);
+		for (int i = 0; i < 20; i++) {
+			window.sent();
+			window.acknowledged(System.nanoTime());
+		}
+		assertEquals(0, window.proposeWindowSize(System.nanoTime() + INTERVAL));
+	}
+}
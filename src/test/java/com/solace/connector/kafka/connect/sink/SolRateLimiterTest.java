@@ -0,0 +1,81 @@
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class SolRateLimiterTest {
+	private static final long START = 0;
+	private final TopicPartition tp0 = new TopicPartition("orders", 0);
+	private final TopicPartition tp1 = new TopicPartition("orders", 1);
+	private final List<TopicPartition> assignment = Arrays.asList(tp0, tp1);
+	private SolPartitionBackpressure backpressure;
+
+	@BeforeEach
+	void setUp() {
+		backpressure = new SolPartitionBackpressure(mock(SinkTaskContext.class));
+	}
+
+	@Test
+	public void testNoPauseWithinLimit() {
+		SolRateLimiter limiter = new SolRateLimiter(10, 0, 0, 0);
+		for (int i = 0; i < 10; i++) {
+			limiter.sent(tp0, "a", 100, START);
+		}
+		assertEquals(0, limiter.engage(backpressure, assignment, START));
+		assertFalse(backpressure.isPaused(tp0));
+	}
+
+	@Test
+	public void testPauseOnlyPartitionsSendingToDestinationOverLimit() {
+		SolRateLimiter limiter = new SolRateLimiter(10, 0, 0, 0);
+		for (int i = 0; i < 15; i++) {
+			limiter.sent(tp0, "a", 100, START);
+		}
+		limiter.sent(tp1, "b", 100, START);
+		assertEquals(500, limiter.engage(backpressure, assignment, START));
+		assertTrue(backpressure.isPaused(tp0));
+		assertFalse(backpressure.isPaused(tp1));
+
+		limiter.release(backpressure, START + TimeUnit.MILLISECONDS.toNanos(499));
+		assertTrue(backpressure.isPaused(tp0));
+		limiter.release(backpressure, START + TimeUnit.MILLISECONDS.toNanos(500));
+		assertFalse(backpressure.isPaused(tp0));
+	}
+
+	@Test
+	public void testGlobalByteLimitPausesAllAssignedPartitions() {
+		SolRateLimiter limiter = new SolRateLimiter(0, 0, 0, 1000);
+		limiter.sent(tp0, "a", 1500, START);
+		assertEquals(500, limiter.engage(backpressure, assignment, START));
+		assertTrue(backpressure.isPaused(tp0));
+		assertTrue(backpressure.isPaused(tp1));
+
+		limiter.release(backpressure, START + TimeUnit.SECONDS.toNanos(1));
+		assertFalse(backpressure.isPaused(tp0));
+		assertFalse(backpressure.isPaused(tp1));
+	}
+
+	@Test
+	public void testBucketRefillsOverTime() {
+		SolRateLimiter limiter = new SolRateLimiter(10, 0, 0, 0);
+		for (int i = 0; i < 10; i++) {
+			limiter.sent(tp0, "a", 100, START);
+		}
+		long later = START + TimeUnit.MILLISECONDS.toNanos(500);
+		for (int i = 0; i < 5; i++) {
+			limiter.sent(tp0, "a", 100, later);
+		}
+		assertEquals(0, limiter.engage(backpressure, assignment, later));
+	}
+}
@@ -0,0 +1,76 @@
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SolSchemaConverterCacheTest {
+	private final AtomicInteger compiled = new AtomicInteger();
+
+	private Object compile(Schema schema) {
+		compiled.incrementAndGet();
+		return new Object();
+	}
+
+	@Test
+	public void testCompiledOncePerSchemaInstance() {
+		SolSchemaConverterCache cache = new SolSchemaConverterCache(10);
+		SolSchemaConverterCache.Converters<Object> first = cache.converters("kind", this::compile);
+		SolSchemaConverterCache.Converters<Object> second = cache.converters("kind", this::compile);
+		Schema schema = SchemaBuilder.struct().field("f", Schema.STRING_SCHEMA).build();
+		Schema equalSchema = SchemaBuilder.struct().field("f", Schema.STRING_SCHEMA).build();
+
+		Object converter = first.get(schema);
+		assertSame(converter, first.get(schema));
+		assertSame(converter, second.get(schema));
+		assertNotSame(converter, first.get(equalSchema));
+		assertEquals(2, compiled.get());
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, cache.getHits());
+		assertEquals(2, cache.getSize());
+	}
+
+	@Test
+	public void testKindsAndVersionsCachedSeparately() {
+		SolSchemaConverterCache cache = new SolSchemaConverterCache(10);
+		Schema v1 = SchemaBuilder.string().version(1).build();
+		Schema v2 = SchemaBuilder.string().version(2).build();
+
+		cache.converters("key", this::compile).get(v1);
+		cache.converters("value", this::compile).get(v1);
+		cache.converters("value", this::compile).get(v2);
+		cache.converters("value", this::compile).get(null);
+		cache.converters("value", this::compile).get(null);
+		assertEquals(4, compiled.get());
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvicted() {
+		SolSchemaConverterCache cache = new SolSchemaConverterCache(2);
+		Schema a = SchemaBuilder.string().build();
+		Schema b = SchemaBuilder.int32().build();
+		Schema c = SchemaBuilder.int64().build();
+
+		cache.lookup("kind", a, this::compile);
+		cache.lookup("kind", b, this::compile);
+		cache.lookup("kind", a, this::compile);
+		cache.lookup("kind", c, this::compile);
+		assertEquals(2, cache.getSize());
+		assertEquals(1, cache.getEvictions());
+
+		cache.lookup("kind", a, this::compile);
+		assertEquals(3, compiled.get());
+		cache.lookup("kind", b, this::compile);
+		assertEquals(4, compiled.get());
+
+		cache.setMaxEntries(1);
+		assertEquals(1, cache.getSize());
+	}
+}
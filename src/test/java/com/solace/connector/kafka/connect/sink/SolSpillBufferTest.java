@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.solace.connector.kafka.connect.sink;
+
+import com.solace.connector.kafka.connect.sink.recordprocessor.SolChainRecordProcessor;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.JCSMPFactory;
+import com.solacesystems.jcsmp.MapMessage;
+import com.solacesystems.jcsmp.Queue;
+import com.solacesystems.jcsmp.SDTException;
+import com.solacesystems.jcsmp.SDTMap;
+import com.solacesystems.jcsmp.Topic;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SolSpillBufferTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    public void shouldDrainEntriesInOrderAcrossSegments() throws IOException {
+        try (SolSpillBuffer spillBuffer = SolSpillBuffer.open(spillDirectory, SEGMENT_BYTES, 4)) {
+            assertTrue(spillBuffer.isEmpty());
+            for (int i = 0; i < 30; i++) {
+                assertTrue(spillBuffer.append(entry(i)));
+            }
+            assertFalse(spillBuffer.isEmpty());
+            for (int i = 0; i < 30; i++) {
+                assertArrayEquals(entry(i), spillBuffer.next());
+            }
+            assertNull(spillBuffer.next());
+            spillBuffer.commitRead();
+            assertTrue(spillBuffer.isEmpty());
+        }
+    }
+
+    @Test
+    public void shouldReturnFalseWhenFull() throws IOException {
+        try (SolSpillBuffer spillBuffer = SolSpillBuffer.open(spillDirectory, SEGMENT_BYTES, 1)) {
+            int appended = 0;
+            while (spillBuffer.append(entry(appended))) {
+                appended++;
+            }
+            assertTrue(appended > 0);
+
+            // Drained segments are recycled
+            while (spillBuffer.next() != null) {
+                spillBuffer.commitRead();
+            }
+            assertTrue(spillBuffer.isEmpty());
+            assertTrue(spillBuffer.append(entry(appended)));
+            assertArrayEquals(entry(appended), spillBuffer.next());
+        }
+    }
+
+    @Test
+    public void shouldRedeliverEntriesAfterRewind() throws IOException {
+        try (SolSpillBuffer spillBuffer = SolSpillBuffer.open(spillDirectory, SEGMENT_BYTES, 4)) {
+            for (int i = 0; i < 20; i++) {
+                spillBuffer.append(entry(i));
+            }
+            for (int i = 0; i < 5; i++) {
+                spillBuffer.next();
+            }
+            spillBuffer.commitRead();
+            for (int i = 5; i < 15; i++) {
+                spillBuffer.next();
+            }
+            spillBuffer.rewind();
+            assertArrayEquals(entry(5), spillBuffer.next());
+        }
+    }
+
+    @Test
+    public void shouldRecoverUndeliveredEntriesAfterReopen() throws IOException {
+        try (SolSpillBuffer spillBuffer = SolSpillBuffer.open(spillDirectory, SEGMENT_BYTES, 4)) {
+            for (int i = 0; i < 20; i++) {
+                spillBuffer.append(entry(i));
+            }
+            for (int i = 0; i < 12; i++) {
+                spillBuffer.next();
+            }
+            spillBuffer.commitRead();
+            spillBuffer.next();
+        }
+
+        try (SolSpillBuffer spillBuffer = SolSpillBuffer.open(spillDirectory, SEGMENT_BYTES, 4)) {
+            for (int i = 12; i < 20; i++) {
+                assertArrayEquals(entry(i), spillBuffer.next());
+            }
+            assertNull(spillBuffer.next());
+        }
+    }
+
+    @Test
+    public void shouldDiscardTornEntryOnRecovery() throws IOException {
+        try (SolSpillBuffer spillBuffer = SolSpillBuffer.open(spillDirectory, SEGMENT_BYTES, 4)) {
+            spillBuffer.append(entry(0));
+            spillBuffer.append(entry(1));
+        }
+
+        // Corrupt the payload of the second entry
+        Path segment = spillDirectory.resolve("task-0").resolve("segment-0.spill");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            int secondPayload = SolSpillSegment.HEADER_SIZE + 8 + entry(0).length + 8;
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), secondPayload);
+        }
+
+        try (SolSpillBuffer spillBuffer = SolSpillBuffer.open(spillDirectory, SEGMENT_BYTES, 4)) {
+            assertArrayEquals(entry(0), spillBuffer.next());
+            assertNull(spillBuffer.next());
+        }
+    }
+
+    @Test
+    public void shouldUseSeparateDirectoryPerOpenBuffer() throws IOException {
+        try (SolSpillBuffer first = SolSpillBuffer.open(spillDirectory, SEGMENT_BYTES, 4);
+             SolSpillBuffer second = SolSpillBuffer.open(spillDirectory, SEGMENT_BYTES, 4)) {
+            first.append(entry(0));
+            assertFalse(first.isEmpty());
+            assertTrue(second.isEmpty());
+        }
+    }
+
+    @Test
+    public void shouldRestoreSpilledMessage() throws IOException, SDTException {
+        BytesXMLMessage message = JCSMPFactory.onlyInstance().createMessage(BytesXMLMessage.class);
+        message.writeAttachment("payload".getBytes(StandardCharsets.UTF_8));
+        message.setCorrelationId("correlation");
+        message.setApplicationMessageType("type");
+        SDTMap properties = JCSMPFactory.onlyInstance().createMap();
+        properties.putString("string", "value");
+        properties.putLong("long", 42L);
+        properties.putBytes("bytes", new byte[] {1, 2});
+        message.setProperties(properties);
+        Queue queue = JCSMPFactory.onlyInstance().createQueue("queue");
+
+        SolSpillCodec.Entry entry = SolSpillCodec.decode(SolSpillCodec.encode(message, queue));
+
+        assertEquals(queue, entry.destination);
+        assertArrayEquals("payload".getBytes(StandardCharsets.UTF_8), entry.message.getAttachmentByteBuffer().array());
+        assertEquals("correlation", entry.message.getCorrelationId());
+        assertEquals("type", entry.message.getApplicationMessageType());
+        assertEquals("value", entry.message.getProperties().getString("string"));
+        assertEquals(42L, entry.message.getProperties().getLong("long"));
+        assertArrayEquals(new byte[] {1, 2}, entry.message.getProperties().getBytes("bytes"));
+    }
+
+    @Test
+    public void shouldRestoreSpilledMapMessage() throws IOException, SDTException {
+        MapMessage message = JCSMPFactory.onlyInstance().createMessage(MapMessage.class);
+        SDTMap map = JCSMPFactory.onlyInstance().createMap();
+        map.putString("name", "value");
+        map.putInteger("count", 3);
+        message.setMap(map);
+        Topic topic = JCSMPFactory.onlyInstance().createTopic("topic");
+
+        SolSpillCodec.Entry entry = SolSpillCodec.decode(SolSpillCodec.encode((BytesXMLMessage) message, topic));
+
+        assertEquals(topic, entry.destination);
+        assertInstanceOf(MapMessage.class, entry.message);
+        SDTMap restored = ((MapMessage) entry.message).getMap();
+        assertEquals("value", restored.getString("name"));
+        assertEquals(3, restored.getInteger("count"));
+    }
+
+    @Test
+    public void shouldRestoreContentTypeAndEncodingOfCompressedChainMessage() throws IOException {
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, "json, zip");
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_STAGE_PREFIX + "json.type", "payload");
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_STAGE_PREFIX + "json.format", "json");
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_STAGE_PREFIX + "zip.type", "compress");
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_STAGE_PREFIX + "zip.min_bytes", "0");
+        SolChainRecordProcessor processor = new SolChainRecordProcessor();
+        processor.configure(config);
+        Schema schema = SchemaBuilder.struct().field("id", Schema.INT32_SCHEMA).build();
+        BytesXMLMessage message = processor.processRecord("NONE",
+                new SinkRecord("topic", 0, null, null, schema, new Struct(schema).put("id", 7), 0));
+        assertEquals("application/json", message.getHTTPContentType());
+        assertEquals("deflate", message.getHTTPContentEncoding());
+        Queue queue = JCSMPFactory.onlyInstance().createQueue("queue");
+
+        SolSpillCodec.Entry entry = SolSpillCodec.decode(SolSpillCodec.encode(message, queue));
+
+        assertEquals("application/json", entry.message.getHTTPContentType());
+        assertEquals("deflate", entry.message.getHTTPContentEncoding());
+        byte[] compressed = new byte[message.getAttachmentContentLength()];
+        message.readAttachmentBytes(compressed);
+        assertArrayEquals(compressed, entry.message.getAttachmentByteBuffer().array());
+    }
+
+    private static byte[] entry(int i) {
+        return String.format("entry-%04d-%080d", i, i).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+package com.solace.connector.kafka.connect.sink;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolTopicTableTest {
+	@Test
+	public void testFirstMatchingEntry() {
+		SolTopicTable<String> table = new SolTopicTable<>("test", "default");
+		table.add("orders", Pattern.compile("orders|payments"), "orders");
+		table.add("all", Pattern.compile(".*s"), "all");
+
+		table.open(Collections.singleton(new TopicPartition("orders", 0)));
+		assertEquals("orders", table.get("orders"));
+		assertEquals("orders", table.get("payments"));
+		assertEquals("all", table.get("clicks"));
+		assertEquals("default", table.get("audit"));
+	}
+
+	@Test
+	public void testForgetClosedTopics() {
+		SolTopicTable<String> table = new SolTopicTable<>("test", "default");
+		table.add("orders", Pattern.compile("orders"), "orders");
+		TopicPartition first = new TopicPartition("orders", 0);
+		TopicPartition second = new TopicPartition("orders", 1);
+		table.open(Arrays.asList(first, second));
+		table.get("clicks");
+		assertEquals(2, table.size());
+
+		table.close(Collections.singleton(first));
+		assertEquals(2, table.size());
+		table.close(Arrays.asList(second, new TopicPartition("clicks", 0)));
+		assertEquals(0, table.size());
+	}
+
+	@Test
+	public void testTopics() {
+		Map<String, Object> props = new HashMap<>();
+		assertThrows(ConfigException.class, () -> SolTopicTable.topics("p.", props));
+		props.put("topics", "orders(");
+		assertThrows(ConfigException.class, () -> SolTopicTable.topics("p.", props));
+		props.put("topics", " orders|payments ");
+		assertEquals("orders|payments", SolTopicTable.topics("p.", props).pattern());
+	}
+}
@@ -2,13 +2,20 @@ package com.solace.connector.kafka.connect.sink;
 
 import com.solacesystems.jcsmp.JCSMPProperties;
 import org.apache.commons.lang.RandomStringUtils;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SolaceSessionHandlerTest {
 	@ParameterizedTest
@@ -41,4 +48,49 @@ public class SolaceSessionHandlerTest {
 		sessionHandler.configureSession();
 		assertEquals(properties.get(connectorProperty), sessionHandler.properties.getStringProperty(jcsmpProperty));
 	}
+
+	@Test
+	public void testConfigureClientNameLocalhostAndSenderId() {
+		Map<String, String> properties = new HashMap<>();
+		properties.put(SolaceSinkConstants.SOL_CLIENT_NAME, "sink-0");
+		properties.put(SolaceSinkConstants.SOL_LOCALHOST, "10.0.0.5");
+		properties.put(SolaceSinkConstants.SOL_GENERATE_SENDER_ID, "true");
+		SolSessionHandler sessionHandler = new SolSessionHandler(new SolaceSinkConnectorConfig(properties));
+		sessionHandler.configureSession();
+		assertEquals("sink-0", sessionHandler.properties.getStringProperty(JCSMPProperties.CLIENT_NAME));
+		assertEquals("10.0.0.5", sessionHandler.properties.getStringProperty(JCSMPProperties.LOCALHOST));
+		assertTrue(sessionHandler.properties.getBooleanProperty(JCSMPProperties.GENERATE_SENDER_ID));
+	}
+
+	@Test
+	public void testKeepGeneratedClientNameByDefault() {
+		SolSessionHandler sessionHandler = new SolSessionHandler(new SolaceSinkConnectorConfig(new HashMap<>()));
+		sessionHandler.configureSession();
+		assertNotEquals("default", sessionHandler.properties.getStringProperty(JCSMPProperties.CLIENT_NAME));
+	}
+
+	@Test
+	public void testStandbyClientNameSuffix() {
+		Map<String, String> properties = new HashMap<>();
+		properties.put(SolaceSinkConstants.SOL_CLIENT_NAME, "sink-0");
+		SolSessionHandler sessionHandler = new SolSessionHandler(new SolaceSinkConnectorConfig(properties),
+				"tcp://standby:55555", "-standby");
+		sessionHandler.configureSession();
+		assertEquals("sink-0-standby", sessionHandler.properties.getStringProperty(JCSMPProperties.CLIENT_NAME));
+		assertEquals("tcp://standby:55555", sessionHandler.properties.getStringProperty(JCSMPProperties.HOST));
+	}
+
+	@Test
+	public void testAllDefinedKeysApplied() {
+		assertDoesNotThrow(() -> SolSessionPropertyBinding.verifyAllApplied(SolaceSinkConnectorConfig.config));
+	}
+
+	@Test
+	public void testFailOnUnappliedKey() {
+		ConfigDef configDef = new ConfigDef(SolaceSinkConnectorConfig.config)
+				.define("sol.unapplied", ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW, "");
+		ConfigException e = assertThrows(ConfigException.class,
+				() -> SolSessionPropertyBinding.verifyAllApplied(configDef));
+		assertTrue(e.getMessage().contains("sol.unapplied"));
+	}
 }
@@ -0,0 +1,74 @@
+package com.solace.connector.kafka.connect.sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SolaceSinkConnectorTest {
+	private static SolaceSinkConnector startConnector(Map<String, String> props) {
+		SolaceSinkConnector connector = new SolaceSinkConnector();
+		connector.start(props);
+		return connector;
+	}
+
+	@Test
+	public void testTaskConfigsCarryTaskIndexAndUniqueClientName() {
+		Map<String, String> props = new HashMap<>();
+		props.put(SolaceSinkConstants.SOL_CLIENT_NAME, "sink");
+		List<Map<String, String>> taskConfigs = startConnector(props).taskConfigs(3);
+
+		assertEquals(3, taskConfigs.size());
+		assertNotSame(taskConfigs.get(0), taskConfigs.get(1));
+		Set<String> clientNames = new HashSet<>();
+		for (int i = 0; i < taskConfigs.size(); i++) {
+			assertEquals(String.valueOf(i), taskConfigs.get(i).get(SolaceSinkConstants.SOL_TASK_INDEX));
+			assertEquals("3", taskConfigs.get(i).get(SolaceSinkConstants.SOL_TASK_COUNT));
+			clientNames.add(taskConfigs.get(i).get(SolaceSinkConstants.SOL_CLIENT_NAME));
+		}
+		assertEquals(3, clientNames.size());
+	}
+
+	@Test
+	public void testKeepDefaultClientName() {
+		List<Map<String, String>> taskConfigs = startConnector(new HashMap<>()).taskConfigs(2);
+		assertNull(taskConfigs.get(1).get(SolaceSinkConstants.SOL_CLIENT_NAME));
+	}
+
+	@Test
+	public void testRotateHosts() {
+		Map<String, String> props = new HashMap<>();
+		props.put(SolaceSinkConstants.SOL_HOST, "tcp://a:55555,tcp://b:55555,tcp://c:55555");
+		props.put(SolaceSinkConstants.SOL_TASK_ROTATE_HOSTS, "true");
+		List<Map<String, String>> taskConfigs = startConnector(props).taskConfigs(4);
+
+		assertEquals("tcp://a:55555,tcp://b:55555,tcp://c:55555", taskConfigs.get(0).get(SolaceSinkConstants.SOL_HOST));
+		assertEquals("tcp://b:55555,tcp://c:55555,tcp://a:55555", taskConfigs.get(1).get(SolaceSinkConstants.SOL_HOST));
+		assertEquals("tcp://c:55555,tcp://a:55555,tcp://b:55555", taskConfigs.get(2).get(SolaceSinkConstants.SOL_HOST));
+		assertEquals("tcp://a:55555,tcp://b:55555,tcp://c:55555", taskConfigs.get(3).get(SolaceSinkConstants.SOL_HOST));
+	}
+
+	@Test
+	public void testDivideBudgets() {
+		Map<String, String> props = new HashMap<>();
+		props.put(SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS, "10");
+		props.put(SolaceSinkConstants.SOL_TASK_DIVIDE_BUDGETS, "true");
+		List<Map<String, String>> taskConfigs = startConnector(props).taskConfigs(4);
+
+		int total = 0;
+		for (Map<String, String> taskConfig : taskConfigs) {
+			total += Integer.parseInt(taskConfig.get(SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS));
+		}
+		assertEquals(10, total);
+		assertEquals("3", taskConfigs.get(0).get(SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS));
+		assertEquals("2", taskConfigs.get(3).get(SolaceSinkConstants.SOL_QUEUE_MAX_PRODUCER_FLOWS));
+		assertEquals("25", taskConfigs.get(0).get(SolaceSinkConstants.SOL_RECONNECT_THROTTLE_INITIAL_RATE));
+	}
+}
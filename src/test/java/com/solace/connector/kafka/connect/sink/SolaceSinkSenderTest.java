@@ -18,35 +18,62 @@
  */
 package com.solace.connector.kafka.connect.sink;
 
+import com.solace.connector.kafka.connect.sink.recordprocessor.SolSdtRecordProcessor;
 import com.solace.connector.kafka.connect.sink.recordprocessor.SolSimpleRecordProcessor;
 import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.Destination;
 import com.solacesystems.jcsmp.JCSMPException;
 import com.solacesystems.jcsmp.JCSMPFactory;
 import com.solacesystems.jcsmp.JCSMPSession;
+import com.solacesystems.jcsmp.JCSMPStreamingPublishCorrelatingEventHandler;
+import com.solacesystems.jcsmp.JCSMPTransportException;
+import com.solacesystems.jcsmp.MapMessage;
 import com.solacesystems.jcsmp.SDTMap;
+import com.solacesystems.jcsmp.StreamMessage;
+import com.solacesystems.jcsmp.XMLMessage;
+import com.solacesystems.jcsmp.XMLMessageProducer;
 import com.solacesystems.jcsmp.transaction.RollbackException;
 import com.solacesystems.jcsmp.transaction.TransactedSession;
 import com.solacesystems.jcsmp.transaction.TransactionStatus;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.record.TimestampType;
 import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.errors.RetriableException;
 import org.apache.kafka.connect.header.ConnectHeaders;
 import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.sink.SinkTaskContext;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -56,6 +83,7 @@ public class SolaceSinkSenderTest {
     @Mock private JCSMPSession mkJcsmpSession;
     @Mock private TransactedSession mkTransactedSession;
     @Mock private SolaceSinkTask mkSolaceSinkTask;
+    @Mock private XMLMessageProducer mkProducer;
 
     @Test
     public void shouldAddKafkaRecordHeadersOnBytesXMLMessageWhenEnabled() throws JCSMPException {
@@ -158,4 +186,460 @@ public class SolaceSinkSenderTest {
         Mockito.verify(mkTransactedSession, Mockito.times(0)).commit();
         assertEquals(0, sender.producerHandler.getTxMsgCount().get());
     }
+
+    @Test
+    public void testCloseLeavesTransactionToFlush() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkSessionHandler.getTxSession()).thenReturn(mkTransactedSession);
+        Mockito.when(mkTransactedSession.getStatus()).thenReturn(TransactionStatus.ACTIVE);
+        Mockito.when(mkTransactedSession.createProducer(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOl_QUEUE, "queue");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        sender.sendRecord(new SinkRecord("topic", 0, null, null, null, new byte[]{1, 2, 3}, 0L));
+        Mockito.verify(mkProducer, Mockito.times(1)).send(Mockito.any(XMLMessage.class), Mockito.any(Destination.class));
+
+        sender.close(Collections.singleton(new TopicPartition("topic", 0)));
+        Mockito.verify(mkTransactedSession, Mockito.never()).commit();
+        assertEquals(1, sender.producerHandler.getTxMsgCount().get());
+
+        // Kafka Connect flushes before closing revoked partitions
+        sender.commit();
+        Mockito.verify(mkTransactedSession, Mockito.times(1)).commit();
+        assertEquals(0, sender.producerHandler.getTxMsgCount().get());
+    }
+
+    @Test
+    public void testPausePartitionWhenInflightMemoryBudgetExhausted() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkSessionHandler.getTxSession()).thenReturn(mkTransactedSession);
+        Mockito.when(mkTransactedSession.getStatus()).thenReturn(TransactionStatus.ACTIVE);
+        Mockito.when(mkTransactedSession.createProducer(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(mkProducer);
+        SinkTaskContext mkContext = Mockito.mock(SinkTaskContext.class);
+        Mockito.when(mkSolaceSinkTask.getBackpressure()).thenReturn(new SolPartitionBackpressure(mkContext));
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOl_QUEUE, "queue");
+        config.put(SolaceSinkConstants.SOL_INFLIGHT_MAX_BYTES, "2");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        TopicPartition tp = new TopicPartition("topic", 0);
+        sender.sendRecord(new SinkRecord(tp.topic(), tp.partition(), null, null, null, new byte[]{1, 2, 3}, 0L));
+        sender.sendRecord(new SinkRecord(tp.topic(), tp.partition(), null, null, null, new byte[]{1, 2, 3}, 1L));
+        Mockito.verify(mkContext, Mockito.times(1)).pause(tp);
+
+        sender.commit();
+        Mockito.verify(mkContext, Mockito.times(1)).resume(tp);
+        assertEquals(0, SolInflightMemoryBudget.shared(2).getUsedBytes());
+    }
+
+    @Test
+    public void testHoldInflightMemoryUntilAcknowledged() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        ArgumentCaptor<JCSMPStreamingPublishCorrelatingEventHandler> handler =
+                ArgumentCaptor.forClass(JCSMPStreamingPublishCorrelatingEventHandler.class);
+        Mockito.when(mkJcsmpSession.createProducer(Mockito.any(), handler.capture(), Mockito.any()))
+                .thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOl_QUEUE, "queue");
+        config.put(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE, "false");
+        config.put(SolaceSinkConstants.SOL_INFLIGHT_MAX_BYTES, "1000");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        SolInflightMemoryBudget budget = SolInflightMemoryBudget.shared(1000);
+        long usedBefore = budget.getUsedBytes();
+        sender.sendRecord(new SinkRecord("topic", 0, null, null, null, new byte[]{1, 2, 3}, 0L));
+        assertEquals(usedBefore + 3, budget.getUsedBytes());
+
+        ArgumentCaptor<XMLMessage> message = ArgumentCaptor.forClass(XMLMessage.class);
+        Mockito.verify(mkProducer).send(message.capture(), Mockito.any(Destination.class));
+        handler.getValue().responseReceivedEx(message.getValue().getCorrelationKey());
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            // Acknowledgements are processed asynchronously
+            while (budget.getUsedBytes() != usedBefore) {
+                Thread.sleep(1);
+            }
+        });
+        sender.shutdown();
+    }
+
+    @Test
+    public void testEarlyCommitKeepsInflightMemoryOfCurrentMessage() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkSessionHandler.getTxSession()).thenReturn(mkTransactedSession);
+        Mockito.when(mkTransactedSession.getStatus()).thenReturn(TransactionStatus.ACTIVE);
+        Mockito.when(mkTransactedSession.createProducer(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOl_QUEUE, "queue");
+        config.put(SolaceSinkConstants.SOL_INFLIGHT_MAX_BYTES, "4");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        Mockito.doAnswer(invocation -> {
+            sender.commit();
+            return null;
+        }).when(mkSolaceSinkTask).flush(Mockito.any());
+        SolInflightMemoryBudget budget = SolInflightMemoryBudget.shared(4);
+        sender.sendRecord(new SinkRecord("topic", 0, null, null, null, new byte[]{1, 2, 3}, 0L));
+        assertEquals(3, budget.getUsedBytes());
+
+        // The second message would exhaust the budget, the transaction holding the first one is committed
+        sender.sendRecord(new SinkRecord("topic", 0, null, null, null, new byte[]{1, 2, 3}, 1L));
+        Mockito.verify(mkTransactedSession, Mockito.times(1)).commit();
+        assertEquals(3, budget.getUsedBytes());
+
+        sender.commit();
+        assertEquals(0, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testRetransmitRejectedMessageUntilRetriesExhausted() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        ArgumentCaptor<JCSMPStreamingPublishCorrelatingEventHandler> handler =
+                ArgumentCaptor.forClass(JCSMPStreamingPublishCorrelatingEventHandler.class);
+        Mockito.when(mkJcsmpSession.createProducer(Mockito.any(), handler.capture(), Mockito.any()))
+                .thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOl_QUEUE, "queue");
+        config.put(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE, "false");
+        config.put(SolaceSinkConstants.SOL_RETRANSMIT_ENABLED, "true");
+        config.put(SolaceSinkConstants.SOL_RETRANSMIT_MAX_RETRIES, "1");
+        config.put(SolaceSinkConstants.SOL_RETRANSMIT_BACKOFF_MS, "1");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        SinkRecord record = new SinkRecord("topic", 0, null, null, null, new byte[]{1, 2, 3}, 0L);
+        sender.sendRecord(record);
+
+        ArgumentCaptor<XMLMessage> message = ArgumentCaptor.forClass(XMLMessage.class);
+        Mockito.verify(mkProducer).send(message.capture(), Mockito.any(Destination.class));
+        JCSMPException rejection = new JCSMPException("rejected");
+        handler.getValue().handleErrorEx(message.getValue().getCorrelationKey(), rejection, 0);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            // Acknowledgements are processed asynchronously
+            while (Mockito.mockingDetails(mkProducer).getInvocations().stream()
+                    .filter(i -> i.getMethod().getName().equals("send")).count() < 2) {
+                sender.retransmitRejected();
+                Thread.sleep(1);
+            }
+        });
+
+        handler.getValue().handleErrorEx(message.getValue().getCorrelationKey(), rejection, 0);
+        sender.awaitAcknowledged();
+        Mockito.verify(mkSolaceSinkTask).reportFailedRecord(record, rejection);
+    }
+
+    @Test
+    public void testAwaitAcknowledgedTimesOutWithoutAck() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        ArgumentCaptor<JCSMPStreamingPublishCorrelatingEventHandler> handler =
+                ArgumentCaptor.forClass(JCSMPStreamingPublishCorrelatingEventHandler.class);
+        Mockito.when(mkJcsmpSession.createProducer(Mockito.any(), handler.capture(), Mockito.any()))
+                .thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOl_QUEUE, "queue");
+        config.put(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE, "false");
+        config.put(SolaceSinkConstants.SOL_RETRANSMIT_ENABLED, "true");
+        config.put(SolaceSinkConstants.SOL_RETRANSMIT_ACK_TIMEOUT_MS, "100");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        sender.sendRecord(new SinkRecord("topic", 0, null, null, null, new byte[]{1, 2, 3}, 0L));
+        assertThrows(RetriableException.class, sender::awaitAcknowledged);
+
+        ArgumentCaptor<XMLMessage> message = ArgumentCaptor.forClass(XMLMessage.class);
+        Mockito.verify(mkProducer).send(message.capture(), Mockito.any(Destination.class));
+        handler.getValue().responseReceivedEx(message.getValue().getCorrelationKey());
+        sender.awaitAcknowledged();
+    }
+
+    @Test
+    public void testSwitchToStandbyRetransmitsUnacknowledgedMessages() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkSessionHandler.getHost()).thenReturn("primary");
+        Mockito.when(mkJcsmpSession.createProducer(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(mkProducer);
+        Mockito.doNothing().doThrow(new JCSMPTransportException("connection lost"))
+                .when(mkProducer).send(Mockito.any(XMLMessage.class), Mockito.any(Destination.class));
+        SolSessionHandler mkStandbySessionHandler = Mockito.mock(SolSessionHandler.class);
+        JCSMPSession mkStandbyJcsmpSession = Mockito.mock(JCSMPSession.class);
+        XMLMessageProducer mkStandbyProducer = Mockito.mock(XMLMessageProducer.class);
+        Mockito.when(mkStandbySessionHandler.getSession()).thenReturn(mkStandbyJcsmpSession);
+        Mockito.when(mkStandbySessionHandler.getHost()).thenReturn("standby");
+        ArgumentCaptor<JCSMPStreamingPublishCorrelatingEventHandler> standbyHandler =
+                ArgumentCaptor.forClass(JCSMPStreamingPublishCorrelatingEventHandler.class);
+        Mockito.when(mkStandbyJcsmpSession.createProducer(Mockito.any(), standbyHandler.capture(), Mockito.any()))
+                .thenReturn(mkStandbyProducer);
+
+        // Without sol.retransmit.enabled, the messages awaiting acknowledgement are tracked for the standby
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOl_QUEUE, "queue");
+        config.put(SolaceSinkConstants.SOl_USE_TRANSACTIONS_FOR_QUEUE, "false");
+        config.put(SolaceSinkConstants.SOL_STANDBY_HOST, "standby");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler,
+                mkStandbySessionHandler, mkSolaceSinkTask);
+        assertTrue(sender.getFailoverStats().isStandbyReady());
+        sender.sendRecord(new SinkRecord("topic", 0, null, null, null, new byte[]{1}, 0L));
+        sender.sendRecord(new SinkRecord("topic", 0, null, null, null, new byte[]{2}, 1L));
+
+        ArgumentCaptor<XMLMessage> sent = ArgumentCaptor.forClass(XMLMessage.class);
+        Mockito.verify(mkProducer, Mockito.times(2)).send(sent.capture(), Mockito.any(Destination.class));
+        ArgumentCaptor<XMLMessage> resent = ArgumentCaptor.forClass(XMLMessage.class);
+        Mockito.verify(mkStandbyProducer, Mockito.times(2)).send(resent.capture(), Mockito.any(Destination.class));
+        // The unacknowledged message is sent again before the one that failed
+        assertSame(sent.getAllValues().get(0), resent.getAllValues().get(0));
+        assertSame(sent.getAllValues().get(1), resent.getAllValues().get(1));
+        assertSame(mkStandbySessionHandler, sender.getSessionHandler());
+        Mockito.verify(mkSolaceSinkTask, Mockito.never()).replayFrom(Mockito.any());
+
+        SolFailoverStats stats = sender.getFailoverStats();
+        assertEquals(1, stats.getSwitchCount());
+        assertEquals("standby", stats.getActiveHost());
+        assertFalse(stats.isStandbyReady());
+        assertTrue(stats.getLastSwitchMicros() >= 0);
+
+        for (XMLMessage message : resent.getAllValues()) {
+            standbyHandler.getValue().responseReceivedEx(message.getCorrelationKey());
+        }
+        sender.awaitAcknowledged();
+    }
+
+    @Test
+    public void testFailoverReplaysUncommittedTransaction() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkSessionHandler.getTxSession()).thenReturn(mkTransactedSession);
+        Mockito.when(mkSessionHandler.getHost()).thenReturn("primary");
+        Mockito.when(mkTransactedSession.getStatus()).thenReturn(TransactionStatus.ACTIVE);
+        Mockito.when(mkTransactedSession.createProducer(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(mkProducer);
+        SolSessionHandler mkStandbySessionHandler = Mockito.mock(SolSessionHandler.class);
+        JCSMPSession mkStandbyJcsmpSession = Mockito.mock(JCSMPSession.class);
+        TransactedSession mkStandbyTransactedSession = Mockito.mock(TransactedSession.class);
+        Mockito.when(mkStandbySessionHandler.getSession()).thenReturn(mkStandbyJcsmpSession);
+        Mockito.when(mkStandbySessionHandler.getTxSession()).thenReturn(mkStandbyTransactedSession);
+        Mockito.when(mkStandbySessionHandler.getHost()).thenReturn("standby");
+        Mockito.when(mkStandbyTransactedSession.getStatus()).thenReturn(TransactionStatus.ACTIVE);
+        Mockito.when(mkStandbyTransactedSession.createProducer(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Mockito.mock(XMLMessageProducer.class));
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOl_QUEUE, "queue");
+        config.put(SolaceSinkConstants.SOL_STANDBY_HOST, "standby");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler,
+                mkStandbySessionHandler, mkSolaceSinkTask);
+        TopicPartition tp = new TopicPartition("topic", 0);
+        sender.sendRecord(new SinkRecord(tp.topic(), tp.partition(), null, null, null, new byte[]{1}, 5L));
+        sender.sendRecord(new SinkRecord(tp.topic(), tp.partition(), null, null, null, new byte[]{2}, 6L));
+
+        Mockito.when(mkSessionHandler.isReconnecting()).thenReturn(true);
+        sender.failoverIfUnavailable();
+        assertSame(mkStandbySessionHandler, sender.getSessionHandler());
+        Mockito.verify(mkSolaceSinkTask).replayFrom(Collections.singletonMap(tp, 5L));
+        Mockito.verify(mkProducer, Mockito.atLeastOnce()).close();
+        assertEquals(1, sender.getFailoverStats().getSwitchCount());
+        assertEquals("standby", sender.getFailoverStats().getActiveHost());
+
+        // The failed session does not become the standby while it is reconnecting
+        sender.failoverIfUnavailable();
+        assertEquals(1, sender.getFailoverStats().getSwitchCount());
+        assertFalse(sender.getFailoverStats().isStandbyReady());
+    }
+
+    @Test
+    public void testSendRecordsWithBatchRecordProcessor() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkJcsmpSession.getMessageProducer(Mockito.any())).thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, TestBatchRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOL_TOPICS, "topic");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        sender.sendRecords(Arrays.asList(
+                new SinkRecord("topic", 0, null, null, null, new byte[]{1}, 0L),
+                new SinkRecord("topic", 0, null, null, null, null, 1L),
+                new SinkRecord("topic", 0, null, null, null, new byte[]{3}, 2L)));
+
+        TestBatchRecordProcessor processor = (TestBatchRecordProcessor) sender.processor;
+        assertEquals(1, processor.batches);
+        assertEquals(0, processor.records);
+        ArgumentCaptor<XMLMessage> messages = ArgumentCaptor.forClass(XMLMessage.class);
+        Mockito.verify(mkProducer, Mockito.times(2)).send(messages.capture(), Mockito.any(Destination.class));
+        assertEquals(3, messages.getAllValues().get(1).getAttachmentByteBuffer().get(0));
+    }
+
+    @Test
+    public void testSendStructuredMessages() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkJcsmpSession.getMessageProducer(Mockito.any())).thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSdtRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOL_TOPICS, "topic");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        sender.sendRecords(Arrays.asList(
+                new SinkRecord("topic", 0, null, null, null, Collections.singletonMap("k", 1), 0L),
+                new SinkRecord("topic", 0, null, null, null, null, 1L),
+                new SinkRecord("topic", 0, null, null, null, Collections.emptyList(), 2L)));
+
+        ArgumentCaptor<XMLMessage> messages = ArgumentCaptor.forClass(XMLMessage.class);
+        Mockito.verify(mkProducer, Mockito.times(2)).send(messages.capture(), Mockito.any(Destination.class));
+        assertInstanceOf(MapMessage.class, messages.getAllValues().get(0));
+        assertInstanceOf(StreamMessage.class, messages.getAllValues().get(1));
+    }
+
+    @Test
+    public void testSendRecordsDispatchedByTopic() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkJcsmpSession.getMessageProducer(Mockito.any())).thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOL_TOPICS, "topic");
+        config.put(SolaceSinkConstants.SOL_TOPIC_PROCESSORS, "structured");
+        config.put(SolaceSinkConstants.SOL_TOPIC_PROCESSOR_PREFIX + "structured.topics", "structured-.*");
+        config.put(SolaceSinkConstants.SOL_TOPIC_PROCESSOR_PREFIX + "structured.class",
+                SolSdtRecordProcessor.class.getName());
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        sender.open(Arrays.asList(new TopicPartition("structured-1", 0), new TopicPartition("raw", 0)));
+        sender.sendRecords(Arrays.asList(
+                new SinkRecord("structured-1", 0, null, null, null, Collections.singletonMap("k", 1), 0L),
+                new SinkRecord("raw", 0, null, null, null, new byte[]{1}, 0L),
+                new SinkRecord("structured-1", 0, null, null, null, Collections.singletonMap("k", 2), 1L)));
+
+        ArgumentCaptor<XMLMessage> messages = ArgumentCaptor.forClass(XMLMessage.class);
+        Mockito.verify(mkProducer, Mockito.times(3)).send(messages.capture(), Mockito.any(Destination.class));
+        assertInstanceOf(MapMessage.class, messages.getAllValues().get(0));
+        assertEquals(1, messages.getAllValues().get(1).getAttachmentByteBuffer().get(0));
+        assertInstanceOf(MapMessage.class, messages.getAllValues().get(2));
+    }
+
+    @Test
+    public void testSendRecordsToRoutedDestinations() throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkJcsmpSession.getMessageProducer(Mockito.any())).thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOL_TOPICS, "default");
+        config.put(SolaceSinkConstants.SOL_DESTINATION_ROUTES, "orders");
+        config.put(SolaceSinkConstants.SOL_DESTINATION_ROUTE_PREFIX + "orders.topics", "orders-.*");
+        config.put(SolaceSinkConstants.SOL_DESTINATION_ROUTE_PREFIX + "orders.solace_topics", "orders/new, audit");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        sender.open(Arrays.asList(new TopicPartition("orders-eu", 0), new TopicPartition("clicks", 0)));
+        sender.sendRecords(Arrays.asList(
+                new SinkRecord("orders-eu", 0, null, null, null, new byte[]{1}, 0L),
+                new SinkRecord("clicks", 0, null, null, null, new byte[]{2}, 0L)));
+
+        ArgumentCaptor<Destination> destinations = ArgumentCaptor.forClass(Destination.class);
+        Mockito.verify(mkProducer, Mockito.times(3)).send(Mockito.any(XMLMessage.class), destinations.capture());
+        assertEquals(Arrays.asList("orders/new", "audit", "default"), destinations.getAllValues().stream()
+                .map(Destination::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testRedeliveredBatchSkipsRecordsSpilledBeforeSpillBufferWasFull(@TempDir Path spillDirectory)
+            throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkJcsmpSession.getMessageProducer(Mockito.any())).thenReturn(mkProducer);
+        Mockito.doThrow(new JCSMPTransportException("connection lost")).doNothing()
+                .when(mkProducer).send(Mockito.any(XMLMessage.class), Mockito.any(Destination.class));
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOL_TOPICS, "a,b");
+        config.put(SolaceSinkConstants.SOL_SPILL_DIRECTORY, spillDirectory.toString());
+        config.put(SolaceSinkConstants.SOL_SPILL_SEGMENT_BYTES, Integer.toString(64 * 1024));
+        config.put(SolaceSinkConstants.SOL_SPILL_MAX_SEGMENTS, "1");
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        final SolaceSinkSender sender = new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask);
+        try {
+            // Three messages fit in the spill buffer, the second destination of the second record does not
+            List<SinkRecord> records = Arrays.asList(
+                    new SinkRecord("topic", 0, null, null, null, new byte[20000], 0L),
+                    new SinkRecord("topic", 0, null, null, null, new byte[20000], 1L));
+            assertThrows(RetriableException.class, () -> sender.sendRecords(records));
+
+            sender.drainSpillBuffer();
+            sender.sendRecords(records);
+
+            ArgumentCaptor<Destination> destinations = ArgumentCaptor.forClass(Destination.class);
+            Mockito.verify(mkProducer, Mockito.times(5)).send(Mockito.any(XMLMessage.class), destinations.capture());
+            // The failed send, the three spilled messages and the remaining destination of the second record
+            assertEquals(Arrays.asList("a", "a", "b", "a", "b"), destinations.getAllValues().stream()
+                    .map(Destination::getName).collect(Collectors.toList()));
+        } finally {
+            sender.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedSetupClosesProducers(@TempDir Path directory) throws Exception {
+        Mockito.when(mkSessionHandler.getSession()).thenReturn(mkJcsmpSession);
+        Mockito.when(mkJcsmpSession.getMessageProducer(Mockito.any())).thenReturn(mkProducer);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR, SolSimpleRecordProcessor.class.getName());
+        config.put(SolaceSinkConstants.SOL_TOPICS, "a");
+        // A regular file cannot hold the spill segments
+        config.put(SolaceSinkConstants.SOL_SPILL_DIRECTORY,
+                Files.createFile(directory.resolve("file")).toString());
+
+        final SolaceSinkConnectorConfig connectorConfig = new SolaceSinkConnectorConfig(config);
+        assertThrows(ConnectException.class,
+                () -> new SolaceSinkSender(connectorConfig, mkSessionHandler, mkSolaceSinkTask));
+        Mockito.verify(mkProducer, Mockito.atLeastOnce()).close();
+    }
+
+    public static class TestBatchRecordProcessor extends SolSimpleRecordProcessor implements SolBatchRecordProcessorIF {
+        int batches;
+        int records;
+
+        @Override
+        public BytesXMLMessage processRecord(String skey, SinkRecord record) {
+            records++;
+            return super.processRecord(skey, record);
+        }
+
+        @Override
+        public void processRecords(String skey, Collection<SinkRecord> records, BytesXMLMessage[] messages) {
+            batches++;
+            int i = 0;
+            for (SinkRecord record : records) {
+                messages[i++] = record.value() != null ? super.processRecord(skey, record) : null;
+            }
+        }
+    }
 }
@@ -1,11 +1,16 @@
 package com.solace.connector.kafka.connect.sink;
 
 import com.solacesystems.jcsmp.JCSMPException;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.sink.SinkTaskContext;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -13,6 +18,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 public class SolaceSinkTaskTest {
 	private SolaceSinkTask solaceSinkTask;
@@ -35,4 +41,28 @@ public class SolaceSinkTaskTest {
 		assertThat(thrown.getCause(), instanceOf(JCSMPException.class));
 		assertThat(thrown.getCause().getMessage(), containsString("Null value was passed in for property (host)"));
 	}
+
+	@Test
+	public void testFailSessionConnectAsync() {
+		SinkTaskContext context = Mockito.mock(SinkTaskContext.class);
+		Mockito.when(context.assignment()).thenReturn(Collections.singleton(new TopicPartition("topic", 0)));
+		solaceSinkTask.initialize(context);
+
+		Map<String, String> props = new HashMap<>();
+		props.put(SolaceSinkConstants.SOL_CONNECT_ASYNC, Boolean.toString(true));
+		solaceSinkTask.start(props);
+
+		ConnectException thrown = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+			while (true) {
+				try {
+					solaceSinkTask.put(Collections.emptyList());
+				} catch (ConnectException e) {
+					return e;
+				}
+				Thread.sleep(100);
+			}
+		});
+		assertThat(thrown.getMessage(), containsString("Failed to create JCSMPSession"));
+		assertThat(thrown.getCause(), instanceOf(JCSMPException.class));
+	}
 }
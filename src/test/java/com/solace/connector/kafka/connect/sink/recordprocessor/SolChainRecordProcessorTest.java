@@ -0,0 +1,152 @@
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolaceSinkConstants;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.Destination;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.InflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolChainRecordProcessorTest {
+	private static final String STAGE = SolaceSinkConstants.SOL_RECORD_PROCESSOR_STAGE_PREFIX;
+
+	private SolChainRecordProcessor configure(Map<String, String> config) {
+		SolChainRecordProcessor processor = new SolChainRecordProcessor();
+		processor.configure(config);
+		return processor;
+	}
+
+	private static byte[] payload(BytesXMLMessage msg) {
+		byte[] payload = new byte[msg.getAttachmentContentLength()];
+		msg.readAttachmentBytes(payload);
+		return payload;
+	}
+
+	@Test
+	public void testFusedChain() throws Exception {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, "orders, meta, json, route");
+		config.put(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION, "true");
+		config.put(STAGE + "orders.type", "filter");
+		config.put(STAGE + "orders.topics", "orders-.*");
+		config.put(STAGE + "meta.type", "headers");
+		config.put(STAGE + "meta.mapping", "region:k_region, trace");
+		config.put(STAGE + "meta.correlation_id", "key");
+		config.put(STAGE + "json.type", "payload");
+		config.put(STAGE + "json.format", "json");
+		config.put(STAGE + "route.type", "route");
+		config.put(STAGE + "route.topic", "kafka/{topic}");
+		SolChainRecordProcessor processor = configure(config);
+
+		Schema schema = SchemaBuilder.struct().field("id", Schema.INT32_SCHEMA).build();
+		ConnectHeaders headers = new ConnectHeaders();
+		headers.addString("region", "emea");
+		headers.addString("trace", "t-1");
+		SinkRecord record = new SinkRecord("orders-eu", 1, Schema.STRING_SCHEMA, "order-1", schema,
+				new Struct(schema).put("id", 7), 5, null, null, headers);
+
+		BytesXMLMessage msg = processor.processRecord("NONE", record);
+		assertEquals("{\"id\":7}", new String(payload(msg), StandardCharsets.UTF_8));
+		assertEquals(SolJsonRecordProcessor.JSON_CONTENT_TYPE, msg.getHTTPContentType());
+		assertEquals("order-1", msg.getCorrelationId());
+		assertEquals("orders-eu", msg.getProperties().getString("k_topic"));
+		assertEquals(5L, msg.getProperties().getLong("k_offset"));
+		assertEquals("emea", msg.getProperties().getString("k_region"));
+		assertEquals("t-1", msg.getProperties().getString("trace"));
+		Destination destination = msg.getProperties().getDestination("dynamicDestination");
+		assertEquals("kafka/orders-eu", destination.getName());
+
+		assertNull(processor.processRecord("NONE", new SinkRecord("payments", 0, null, null, null, new byte[] {1}, 0)));
+	}
+
+	@Test
+	public void testBatchDiscardsFilteredRecords() {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, "keyed");
+		config.put(STAGE + "keyed.type", "filter");
+		config.put(STAGE + "keyed.require_key", "true");
+		SolChainRecordProcessor processor = configure(config);
+
+		BytesXMLMessage[] messages = new BytesXMLMessage[3];
+		processor.processRecords("NONE", Arrays.asList(
+				new SinkRecord("t", 0, null, "k", null, "a", 0),
+				new SinkRecord("t", 0, null, null, null, "b", 1),
+				new SinkRecord("t", 0, null, "k", null, null, 2)), messages);
+		assertArrayEquals("a".getBytes(StandardCharsets.UTF_8), payload(messages[0]));
+		assertNull(messages[1]);
+		assertNull(messages[2]);
+	}
+
+	@Test
+	public void testJsonFieldFilter() {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, "shipped");
+		config.put(STAGE + "shipped.type", "filter");
+		config.put(STAGE + "shipped.json_path", "order.status");
+		config.put(STAGE + "shipped.json_value", "shipped");
+		SolChainRecordProcessor processor = configure(config);
+
+		String shipped = "{\"order\":{\"id\":1,\"status\":\"shipped\"}}";
+		assertArrayEquals(shipped.getBytes(StandardCharsets.UTF_8), payload(processor.processRecord("NONE",
+				new SinkRecord("t", 0, null, null, null, shipped.getBytes(StandardCharsets.UTF_8), 0))));
+		assertNull(processor.processRecord("NONE",
+				new SinkRecord("t", 0, null, null, null, "{\"order\":{\"status\":\"new\"}}", 1)));
+		assertNull(processor.processRecord("NONE", new SinkRecord("t", 0, null, null, null, "{}", 2)));
+	}
+
+	@Test
+	public void testCompress() throws Exception {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, "zip");
+		config.put(STAGE + "zip.type", "compress");
+		config.put(STAGE + "zip.min_bytes", "100");
+		SolChainRecordProcessor processor = configure(config);
+
+		byte[] large = new byte[10000];
+		Arrays.fill(large, (byte) 'x');
+		BytesXMLMessage msg = processor.processRecord("NONE", new SinkRecord("t", 0, null, null, null, large, 0));
+		assertEquals(SolProcessorChain.DEFLATE_ENCODING, msg.getHTTPContentEncoding());
+		ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+		try (InflaterOutputStream out = new InflaterOutputStream(inflated)) {
+			out.write(payload(msg));
+		}
+		assertArrayEquals(large, inflated.toByteArray());
+
+		msg = processor.processRecord("NONE", new SinkRecord("t", 0, null, null, null, "small", 0));
+		assertNull(msg.getHTTPContentEncoding());
+		assertArrayEquals("small".getBytes(StandardCharsets.UTF_8), payload(msg));
+	}
+
+	@Test
+	public void testInvalidChains() {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, "zip, json");
+		config.put(STAGE + "zip.type", "compress");
+		config.put(STAGE + "json.type", "payload");
+		assertThrows(ConfigException.class, () -> configure(config));
+
+		config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, "route");
+		config.put(STAGE + "route.type", "route");
+		config.put(STAGE + "route.topic", "a/b");
+		assertThrows(ConfigException.class, () -> configure(config));
+
+		config.put(SolaceSinkConstants.SOL_RECORD_PROCESSOR_CHAIN, "untyped");
+		assertThrows(ConfigException.class, () -> configure(config));
+	}
+}
@@ -0,0 +1,69 @@
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolJsonPathTest {
+	private static final String ORDER = "{ \"id\" : 42, \"note\": \"a \\\"quoted\\\" \\u00e9 caf\u00e9\",\n"
+			+ "  \"skipped\": {\"nested\": [1, {\"x\": \"}]\"}], \"status\": \"old\"},\n"
+			+ "  \"items\": [ {\"sku\": \"A-1\", \"qty\": 2}, {\"sku\": \"B-2\", \"qty\": -1.5e3} ],\n"
+			+ "  \"status\": \"shipped\", \"paid\": true, \"coupon\": null, \"status\": \"duplicate\" }";
+
+	private static String extract(String path, Object value) {
+		StringBuilder sb = new StringBuilder();
+		return SolJsonPath.compile("p", path).appendTo(value, sb) ? sb.toString() : null;
+	}
+
+	@Test
+	public void testScalars() {
+		assertEquals("42", extract("id", ORDER));
+		assertEquals("a \"quoted\" \u00e9 caf\u00e9", extract("note", ORDER));
+		assertEquals("shipped", extract("status", ORDER));
+		assertEquals("true", extract("paid", ORDER));
+		assertEquals("B-2", extract("items[1].sku", ORDER));
+		assertEquals("-1.5e3", extract("items[1].qty", ORDER));
+		assertEquals("1", extract("skipped.nested[0]", ORDER));
+		assertEquals("}]", extract("skipped.nested[1].x", ORDER));
+		assertEquals("3", extract("[1][0]", "[[1], [3]]"));
+	}
+
+	@Test
+	public void testNoValue() {
+		assertNull(extract("coupon", ORDER));
+		assertNull(extract("items", ORDER));
+		assertNull(extract("items[2].sku", ORDER));
+		assertNull(extract("missing", ORDER));
+		assertNull(extract("id.value", ORDER));
+		assertNull(extract("status", "{\"status\": \"unterminated"));
+		assertNull(extract("status", "not json"));
+		assertNull(extract("status", 42));
+	}
+
+	@Test
+	public void testByteValues() {
+		byte[] bytes = ("xx" + ORDER).getBytes(StandardCharsets.UTF_8);
+		assertEquals("A-1", extract("items[0].sku", ByteBuffer.wrap(bytes, 2, bytes.length - 2).slice()));
+		assertEquals("A-1", extract("items[0].sku", ORDER.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void testEscapedMemberName() {
+		assertEquals("1", extract("a b", "{\"a\\u0020b\": 1}"));
+	}
+
+	@Test
+	public void testInvalidPaths() {
+		assertThrows(ConfigException.class, () -> SolJsonPath.compile("p", " "));
+		assertThrows(ConfigException.class, () -> SolJsonPath.compile("p", "a..b"));
+		assertThrows(ConfigException.class, () -> SolJsonPath.compile("p", "a[x]"));
+		assertThrows(ConfigException.class, () -> SolJsonPath.compile("p", "a[1"));
+		assertThrows(ConfigException.class, () -> SolJsonPath.compile("p", "a[1]b"));
+	}
+}
@@ -0,0 +1,130 @@
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SolJsonRecordProcessorTest {
+	private static final Schema ADDRESS_SCHEMA = SchemaBuilder.struct().name("Address")
+			.field("city", Schema.STRING_SCHEMA)
+			.field("zip", Schema.OPTIONAL_STRING_SCHEMA)
+			.build();
+	private static final Schema ORDER_SCHEMA = SchemaBuilder.struct().name("Order")
+			.field("id", Schema.INT64_SCHEMA)
+			.field("price", Schema.FLOAT64_SCHEMA)
+			.field("paid", Schema.BOOLEAN_SCHEMA)
+			.field("amount", Decimal.schema(2))
+			.field("created", Timestamp.SCHEMA)
+			.field("tags", SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+			.field("counts", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.INT32_SCHEMA).build())
+			.field("address", ADDRESS_SCHEMA)
+			.field("data", Schema.BYTES_SCHEMA)
+			.build();
+
+	private final SolJsonSerializer serializer = new SolJsonSerializer();
+
+	private String toJson(Schema schema, Object value) {
+		serializer.serialize(schema, value);
+		return new String(serializer.buffer(), 0, serializer.size(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testStruct() {
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		counts.put("a", 1);
+		counts.put("b", -2);
+		Struct order = new Struct(ORDER_SCHEMA)
+				.put("id", 42L)
+				.put("price", 9.5)
+				.put("paid", true)
+				.put("amount", new BigDecimal("12.30"))
+				.put("created", new Date(1600000000000L))
+				.put("tags", Arrays.asList("x", "y"))
+				.put("counts", counts)
+				.put("address", new Struct(ADDRESS_SCHEMA).put("city", "Ottawa"))
+				.put("data", new byte[] {1, 2, 3, 4});
+
+		assertEquals("{\"id\":42,\"price\":9.5,\"paid\":true,\"amount\":12.30,\"created\":1600000000000,"
+				+ "\"tags\":[\"x\",\"y\"],\"counts\":{\"a\":1,\"b\":-2},\"address\":{\"city\":\"Ottawa\",\"zip\":null},"
+				+ "\"data\":\"AQIDBA==\"}", toJson(ORDER_SCHEMA, order));
+	}
+
+	@Test
+	public void testStringEscaping() {
+		assertEquals("\"q\\\"b\\\\n\\nt\\t\\u0001 \u00e9\u20ac\ud83d\ude00\"",
+				toJson(Schema.STRING_SCHEMA, "q\"b\\n\nt\t\u0001 \u00e9\u20ac\ud83d\ude00"));
+	}
+
+	@Test
+	public void testNumbers() {
+		assertEquals(String.valueOf(Long.MIN_VALUE), toJson(Schema.INT64_SCHEMA, Long.MIN_VALUE));
+		assertEquals("0", toJson(Schema.INT32_SCHEMA, 0));
+		assertEquals("-100", toJson(Schema.INT8_SCHEMA, (byte) -100));
+		assertEquals("3.0", toJson(Schema.FLOAT64_SCHEMA, 3.0));
+		assertEquals("1.0E20", toJson(Schema.FLOAT64_SCHEMA, 1e20));
+		assertEquals("\"NaN\"", toJson(Schema.FLOAT64_SCHEMA, Double.NaN));
+		assertEquals("0.25", toJson(Schema.FLOAT32_SCHEMA, 0.25f));
+	}
+
+	@Test
+	public void testMapWithNonStringKeys() {
+		Map<Integer, String> map = new LinkedHashMap<>();
+		map.put(1, "one");
+		map.put(2, null);
+		Schema schema = SchemaBuilder.map(Schema.INT32_SCHEMA, Schema.OPTIONAL_STRING_SCHEMA).build();
+		assertEquals("[[1,\"one\"],[2,null]]", toJson(schema, map));
+	}
+
+	@Test
+	public void testSchemaless() {
+		Map<String, Object> value = new LinkedHashMap<>();
+		value.put("n", 1);
+		value.put("list", Arrays.asList(true, null, 2.5, "s"));
+		value.put("nested", Collections.singletonMap("k", ByteBuffer.wrap(new byte[] {(byte) 0xff})));
+		value.put("struct", new Struct(ADDRESS_SCHEMA).put("city", "Lyon").put("zip", "69001"));
+		assertEquals("{\"n\":1,\"list\":[true,null,2.5,\"s\"],\"nested\":{\"k\":\"/w==\"},"
+				+ "\"struct\":{\"city\":\"Lyon\",\"zip\":\"69001\"}}", toJson(null, value));
+	}
+
+	@Test
+	public void testBufferReused() {
+		assertEquals("\"a long string value\"", toJson(Schema.STRING_SCHEMA, "a long string value"));
+		assertEquals("\"b\"", toJson(Schema.STRING_SCHEMA, "b"));
+	}
+
+	@Test
+	public void testProcessRecord() {
+		Struct address = new Struct(ADDRESS_SCHEMA).put("city", "Ottawa").put("zip", "K1A");
+		SinkRecord record = new SinkRecord("orders", 3, null, null, ADDRESS_SCHEMA, address, 7);
+		BytesXMLMessage msg = new SolJsonRecordProcessor().processRecord("key", record);
+
+		byte[] payload = new byte[msg.getAttachmentContentLength()];
+		msg.readAttachmentBytes(payload);
+		assertEquals("{\"city\":\"Ottawa\",\"zip\":\"K1A\"}", new String(payload, StandardCharsets.UTF_8));
+		assertEquals(SolJsonRecordProcessor.JSON_CONTENT_TYPE, msg.getHTTPContentType());
+		assertEquals("ResendOfKafkaTopic: orders", msg.getApplicationMessageType());
+	}
+
+	@Test
+	public void testProcessRecordWithoutValue() {
+		SinkRecord record = new SinkRecord("orders", 3, null, null, null, null, 7);
+		BytesXMLMessage msg = new SolJsonRecordProcessor().processRecord("key", record);
+		assertEquals(0, msg.getAttachmentContentLength());
+	}
+}
@@ -0,0 +1,105 @@
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolaceSinkConstants;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolKeywordRoutingRecordProcessorTest {
+	private static final String PREFIX = SolaceSinkConstants.SOL_KEYWORD_ROUTE_PREFIX;
+
+	private static int match(SolKeywordMatcher matcher, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		return matcher.match(bytes, 0, bytes.length);
+	}
+
+	@Test
+	public void testMatcher() {
+		SolKeywordMatcher matcher = SolKeywordMatcher.compile(Arrays.asList(
+				Arrays.asList("hers", "his"),
+				Arrays.asList("she", "he"),
+				Collections.singletonList("caf\u00e9")), true);
+		assertEquals(SolKeywordMatcher.NO_MATCH, match(matcher, "nothing to see"));
+		assertEquals(0, match(matcher, "ushers"));
+		assertEquals(0, match(matcher, "THIS"));
+		assertEquals(1, match(matcher, "a SHell"));
+		assertEquals(2, match(matcher, "au CAF\u00e9"));
+		// Only ASCII letters are folded
+		assertEquals(SolKeywordMatcher.NO_MATCH, match(matcher, "au CAF\u00c9"));
+		// The first rule wins wherever its keyword occurs
+		assertEquals(0, match(matcher, "she said hers"));
+
+		SolKeywordMatcher caseSensitive = SolKeywordMatcher.compile(
+				Collections.singletonList(Collections.singletonList("Stop")), false);
+		assertEquals(SolKeywordMatcher.NO_MATCH, match(caseSensitive, "stop STOP"));
+		assertEquals(0, match(caseSensitive, "please Stop"));
+	}
+
+	@Test
+	public void testMatcherWithManyKeywords() {
+		List<List<String>> rules = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			rules.add(Collections.singletonList("keyword<" + i + ">"));
+		}
+		SolKeywordMatcher matcher = SolKeywordMatcher.compile(rules, true);
+		assertEquals(499, match(matcher, "... KEYWORD<499> ..."));
+		assertEquals(42, match(matcher, "keyword<420> keyword<42>"));
+		assertEquals(SolKeywordMatcher.NO_MATCH, match(matcher, "keyword<4"));
+	}
+
+	@Test
+	public void testProcessor() throws Exception {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION, "true");
+		config.put(SolaceSinkConstants.SOL_KEYWORD_ROUTES, "alarm, status");
+		config.put(PREFIX + "alarm.keywords", "fire,smoke");
+		config.put(PREFIX + "alarm.topic", "alarm/{topic}");
+		config.put(PREFIX + "status.keywords", "ok");
+		config.put(PREFIX + "status.topic", "status");
+		config.put(SolaceSinkConstants.SOL_KEYWORD_ROUTES_DEFAULT_TOPIC, "other/{key}");
+		SolKeywordRoutingRecordProcessor processor = new SolKeywordRoutingRecordProcessor();
+		processor.configure(config);
+
+		assertEquals("alarm/sensors", destination(processor.processRecord("NONE",
+				new SinkRecord("sensors", 0, null, "k1", null, "ok, some SMOKE".getBytes(StandardCharsets.UTF_8), 0))));
+		assertEquals("status", destination(processor.processRecord("NONE",
+				new SinkRecord("sensors", 0, null, "k1", null, ByteBuffer.wrap("all OK".getBytes(StandardCharsets.UTF_8)), 1))));
+		assertEquals("other/k1", destination(processor.processRecord("NONE",
+				new SinkRecord("sensors", 0, null, "k1", null, "quiet", 2))));
+		assertEquals("other/k1", destination(processor.processRecord("NONE",
+				new SinkRecord("sensors", 0, null, "k1", null, null, 3))));
+	}
+
+	private static String destination(BytesXMLMessage msg) throws Exception {
+		return msg.getProperties().getDestination("dynamicDestination").getName();
+	}
+
+	@Test
+	public void testInvalidConfigs() {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_KEYWORD_ROUTES_DEFAULT_TOPIC, "other");
+		assertThrows(ConfigException.class, () -> new SolKeywordRoutingRecordProcessor().configure(config));
+
+		config.put(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION, "true");
+		config.put(SolaceSinkConstants.SOL_KEYWORD_ROUTES, "alarm");
+		config.put(PREFIX + "alarm.topic", "alarm");
+		assertThrows(ConfigException.class, () -> new SolKeywordRoutingRecordProcessor().configure(config));
+
+		config.put(PREFIX + "alarm.keywords", "fire");
+		config.remove(SolaceSinkConstants.SOL_KEYWORD_ROUTES_DEFAULT_TOPIC);
+		assertThrows(ConfigException.class, () -> new SolKeywordRoutingRecordProcessor().configure(config));
+	}
+}
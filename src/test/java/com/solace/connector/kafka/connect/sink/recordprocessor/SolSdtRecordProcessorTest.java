@@ -0,0 +1,131 @@
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.MapMessage;
+import com.solacesystems.jcsmp.SDTMap;
+import com.solacesystems.jcsmp.SDTStream;
+import com.solacesystems.jcsmp.StreamMessage;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SolSdtRecordProcessorTest {
+	private static final Schema ADDRESS_SCHEMA = SchemaBuilder.struct().name("Address")
+			.field("city", Schema.STRING_SCHEMA)
+			.field("zip", Schema.OPTIONAL_STRING_SCHEMA)
+			.build();
+	private static final Schema ORDER_SCHEMA = SchemaBuilder.struct().name("Order")
+			.field("id", Schema.INT64_SCHEMA)
+			.field("quantity", Schema.INT16_SCHEMA)
+			.field("price", Schema.FLOAT64_SCHEMA)
+			.field("paid", Schema.BOOLEAN_SCHEMA)
+			.field("amount", Decimal.schema(2))
+			.field("tags", SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+			.field("counts", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.INT32_SCHEMA).build())
+			.field("address", ADDRESS_SCHEMA)
+			.field("data", Schema.BYTES_SCHEMA)
+			.build();
+
+	private final SolSdtRecordProcessor processor = new SolSdtRecordProcessor();
+
+	private BytesXMLMessage process(Schema schema, Object value) {
+		return processor.processRecord("key", new SinkRecord("orders", 3, null, null, schema, value, 7));
+	}
+
+	@Test
+	public void testStructToMapMessage() throws Exception {
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		counts.put("a", 1);
+		Struct order = new Struct(ORDER_SCHEMA)
+				.put("id", 42L)
+				.put("quantity", (short) 3)
+				.put("price", 9.5)
+				.put("paid", true)
+				.put("amount", new BigDecimal("12.30"))
+				.put("tags", Arrays.asList("x", "y"))
+				.put("counts", counts)
+				.put("address", new Struct(ADDRESS_SCHEMA).put("city", "Ottawa"))
+				.put("data", new byte[] {1, 2});
+
+		BytesXMLMessage msg = process(ORDER_SCHEMA, order);
+		SDTMap map = assertInstanceOf(MapMessage.class, msg).getMap();
+		assertEquals(42L, map.getLong("id"));
+		assertEquals((short) 3, map.getShort("quantity"));
+		assertEquals(9.5, map.getDouble("price"));
+		assertTrue(map.getBoolean("paid"));
+		assertEquals("12.30", map.getString("amount"));
+		SDTStream tags = map.getStream("tags");
+		assertEquals("x", tags.readString());
+		assertEquals("y", tags.readString());
+		assertEquals(1, map.getMap("counts").getInteger("a"));
+		SDTMap address = map.getMap("address");
+		assertEquals("Ottawa", address.getString("city"));
+		assertTrue(address.containsKey("zip"));
+		assertNull(address.get("zip"));
+		assertArrayEquals(new byte[] {1, 2}, map.getBytes("data"));
+		assertEquals("orders", msg.getProperties().getString("k_topic"));
+		assertEquals("ResendOfKafkaTopic: orders", msg.getApplicationMessageType());
+	}
+
+	@Test
+	public void testArrayToStreamMessage() throws Exception {
+		Schema schema = SchemaBuilder.array(ADDRESS_SCHEMA).build();
+		BytesXMLMessage msg = process(schema, Collections.singletonList(new Struct(ADDRESS_SCHEMA).put("city", "Lyon")));
+		SDTStream stream = assertInstanceOf(StreamMessage.class, msg).getStream();
+		assertEquals("Lyon", stream.readMap().getString("city"));
+		assertFalse(stream.hasRemaining());
+	}
+
+	@Test
+	public void testPrimitiveToStreamMessage() throws Exception {
+		SDTStream stream = assertInstanceOf(StreamMessage.class, process(Schema.INT32_SCHEMA, 5)).getStream();
+		assertEquals(5, stream.readInteger());
+	}
+
+	@Test
+	public void testSchemaless() throws Exception {
+		Map<String, Object> value = new LinkedHashMap<>();
+		value.put("n", 1L);
+		value.put("list", Arrays.asList("s", Collections.singletonMap("k", true)));
+		value.put("struct", new Struct(ADDRESS_SCHEMA).put("city", "Lyon").put("zip", "69001"));
+		SDTMap map = assertInstanceOf(MapMessage.class, process(null, value)).getMap();
+		assertEquals(1L, map.getLong("n"));
+		SDTStream list = map.getStream("list");
+		assertEquals("s", list.readString());
+		assertTrue(list.readMap().getBoolean("k"));
+		assertEquals("69001", map.getMap("struct").getString("zip"));
+
+		assertInstanceOf(MapMessage.class, process(null, new Struct(ADDRESS_SCHEMA).put("city", "Lyon")));
+		assertInstanceOf(StreamMessage.class, process(null, Arrays.asList(1, 2)));
+	}
+
+	@Test
+	public void testPlanCachedBySchema() {
+		SolSdtConverter converter = new SolSdtConverter();
+		assertSame(converter.writerFor(ORDER_SCHEMA), converter.writerFor(ORDER_SCHEMA));
+	}
+
+	@Test
+	public void testRecordWithoutValue() {
+		BytesXMLMessage msg = process(null, null);
+		assertFalse(msg instanceof MapMessage || msg instanceof StreamMessage);
+		assertEquals(0, msg.getAttachmentContentLength());
+	}
+}
@@ -0,0 +1,105 @@
+package com.solace.connector.kafka.connect.sink.recordprocessor;
+
+import com.solace.connector.kafka.connect.sink.SolaceSinkConstants;
+import com.solacesystems.jcsmp.BytesXMLMessage;
+import com.solacesystems.jcsmp.Topic;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolTemplateRoutingRecordProcessorTest {
+	private static final Schema CUSTOMER_SCHEMA = SchemaBuilder.struct()
+			.field("tier", Schema.STRING_SCHEMA)
+			.build();
+	private static final Schema ORDER_SCHEMA = SchemaBuilder.struct()
+			.field("status", Schema.STRING_SCHEMA)
+			.field("customer", CUSTOMER_SCHEMA)
+			.build();
+
+	private static SinkRecord record(Object key, Object value, String region) {
+		ConnectHeaders headers = new ConnectHeaders();
+		if (region != null) {
+			headers.addString("region", region);
+		}
+		return new SinkRecord("orders-in", 2, null, key, null, value, 0, null, null, headers);
+	}
+
+	@Test
+	public void testTemplate() {
+		SolDestinationTemplate template = SolDestinationTemplate.compile("t",
+				"orders/{key}/{header:region}/{value.field:status}/{value.field:customer.tier}/{topic}/{partition}");
+		Struct order = new Struct(ORDER_SCHEMA).put("status", "new")
+				.put("customer", new Struct(CUSTOMER_SCHEMA).put("tier", "gold"));
+
+		Topic topic = template.resolve(record("o-1".getBytes(StandardCharsets.UTF_8), order, "emea"));
+		assertEquals("orders/o-1/emea/new/gold/orders-in/2", topic.getName());
+		assertSame(topic, template.resolve(record("o-1", order, "emea")));
+
+		assertEquals("orders/_/_/shipped/_/orders-in/2",
+				template.resolve(record(null, Collections.singletonMap("status", "shipped"), null)).getName());
+	}
+
+	@Test
+	public void testJsonTemplate() {
+		SolDestinationTemplate template = SolDestinationTemplate.compile("t", "orders/{value.json:customer.tier}");
+		byte[] order = "{\"id\":1,\"customer\":{\"tier\":\"gold\"}}".getBytes(StandardCharsets.UTF_8);
+		assertEquals("orders/gold", template.resolve(record(null, order, null)).getName());
+		assertEquals("orders/_", template.resolve(record(null, "{\"id\":2}", null)).getName());
+		assertThrows(ConfigException.class, () -> SolDestinationTemplate.compile("t", "orders/{value.json:}"));
+	}
+
+	@Test
+	public void testValuesStayWithinTopicLevel() {
+		SolDestinationTemplate template = SolDestinationTemplate.compile("t",
+				"orders/{key}/{header:region}/{value.json:status}");
+		assertEquals("orders/eu_west/_/n_w",
+				template.resolve(record("eu/west", "{\"status\":\"n>w\"}", "*")).getName());
+		assertEquals("orders/_/_/_",
+				template.resolve(record("", "{\"status\":\"\"}", "")).getName());
+		assertEquals("orders/__/_/new",
+				template.resolve(record(">*", "{\"status\":\"new\"}", null)).getName());
+	}
+
+	@Test
+	public void testConstantTemplate() {
+		SolDestinationTemplate template = SolDestinationTemplate.compile("t", "orders/all");
+		assertSame(template.resolve(record(null, null, null)), template.resolve(record("k", "v", "r")));
+	}
+
+	@Test
+	public void testInvalidTemplates() {
+		assertThrows(ConfigException.class, () -> SolDestinationTemplate.compile("t", ""));
+		assertThrows(ConfigException.class, () -> SolDestinationTemplate.compile("t", "orders/{key"));
+		assertThrows(ConfigException.class, () -> SolDestinationTemplate.compile("t", "orders/key}"));
+		assertThrows(ConfigException.class, () -> SolDestinationTemplate.compile("t", "orders/{unknown}"));
+		assertThrows(ConfigException.class, () -> SolDestinationTemplate.compile("t", "orders/{header:}"));
+	}
+
+	@Test
+	public void testProcessor() throws Exception {
+		Map<String, String> config = new HashMap<>();
+		config.put(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION_TOPIC_TEMPLATE, "orders/{header:region}");
+		SolTemplateRoutingRecordProcessor processor = new SolTemplateRoutingRecordProcessor();
+		assertThrows(ConfigException.class, () -> processor.configure(config));
+
+		config.put(SolaceSinkConstants.SOL_DYNAMIC_DESTINATION, "true");
+		processor.configure(config);
+		BytesXMLMessage msg = processor.processRecord("NONE", record(null, "payload", "apac"));
+		assertEquals("orders/apac", msg.getProperties().getDestination("dynamicDestination").getName());
+		assertEquals("orders-in", msg.getProperties().getString("k_topic"));
+		assertEquals(7, msg.getAttachmentContentLength());
+	}
+}